@@ -4,9 +4,20 @@ import com.library.entity.Book;
 import com.library.entity.Member;
 import com.library.repository.BookRepository;
 import com.library.repository.MemberRepository;
+import com.library.repository.impl.BorrowingRepositoryImpl;
+import com.library.repository.impl.MemberRepositoryImpl;
+import com.library.reminder.DueDateTracker;
+import com.library.search.AutocompleteService;
+import com.library.search.BookBitmapIndex;
+import com.library.search.CatalogFacets;
+import com.library.search.SearchIndex;
 import com.library.service.BookService;
 import com.library.service.MemberService;
+import com.library.service.OverdueSweeper;
+import com.library.stats.Leaderboard;
+import com.library.stats.StatisticsStore;
 import com.library.util.HibernateUtil;
+import com.library.util.SearchColumnBackfill;
 import org.hibernate.SessionFactory;
 
 import javax.validation.Validation;
@@ -18,6 +29,28 @@ public class Main {
         // 1. Khởi tạo Hibernate SessionFactory
         SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
 
+        // Đối soát bộ đếm activeBorrowings/totalBorrowed trước khi quầy mượn sách dựa vào chúng
+        new MemberRepositoryImpl().reconcileBorrowingCounters();
+
+        // Điền cột tìm kiếm không dấu cho dữ liệu cũ, rồi dựng chỉ mục tìm kiếm toàn văn, chỉ mục gợi ý, bitmap sách có sẵn và facet danh mục trong bộ nhớ
+        SearchColumnBackfill.run();
+        SearchIndex.getInstance().rebuild();
+        AutocompleteService.getInstance().rebuild();
+        BookBitmapIndex.getInstance().rebuild();
+        CatalogFacets.getInstance().rebuild();
+
+        // Số liệu cho bảng điều khiển thủ thư, đối soát định kỳ với database
+        StatisticsStore.getInstance().start();
+
+        // Bảng xếp hạng sách mượn nhiều và thành viên tích cực (toàn thời gian, 7 và 30 ngày)
+        Leaderboard.getInstance().start();
+
+        // Chuyển phiếu quá hạn sang OVERDUE và ghi tiền phạt, lặp lại mỗi giờ
+        new OverdueSweeper(new BorrowingRepositoryImpl()).start(OverdueSweeper.DEFAULT_INTERVAL);
+
+        // Lịch hạn trả trong bộ nhớ cho lời nhắc sắp tới hạn và thông báo quá hạn
+        DueDateTracker.getInstance().start();
+
         // 2. Khởi tạo Repository và Validator
         Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
         BookRepository bookRepository = new BookRepository(sessionFactory);
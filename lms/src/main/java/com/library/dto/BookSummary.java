@@ -0,0 +1,72 @@
+package com.library.dto;
+
+import java.util.Objects;
+
+/**
+ * Thông tin tóm tắt của sách dùng cho danh sách và kết quả tìm kiếm.
+ * Được tạo trực tiếp bằng constructor expression trong HQL nên không qua persistence context.
+ */
+public final class BookSummary {
+
+    private final Long bookId;
+    private final String title;
+    private final String isbn;
+    private final String category;
+    private final boolean available;
+
+    public BookSummary(Long bookId, String title, String isbn, String category, Boolean available) {
+        this.bookId = bookId;
+        this.title = title;
+        this.isbn = isbn;
+        this.category = category;
+        this.available = Boolean.TRUE.equals(available);
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BookSummary)) return false;
+        BookSummary that = (BookSummary) o;
+        return available == that.available
+                && Objects.equals(bookId, that.bookId)
+                && Objects.equals(title, that.title)
+                && Objects.equals(isbn, that.isbn)
+                && Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bookId, title, isbn, category, available);
+    }
+
+    @Override
+    public String toString() {
+        return "BookSummary{" +
+                "bookId=" + bookId +
+                ", title='" + title + '\'' +
+                ", isbn='" + isbn + '\'' +
+                ", category='" + category + '\'' +
+                ", available=" + available +
+                '}';
+    }
+}
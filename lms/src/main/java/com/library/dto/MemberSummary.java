@@ -0,0 +1,73 @@
+package com.library.dto;
+
+import com.library.entity.Member.MemberStatus;
+
+import java.util.Objects;
+
+/**
+ * Thông tin tóm tắt của thành viên dùng cho danh sách và kết quả tìm kiếm.
+ * Được tạo trực tiếp bằng constructor expression trong HQL nên không qua persistence context.
+ */
+public final class MemberSummary {
+
+    private final Long memberId;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private final MemberStatus status;
+
+    public MemberSummary(Long memberId, String name, String email, String phone, MemberStatus status) {
+        this.memberId = memberId;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.status = status;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public MemberStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MemberSummary)) return false;
+        MemberSummary that = (MemberSummary) o;
+        return Objects.equals(memberId, that.memberId)
+                && Objects.equals(name, that.name)
+                && Objects.equals(email, that.email)
+                && Objects.equals(phone, that.phone)
+                && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(memberId, name, email, phone, status);
+    }
+
+    @Override
+    public String toString() {
+        return "MemberSummary{" +
+                "memberId=" + memberId +
+                ", name='" + name + '\'' +
+                ", email='" + email + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
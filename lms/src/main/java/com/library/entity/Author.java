@@ -1,6 +1,11 @@
 package com.library.entity;
 
+import com.library.util.TextNormalizer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -9,17 +14,26 @@ import java.util.Set;
  * Chứa thông tin về tác giả của sách
  */
 @Entity
-@Table(name = "authors")
-public class Author {
+@Table(name = "authors", indexes = @Index(name = "idx_authors_name_normalized", columnList = "name_normalized"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class Author implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     @Column(name = "author_id")
     private Long authorId;
     
     @Column(name = "name", nullable = false, length = 255)
     private String name;
     
+    // Tên đã bỏ dấu, chữ thường (TextNormalizer.fold) để tìm kiếm không dấu dùng được index
+    @Column(name = "name_normalized", length = 255)
+    private String nameNormalized;
+    
     @Column(name = "biography", columnDefinition = "TEXT")
     private String biography;
     
@@ -31,6 +45,7 @@ public class Author {
     
     // Many-to-Many relationship với Book
     @ManyToMany(mappedBy = "authors", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Book> books = new HashSet<>();
     
     // Constructors
@@ -68,6 +83,11 @@ public class Author {
     
     public void setName(String name) {
         this.name = name;
+        this.nameNormalized = TextNormalizer.fold(name);
+    }
+    
+    public String getNameNormalized() {
+        return nameNormalized;
     }
     
     public String getBiography() {
@@ -113,6 +133,13 @@ public class Author {
         book.getAuthors().remove(this);
     }
     
+    // Cột chuẩn hóa luôn khớp với name, kể cả khi field được gán trực tiếp qua constructor
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchColumns() {
+        this.nameNormalized = TextNormalizer.fold(name);
+    }
+    
     @Override
     public String toString() {
         return "Author{" +
@@ -1,6 +1,13 @@
 package com.library.entity;
 
+import com.library.util.TextNormalizer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -9,17 +16,30 @@ import java.util.Set;
  * Chứa thông tin về sách, bao gồm tiêu đề, ISBN, thể loại, tác giả và các thông tin liên quan khác
  */
 @Entity
-@Table(name = "books")
-public class Book {
+@Table(name = "books", indexes = @Index(name = "idx_books_title_normalized", columnList = "title_normalized"))
+@NamedEntityGraph(name = "Book.withAuthors", attributeNodes = @NamedAttributeNode("authors"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+public class Book implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     @Column(name = "book_id")
     private Long bookId;
     
     @Column(name = "title", nullable = false, length = 255)
     private String title;
     
+    // Tiêu đề đã bỏ dấu, chữ thường (TextNormalizer.fold) để tìm kiếm không dấu dùng được index
+    @Column(name = "title_normalized", length = 255)
+    private String titleNormalized;
+    
+    // Khóa tự nhiên: tra cứu theo ISBN (máy quét mã vạch) đi qua natural-id cache thay vì truy vấn HQL
+    @NaturalId(mutable = true)
     @Column(name = "isbn", unique = true, length = 20)
     private String isbn;
     
@@ -41,6 +61,7 @@ public class Book {
         joinColumns = @JoinColumn(name = "book_id"),
         inverseJoinColumns = @JoinColumn(name = "author_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Author> authors = new HashSet<>();
     
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -71,6 +92,11 @@ public class Book {
     
     public void setTitle(String title) {
         this.title = title;
+        this.titleNormalized = TextNormalizer.fold(title);
+    }
+    
+    public String getTitleNormalized() {
+        return titleNormalized;
     }
     
     public String getIsbn() {
@@ -140,6 +166,13 @@ public class Book {
         author.getBooks().remove(this);
     }
     
+    // Cột chuẩn hóa luôn khớp với title, kể cả khi field được gán trực tiếp qua constructor
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchColumns() {
+        this.titleNormalized = TextNormalizer.fold(title);
+    }
+    
     @Override
     public String toString() {
         return "Book{" +
@@ -1,6 +1,7 @@
 package com.library.entity;
 
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
@@ -9,11 +10,22 @@ import java.time.temporal.ChronoUnit;
  * Chứa thông tin về việc mượn sách của thành viên
  */
 @Entity
-@Table(name = "borrowings")
-public class Borrowing {
+@Table(name = "borrowings", indexes = @Index(name = "idx_borrowings_status_due_date", columnList = "status, due_date"))
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = "Borrowing.withMember", attributeNodes = @NamedAttributeNode("member")),
+    @NamedEntityGraph(name = "Borrowing.withBook", attributeNodes = @NamedAttributeNode("book")),
+    @NamedEntityGraph(name = "Borrowing.withMemberAndBook", attributeNodes = {
+        @NamedAttributeNode("member"),
+        @NamedAttributeNode("book")
+    })
+})
+public class Borrowing implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_seq")
+    @SequenceGenerator(name = "borrowing_seq", sequenceName = "borrowing_seq", allocationSize = 50)
     @Column(name = "borrowing_id")
     private Long borrowingId;
     
@@ -46,6 +58,9 @@ public class Borrowing {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
     
+    // Phạt 5000 VND mỗi ngày quá hạn
+    public static final double FINE_PER_DAY = 5000.0;
+    
     // Enum cho trạng thái mượn sách
     public enum BorrowingStatus {
         BORROWED, RETURNED, OVERDUE, LOST
@@ -156,8 +171,15 @@ public class Borrowing {
     public double calculateFine() {
         if (!isOverdue()) return 0.0;
         long daysOverdue = getDaysOverdue();
-        // Phạt 5000 VND mỗi ngày quá hạn
-        return daysOverdue * 5000.0;
+        return daysOverdue * FINE_PER_DAY;
+    }
+    
+    /**
+     * Tính tiền phạt khi trả sách vào ngày returnDate cho phiếu có hạn trả dueDate
+     */
+    public static double calculateFine(LocalDate dueDate, LocalDate returnDate) {
+        if (!returnDate.isAfter(dueDate)) return 0.0;
+        return ChronoUnit.DAYS.between(dueDate, returnDate) * FINE_PER_DAY;
     }
     
     public void returnBook() {
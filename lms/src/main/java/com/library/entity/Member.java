@@ -1,6 +1,13 @@
 package com.library.entity;
 
+import com.library.util.TextNormalizer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,17 +17,29 @@ import java.util.Set;
  * Chứa thông tin về thành viên thư viện
  */
 @Entity
-@Table(name = "members")
-public class Member {
+@Table(name = "members", indexes = @Index(name = "idx_members_name_normalized", columnList = "name_normalized"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+public class Member implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long memberId;
     
     @Column(name = "name", nullable = false, length = 255)
     private String name;
     
+    // Tên đã bỏ dấu, chữ thường (TextNormalizer.fold) để tìm kiếm không dấu dùng được index
+    @Column(name = "name_normalized", length = 255)
+    private String nameNormalized;
+    
+    // Khóa tự nhiên: findByEmail/existsByEmail đi qua natural-id cache thay vì truy vấn HQL
+    @NaturalId(mutable = true)
     @Column(name = "email", unique = true, nullable = false, length = 255)
     private String email;
     
@@ -85,6 +104,11 @@ public class Member {
     
     public void setName(String name) {
         this.name = name;
+        this.nameNormalized = TextNormalizer.fold(name);
+    }
+    
+    public String getNameNormalized() {
+        return nameNormalized;
     }
     
     public String getEmail() {
@@ -167,6 +191,13 @@ public class Member {
         }
     }
     
+    // Cột chuẩn hóa luôn khớp với name, kể cả khi field được gán trực tiếp qua constructor
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchColumns() {
+        this.nameNormalized = TextNormalizer.fold(name);
+    }
+    
     @Override
     public String toString() {
         return "Member{" +
@@ -0,0 +1,109 @@
+package com.library.event;
+
+import java.util.Arrays;
+
+/**
+ * Một thay đổi đã commit trên entity: thêm, cập nhật hoặc xóa.
+ *
+ * Trạng thái cũ có thể không có: Hibernate không giữ snapshot khi entity detached được
+ * cập nhật bằng session.update(), và các câu UPDATE hàng loạt chỉ công bố những cột chúng thay đổi.
+ */
+public final class EntityChange {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Type type;
+    private final Class<?> entityClass;
+    private final Object id;
+    private final Object entity;
+    private final String[] propertyNames;
+    private final Object[] oldState;
+    private final Object[] newState;
+
+    public EntityChange(Type type, Class<?> entityClass, Object id, Object entity,
+                        String[] propertyNames, Object[] oldState, Object[] newState) {
+        this.type = type;
+        this.entityClass = entityClass;
+        this.id = id;
+        this.entity = entity;
+        this.propertyNames = propertyNames;
+        this.oldState = oldState;
+        this.newState = newState;
+    }
+
+    /**
+     * Thay đổi của một cột do câu UPDATE hàng loạt gây ra (không có entity, không qua event listener của Hibernate)
+     */
+    public static EntityChange bulkUpdate(Class<?> entityClass, Object id, String property, Object oldValue, Object newValue) {
+        return new EntityChange(Type.UPDATE, entityClass, id, null,
+                new String[]{property}, new Object[]{oldValue}, new Object[]{newValue});
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public boolean isFor(Class<?> type) {
+        return type.isAssignableFrom(entityClass);
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * Entity sau thay đổi (trước khi xóa với DELETE), null với thay đổi hàng loạt
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    public boolean hasProperty(String property) {
+        return indexOf(property) >= 0;
+    }
+
+    /**
+     * true nếu biết được giá trị cũ của thuộc tính
+     */
+    public boolean hasOldValue(String property) {
+        return oldState != null && indexOf(property) >= 0;
+    }
+
+    public Object getOldValue(String property) {
+        int index = indexOf(property);
+        return oldState == null || index < 0 ? null : oldState[index];
+    }
+
+    public Object getNewValue(String property) {
+        int index = indexOf(property);
+        return newState == null || index < 0 ? null : newState[index];
+    }
+
+    private int indexOf(String property) {
+        if (propertyNames == null) {
+            return -1;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(property)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+                "type=" + type +
+                ", entity=" + entityClass.getSimpleName() +
+                ", id=" + id +
+                ", properties=" + Arrays.toString(propertyNames) +
+                '}';
+    }
+}
@@ -0,0 +1,14 @@
+package com.library.event;
+
+/**
+ * Nhận các thay đổi entity đã commit (xem EntityEventBus)
+ */
+@FunctionalInterface
+public interface EntityChangeListener {
+
+    /**
+     * Được gọi sau khi transaction chứa thay đổi đã commit, trên thread đã commit.
+     * Không được ném exception: lỗi được ghi log và bỏ qua.
+     */
+    void onChange(EntityChange change);
+}
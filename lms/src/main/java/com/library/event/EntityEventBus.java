@@ -0,0 +1,47 @@
+package com.library.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Phát các thay đổi entity đã commit tới những thành phần giữ dữ liệu trong bộ nhớ
+ * (chỉ mục tìm kiếm, thống kê...).
+ *
+ * Thay đổi qua Session (insert/update/delete) được chuyển tới tự động bởi EntityEventIntegrator;
+ * các câu UPDATE hàng loạt bỏ qua event listener của Hibernate nên repository tự công bố bằng publish().
+ */
+public final class EntityEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityEventBus.class);
+
+    private static final List<EntityChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private EntityEventBus() {
+    }
+
+    public static void register(EntityChangeListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public static void unregister(EntityChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gửi thay đổi tới tất cả listener; lỗi của một listener không ảnh hưởng listener khác
+     */
+    public static void publish(EntityChange change) {
+        for (EntityChangeListener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                logger.error("Lỗi khi xử lý thay đổi {} trong {}: {}", change, listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
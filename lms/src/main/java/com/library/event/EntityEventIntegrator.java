@@ -0,0 +1,78 @@
+package com.library.event;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Gắn listener post-commit insert/update/delete của Hibernate và chuyển thay đổi sang EntityEventBus.
+ * Dùng listener post-commit nên thay đổi bị rollback không bao giờ được công bố.
+ */
+public class EntityEventIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        Listener listener = new Listener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private static final class Listener implements PostCommitInsertEventListener,
+            PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            EntityPersister persister = event.getPersister();
+            EntityEventBus.publish(new EntityChange(EntityChange.Type.INSERT, persister.getMappedClass(),
+                    event.getId(), event.getEntity(), persister.getPropertyNames(), null, event.getState()));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            EntityPersister persister = event.getPersister();
+            EntityEventBus.publish(new EntityChange(EntityChange.Type.UPDATE, persister.getMappedClass(),
+                    event.getId(), event.getEntity(), persister.getPropertyNames(), event.getOldState(), event.getState()));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            EntityPersister persister = event.getPersister();
+            EntityEventBus.publish(new EntityChange(EntityChange.Type.DELETE, persister.getMappedClass(),
+                    event.getId(), event.getEntity(), persister.getPropertyNames(), event.getDeletedState(), null));
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return true;
+        }
+    }
+}
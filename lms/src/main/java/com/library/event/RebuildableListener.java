@@ -0,0 +1,107 @@
+package com.library.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Khung chung cho các chỉ mục và bộ đếm trong bộ nhớ được đồng bộ qua EntityEventBus và dựng lại
+ * toàn bộ từ database bằng rebuild().
+ *
+ * rebuild() nạp trạng thái mới ngoài khóa trong khi vẫn nhận thay đổi; các thay đổi nhận được trong lúc
+ * nạp được ghi lại rồi áp lên trạng thái mới trước khi thay trạng thái cũ, nên không thay đổi nào bị mất.
+ * Trạng thái hiện tại chỉ được áp thay đổi và thay thế khi giữ khóa của đối tượng.
+ *
+ * @param <S> Trạng thái được thay thế nguyên khối khi rebuild
+ */
+public abstract class RebuildableListener<S> implements EntityChangeListener {
+
+    private final String description;
+
+    // Thay đổi nhận được trong lúc rebuild, null nếu không rebuild (được bảo vệ bởi this)
+    private List<EntityChange> pendingChanges;
+
+    /**
+     * @param description Tên dùng trong thông báo lỗi, ví dụ "Bitmap sách"
+     */
+    protected RebuildableListener(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Dựng lại toàn bộ trạng thái từ database
+     */
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        synchronized (this) {
+            if (pendingChanges != null) {
+                throw new IllegalStateException(description + " đang được dựng lại");
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            S rebuilt = load();
+
+            synchronized (this) {
+                replay(pendingChanges, rebuilt);
+                install(rebuilt);
+            }
+            logRebuilt(rebuilt, (System.nanoTime() - startNanos) / 1_000_000L);
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onChange(EntityChange change) {
+        if (!accepts(change)) {
+            return;
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        apply(change, current());
+    }
+
+    /**
+     * true nếu thay đổi cần được áp (mặc định: mọi thay đổi)
+     */
+    protected boolean accepts(EntityChange change) {
+        return true;
+    }
+
+    /**
+     * Nạp trạng thái mới từ database; chạy ngoài khóa
+     */
+    protected abstract S load();
+
+    /**
+     * Trạng thái đang dùng; gọi khi giữ khóa
+     */
+    protected abstract S current();
+
+    /**
+     * Áp một thay đổi lên trạng thái; gọi khi giữ khóa
+     */
+    protected abstract void apply(EntityChange change, S state);
+
+    /**
+     * Áp các thay đổi nhận được trong lúc nạp lên trạng thái mới; gọi khi giữ khóa
+     */
+    protected void replay(List<EntityChange> changes, S rebuilt) {
+        for (EntityChange change : changes) {
+            apply(change, rebuilt);
+        }
+    }
+
+    /**
+     * Thay trạng thái đang dùng bằng trạng thái mới; gọi khi giữ khóa
+     */
+    protected abstract void install(S rebuilt);
+
+    /**
+     * Ghi log sau khi dựng lại
+     */
+    protected abstract void logRebuilt(S rebuilt, long elapsedMillis);
+}
@@ -0,0 +1,48 @@
+package com.library.importer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Một dòng dữ liệu sách đọc từ file import (CSV hoặc JSON-lines)
+ */
+public final class BookRecord {
+
+    private final String title;
+    private final String isbn;
+    private final String category;
+    private final List<String> authorNames;
+
+    public BookRecord(String title, String isbn, String category, List<String> authorNames) {
+        this.title = title;
+        this.isbn = isbn;
+        this.category = category;
+        this.authorNames = authorNames != null ? Collections.unmodifiableList(authorNames) : Collections.emptyList();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public List<String> getAuthorNames() {
+        return authorNames;
+    }
+
+    @Override
+    public String toString() {
+        return "BookRecord{" +
+                "title='" + title + '\'' +
+                ", isbn='" + isbn + '\'' +
+                ", category='" + category + '\'' +
+                ", authorNames=" + authorNames +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Đọc tuần tự từng BookRecord từ một nguồn dữ liệu, không nạp cả file vào bộ nhớ
+ */
+public interface BookRecordReader extends Closeable {
+
+    /**
+     * Đọc record tiếp theo
+     * @return BookRecord, hoặc null nếu đã hết dữ liệu
+     * @throws IOException Nếu đọc file lỗi hoặc dòng dữ liệu sai định dạng
+     */
+    BookRecord next() throws IOException;
+
+    /**
+     * Mở reader phù hợp theo phần mở rộng của file (.csv, .jsonl/.ndjson)
+     * @param file File dữ liệu
+     * @return BookRecordReader tương ứng
+     * @throws IOException Nếu không mở được file
+     */
+    static BookRecordReader open(Path file) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        if (fileName.endsWith(".csv")) {
+            return new CsvBookRecordReader(reader);
+        }
+        if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson") || fileName.endsWith(".json")) {
+            return new JsonLinesBookRecordReader(reader);
+        }
+        reader.close();
+        throw new IllegalArgumentException("Định dạng file không được hỗ trợ: " + fileName);
+    }
+}
@@ -0,0 +1,213 @@
+package com.library.importer;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.util.HibernateUtil;
+import com.library.util.ProjectionScroll;
+import com.library.util.UnitOfWork;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Import danh mục sách số lượng lớn từ file CSV/JSON-lines.
+ *
+ * Đọc file theo luồng, ghi theo từng chunk (mỗi chunk một transaction), trong chunk flush/clear
+ * theo hibernate.jdbc.batch_size nên bộ nhớ không phụ thuộc kích thước file.
+ * Tác giả được khử trùng theo tên bằng bảng tra cứu trong bộ nhớ (nạp sẵn từ database).
+ * Sau mỗi chunk, vị trí được ghi vào checkpoint để có thể tiếp tục nếu bị gián đoạn.
+ */
+public class CatalogImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImporter.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+    private final SessionFactory sessionFactory;
+    private final int chunkSize;
+
+    // Tên tác giả đã chuẩn hóa -> ID
+    private final Map<String, Long> authorIdsByName = new HashMap<>();
+
+    public CatalogImporter() {
+        this(HibernateUtil.getSessionFactory(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public CatalogImporter(SessionFactory sessionFactory, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize phải lớn hơn 0");
+        }
+        this.sessionFactory = sessionFactory;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import một file, tự tiếp tục từ checkpoint nếu lần trước bị gián đoạn
+     * @param file File .csv hoặc .jsonl
+     * @return Kết quả import
+     */
+    public ImportResult importFile(Path file) throws IOException {
+        ImportCheckpoint checkpoint = ImportCheckpoint.forFile(file);
+        long alreadyImported = checkpoint.load();
+        if (alreadyImported > 0) {
+            logger.info("Tiếp tục import {} từ record {}", file, alreadyImported);
+        }
+        try (BookRecordReader reader = BookRecordReader.open(file)) {
+            ImportResult result = importRecords(reader, alreadyImported, checkpoint);
+            checkpoint.delete();
+            return result;
+        }
+    }
+
+    /**
+     * Import từ một reader bất kỳ
+     * @param reader Nguồn record
+     * @param skipRecords Số record đầu tiên bỏ qua (đã import ở lần trước)
+     * @param checkpoint Nơi ghi vị trí sau mỗi chunk, có thể null
+     * @return Kết quả import
+     */
+    public ImportResult importRecords(BookRecordReader reader, long skipRecords, ImportCheckpoint checkpoint) throws IOException {
+        long startNanos = System.nanoTime();
+        loadAuthorIds();
+
+        long position = 0;
+        while (position < skipRecords && reader.next() != null) {
+            position++;
+        }
+
+        long recordsRead = 0;
+        long booksImported = 0;
+        long booksSkipped = 0;
+        long authorsCreated = 0;
+        List<BookRecord> chunk = new ArrayList<>(chunkSize);
+        BookRecord record;
+        do {
+            record = reader.next();
+            if (record != null) {
+                chunk.add(record);
+            }
+            if (chunk.size() == chunkSize || (record == null && !chunk.isEmpty())) {
+                ChunkResult chunkResult = writeChunk(chunk);
+                position += chunk.size();
+                recordsRead += chunk.size();
+                booksImported += chunkResult.booksImported;
+                booksSkipped += chunk.size() - chunkResult.booksImported;
+                authorsCreated += chunkResult.authorsCreated;
+                chunk.clear();
+                if (checkpoint != null) {
+                    checkpoint.save(position);
+                }
+                logProgress(recordsRead, startNanos);
+            }
+        } while (record != null);
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        ImportResult result = new ImportResult(recordsRead, booksImported, booksSkipped, authorsCreated, elapsedMillis);
+        logger.info("Hoàn tất import danh mục sách: {}", result);
+        return result;
+    }
+
+    private ChunkResult writeChunk(List<BookRecord> chunk) {
+        ChunkResult result = new ChunkResult();
+        Map<String, Long> newAuthors = new HashMap<>();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+            Session session = unitOfWork.getSession();
+            Set<String> existingIsbns = findExistingIsbns(session, chunk);
+
+            int processed = 0;
+            for (BookRecord record : chunk) {
+                if (record.getIsbn() != null && !existingIsbns.add(record.getIsbn())) {
+                    logger.debug("Bỏ qua sách trùng ISBN: {}", record.getIsbn());
+                    continue;
+                }
+                Book book = new Book(record.getTitle(), record.getIsbn(), record.getCategory());
+                book.setCreatedDate(LocalDate.now());
+                for (Long authorId : resolveAuthorIds(session, record.getAuthorNames(), newAuthors)) {
+                    book.getAuthors().add(session.load(Author.class, authorId));
+                }
+                session.persist(book);
+                result.booksImported++;
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+        } catch (Exception e) {
+            logger.error("Lỗi khi import danh mục sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể import danh mục sách", e);
+        }
+        // Chỉ ghi nhận tác giả mới sau khi chunk đã commit
+        authorIdsByName.putAll(newAuthors);
+        result.authorsCreated = newAuthors.size();
+        return result;
+    }
+
+    private Set<String> findExistingIsbns(Session session, List<BookRecord> chunk) {
+        List<String> isbns = new ArrayList<>();
+        for (BookRecord record : chunk) {
+            if (record.getIsbn() != null) {
+                isbns.add(record.getIsbn());
+            }
+        }
+        if (isbns.isEmpty()) {
+            return new HashSet<>();
+        }
+        Query<String> query = session.createQuery("SELECT b.isbn FROM Book b WHERE b.isbn IN (:isbns)", String.class);
+        query.setParameterList("isbns", isbns);
+        return new HashSet<>(query.list());
+    }
+
+    private Set<Long> resolveAuthorIds(Session session, List<String> names, Map<String, Long> newAuthors) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String name : names) {
+            String key = normalizeName(name);
+            Long id = authorIdsByName.get(key);
+            if (id == null) {
+                id = newAuthors.get(key);
+            }
+            if (id == null) {
+                Author author = new Author(name.trim());
+                session.persist(author);
+                id = author.getAuthorId();
+                newAuthors.put(key, id);
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void loadAuthorIds() {
+        authorIdsByName.clear();
+        ProjectionScroll.forEach(sessionFactory, "SELECT a.authorId, a.name FROM Author a", Collections.emptyMap(),
+                row -> authorIdsByName.putIfAbsent(normalizeName((String) row[1]), (Long) row[0]));
+        logger.info("Đã nạp {} tác giả vào bảng tra cứu", authorIdsByName.size());
+    }
+
+    private static String normalizeName(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void logProgress(long recordsRead, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        logger.info("Đã import {} record ({} rows/sec)", recordsRead,
+                String.format("%.1f", seconds > 0 ? recordsRead / seconds : recordsRead));
+    }
+
+    private static class ChunkResult {
+        private long booksImported;
+        private long authorsCreated;
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Đọc BookRecord từ file CSV có dòng tiêu đề: title,isbn,category,authors
+ * Cột authors chứa nhiều tác giả cách nhau bởi dấu ';'. Hỗ trợ trường đặt trong dấu nháy kép.
+ */
+public class CsvBookRecordReader implements BookRecordReader {
+
+    private final BufferedReader reader;
+    private int titleIndex = -1;
+    private int isbnIndex = -1;
+    private int categoryIndex = -1;
+    private int authorsIndex = -1;
+    private long lineNumber;
+
+    public CsvBookRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        if (titleIndex < 0) {
+            readHeader();
+        }
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        List<String> fields = parseLine(line);
+        String title = field(fields, titleIndex);
+        if (title == null || title.isEmpty()) {
+            throw new IOException("Dòng " + lineNumber + ": thiếu tiêu đề sách");
+        }
+        return new BookRecord(title, field(fields, isbnIndex), field(fields, categoryIndex),
+                splitAuthors(field(fields, authorsIndex)));
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        lineNumber++;
+        if (header == null) {
+            throw new IOException("File CSV rỗng");
+        }
+        List<String> columns = parseLine(header.replace("\uFEFF", ""));
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "title": titleIndex = i; break;
+                case "isbn": isbnIndex = i; break;
+                case "category": categoryIndex = i; break;
+                case "authors": authorsIndex = i; break;
+                default: break;
+            }
+        }
+        if (titleIndex < 0) {
+            throw new IOException("File CSV thiếu cột title");
+        }
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> splitAuthors(String authors) {
+        List<String> names = new ArrayList<>();
+        if (authors == null) return names;
+        Arrays.stream(authors.split(";"))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(names::add);
+        return names;
+    }
+
+    /**
+     * Tách một dòng CSV thành các trường (RFC 4180, không hỗ trợ xuống dòng trong trường)
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.library.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Lưu vị trí (số record đã commit) của một lần import ra file bên cạnh file dữ liệu,
+ * để có thể tiếp tục import sau khi bị gián đoạn.
+ */
+public class ImportCheckpoint {
+
+    private static final String RECORDS_KEY = "records";
+
+    private final Path checkpointFile;
+
+    public ImportCheckpoint(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Checkpoint mặc định cho file dữ liệu: &lt;file&gt;.checkpoint
+     */
+    public static ImportCheckpoint forFile(Path dataFile) {
+        return new ImportCheckpoint(dataFile.resolveSibling(dataFile.getFileName() + ".checkpoint"));
+    }
+
+    /**
+     * Đọc số record đã commit ở lần chạy trước
+     * @return Số record đã xử lý, 0 nếu chưa có checkpoint
+     */
+    public long load() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0L;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return Long.parseLong(properties.getProperty(RECORDS_KEY, "0"));
+    }
+
+    /**
+     * Ghi số record đã commit (ghi ra file tạm rồi đổi tên để không để lại file hỏng)
+     */
+    public void save(long records) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(RECORDS_KEY, Long.toString(records));
+        Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Catalog import checkpoint");
+        }
+        Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Xóa checkpoint khi import hoàn tất
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(checkpointFile);
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.importer;
+
+/**
+ * Kết quả của một lần import danh mục sách
+ */
+public final class ImportResult {
+
+    private final long recordsRead;
+    private final long booksImported;
+    private final long booksSkipped;
+    private final long authorsCreated;
+    private final long elapsedMillis;
+
+    public ImportResult(long recordsRead, long booksImported, long booksSkipped, long authorsCreated, long elapsedMillis) {
+        this.recordsRead = recordsRead;
+        this.booksImported = booksImported;
+        this.booksSkipped = booksSkipped;
+        this.authorsCreated = authorsCreated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Số record đã đọc trong lần chạy này (không tính phần bỏ qua theo checkpoint)
+     */
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public long getBooksImported() {
+        return booksImported;
+    }
+
+    /**
+     * Số record bị bỏ qua vì ISBN đã tồn tại
+     */
+    public long getBooksSkipped() {
+        return booksSkipped;
+    }
+
+    public long getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? recordsRead : recordsRead * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "recordsRead=" + recordsRead +
+                ", booksImported=" + booksImported +
+                ", booksSkipped=" + booksSkipped +
+                ", authorsCreated=" + authorsCreated +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                '}';
+    }
+}
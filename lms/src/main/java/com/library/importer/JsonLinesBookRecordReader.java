@@ -0,0 +1,73 @@
+package com.library.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc BookRecord từ file JSON-lines, mỗi dòng là một object:
+ * {"title": "...", "isbn": "...", "category": "...", "authors": ["...", "..."]}
+ */
+public class JsonLinesBookRecordReader implements BookRecordReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    public JsonLinesBookRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IOException("Dòng " + lineNumber + ": JSON không hợp lệ", e);
+        }
+        String title = text(node, "title");
+        if (title == null) {
+            throw new IOException("Dòng " + lineNumber + ": thiếu tiêu đề sách");
+        }
+
+        List<String> authors = new ArrayList<>();
+        JsonNode authorsNode = node.get("authors");
+        if (authorsNode != null && authorsNode.isArray()) {
+            for (JsonNode author : authorsNode) {
+                String name = author.asText().trim();
+                if (!name.isEmpty()) {
+                    authors.add(name);
+                }
+            }
+        }
+        return new BookRecord(title, text(node, "isbn"), text(node, "category"), authors);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) return null;
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.reminder;
+
+import java.time.LocalDate;
+
+/**
+ * Nhận thông báo về hạn trả của phiếu mượn từ DueDateTracker
+ */
+public interface DueDateHandler {
+
+    /**
+     * Phiếu mượn chưa trả sắp tới hạn (DueDateTracker.REMINDER_LEAD_DAYS ngày trước hạn trả)
+     */
+    default void onDueSoon(long borrowingId, LocalDate dueDate) {
+    }
+
+    /**
+     * Phiếu mượn chưa trả vừa quá hạn (ngày đầu tiên sau hạn trả)
+     */
+    default void onOverdue(long borrowingId, LocalDate dueDate) {
+    }
+}
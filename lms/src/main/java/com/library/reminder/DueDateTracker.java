@@ -0,0 +1,237 @@
+package com.library.reminder;
+
+import com.library.entity.Borrowing;
+import com.library.entity.Borrowing.BorrowingStatus;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.util.ProjectionScroll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Theo dõi hạn trả của các phiếu mượn chưa trả bằng hai timing wheel theo ngày (nhắc sắp tới hạn
+ * và vừa quá hạn), thay cho việc định kỳ quét bảng borrowings bằng findByDueDateBetween/findOverdueBorrowings.
+ *
+ * rebuild() nạp các phiếu BORROWED/OVERDUE một lần (chỉ ID và hạn trả, duyệt theo luồng); sau đó wheel
+ * được giữ đúng qua EntityEventBus (mượn, trả, gia hạn, xóa). tick() chạy mỗi phút khi đã start(), chỉ
+ * làm việc khi sang ngày mới và gọi DueDateHandler cho các phiếu tới hạn mà không truy vấn database.
+ * Phiếu có ngày nhắc hoặc ngày quá hạn đã qua tại thời điểm được hẹn sẽ không được thông báo lại.
+ */
+public final class DueDateTracker extends RebuildableListener<DueDateTracker.Wheels> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueDateTracker.class);
+
+    /** Số ngày trước hạn trả để nhắc */
+    public static final int REMINDER_LEAD_DAYS = 2;
+
+    private static final DueDateTracker INSTANCE = new DueDateTracker();
+
+    private final Clock clock;
+    private final List<DueDateHandler> handlers = new CopyOnWriteArrayList<>();
+
+    // Được bảo vệ bởi this
+    private Wheels wheels;
+    private ScheduledExecutorService ticker;
+
+    private DueDateTracker() {
+        this(Clock.systemDefaultZone());
+        EntityEventBus.register(this);
+    }
+
+    DueDateTracker(Clock clock) {
+        super("Lịch hạn trả");
+        this.clock = clock;
+        this.wheels = new Wheels(LocalDate.now(clock).toEpochDay());
+    }
+
+    public static DueDateTracker getInstance() {
+        return INSTANCE;
+    }
+
+    public void addHandler(DueDateHandler handler) {
+        handlers.add(handler);
+    }
+
+    public void removeHandler(DueDateHandler handler) {
+        handlers.remove(handler);
+    }
+
+    /**
+     * Số phiếu đang được theo dõi để báo quá hạn
+     */
+    public synchronized int size() {
+        return wheels.overdue.size();
+    }
+
+    /**
+     * Nạp các phiếu chưa trả rồi kiểm tra sang ngày mới mỗi phút trên một thread nền
+     */
+    public void start() {
+        rebuild();
+        synchronized (this) {
+            if (ticker != null) {
+                return;
+            }
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "due-date-tracker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleWithFixedDelay(this::tickSafely, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Nạp wheel từ các phiếu BORROWED/OVERDUE trong database
+     */
+    @Override
+    protected Wheels load() {
+        long today;
+        synchronized (this) {
+            today = wheels.overdue.currentTick();
+        }
+        Wheels loaded = new Wheels(today);
+        ProjectionScroll.forEach("SELECT b.borrowingId, b.dueDate FROM Borrowing b WHERE b.status IN (:borrowed, :overdue)",
+                Map.of("borrowed", BorrowingStatus.BORROWED, "overdue", BorrowingStatus.OVERDUE),
+                row -> loaded.schedule((Long) row[0], (LocalDate) row[1]));
+        return loaded;
+    }
+
+    @Override
+    protected Wheels current() {
+        return wheels;
+    }
+
+    @Override
+    protected void install(Wheels rebuilt) {
+        wheels = rebuilt;
+    }
+
+    @Override
+    protected void logRebuilt(Wheels rebuilt, long elapsedMillis) {
+        logger.info("Đã nạp lịch hạn trả: {} phiếu chưa trả, {} lời nhắc trong {} ms",
+                rebuilt.overdue.size(), rebuilt.reminders.size(), elapsedMillis);
+    }
+
+    /**
+     * Tăng wheel tới hôm nay và gọi handler cho các phiếu tới hạn
+     */
+    public void tick() {
+        long today = LocalDate.now(clock).toEpochDay();
+        List<long[]> dueSoon = new ArrayList<>();
+        List<long[]> justOverdue = new ArrayList<>();
+        synchronized (this) {
+            TimingWheel reminders = wheels.reminders;
+            TimingWheel overdue = wheels.overdue;
+            if (today <= overdue.currentTick()) {
+                return;
+            }
+            // Hạn trả được suy ra từ tick tới hạn của từng wheel
+            reminders.advanceTo(today, id -> dueSoon.add(new long[]{id, reminders.currentTick() + REMINDER_LEAD_DAYS}));
+            overdue.advanceTo(today, id -> justOverdue.add(new long[]{id, overdue.currentTick() - 1}));
+        }
+        for (long[] loan : dueSoon) {
+            dispatch(loan, true);
+        }
+        for (long[] loan : justOverdue) {
+            dispatch(loan, false);
+        }
+        if (!dueSoon.isEmpty() || !justOverdue.isEmpty()) {
+            logger.info("Hạn trả ngày {}: {} phiếu sắp tới hạn, {} phiếu vừa quá hạn",
+                    LocalDate.ofEpochDay(today), dueSoon.size(), justOverdue.size());
+        }
+    }
+
+    @Override
+    protected boolean accepts(EntityChange change) {
+        return change.isFor(Borrowing.class);
+    }
+
+    private void dispatch(long[] loan, boolean dueSoon) {
+        LocalDate dueDate = LocalDate.ofEpochDay(loan[1]);
+        for (DueDateHandler handler : handlers) {
+            try {
+                if (dueSoon) {
+                    handler.onDueSoon(loan[0], dueDate);
+                } else {
+                    handler.onOverdue(loan[0], dueDate);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Lỗi khi xử lý hạn trả của phiếu mượn {} trong {}: {}",
+                        loan[0], handler.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.error("Lỗi khi kiểm tra hạn trả: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected void apply(EntityChange change, Wheels target) {
+        if (!change.isFor(Borrowing.class) || change.getId() == null) {
+            return;
+        }
+        long id = ((Number) change.getId()).longValue();
+        BorrowingStatus status;
+        LocalDate dueDate;
+        if (change.getEntity() instanceof Borrowing) {
+            Borrowing borrowing = (Borrowing) change.getEntity();
+            status = borrowing.getStatus();
+            dueDate = borrowing.getDueDate();
+        } else {
+            // UPDATE hàng loạt: chỉ có các cột đã đổi
+            status = (BorrowingStatus) change.getNewValue("status");
+            dueDate = (LocalDate) change.getNewValue("dueDate");
+        }
+
+        if (change.getType() == EntityChange.Type.DELETE
+                || status == BorrowingStatus.RETURNED || status == BorrowingStatus.LOST) {
+            target.reminders.cancel(id);
+            target.overdue.cancel(id);
+        } else if (dueDate != null) {
+            target.schedule(id, dueDate);
+        }
+    }
+
+    /**
+     * Hai wheel được thay nguyên khối khi rebuild
+     */
+    static final class Wheels {
+        private final TimingWheel reminders;
+        private final TimingWheel overdue;
+
+        Wheels(long today) {
+            this.reminders = new TimingWheel(today);
+            this.overdue = new TimingWheel(today);
+        }
+
+        void schedule(long id, LocalDate dueDate) {
+            long dueDay = dueDate.toEpochDay();
+            reminders.schedule(id, dueDay - REMINDER_LEAD_DAYS);
+            overdue.schedule(id, dueDay + 1);
+        }
+    }
+}
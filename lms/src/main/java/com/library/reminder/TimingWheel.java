@@ -0,0 +1,151 @@
+package com.library.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Timing wheel phân cấp: hẹn giờ theo ID với thời điểm tính bằng tick (ở đây là ngày, epoch day).
+ *
+ * Mỗi cấp có 64 ô; ô ở cấp l chứa các mục cách nhau 64^l tick. Một mục được đặt ở cấp thấp nhất mà
+ * nó nằm cùng khối với tick hiện tại, và được hạ xuống cấp thấp hơn khi tick đi qua ranh giới khối
+ * đó. Thêm, hủy và mỗi lần tăng tick đều O(1) (việc hạ cấp được chia đều cho các tick), không phụ
+ * thuộc số mục đang hẹn. Không thread-safe.
+ */
+final class TimingWheel {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+
+    private final List<Set<Long>> slots = new ArrayList<>(LEVELS * SLOTS);
+    // Mục quá xa so với số cấp, được xét lại mỗi khi cấp cao nhất hạ cấp
+    private final Set<Long> overflow = new HashSet<>();
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    /**
+     * Hẹn (hoặc hẹn lại) id tại tick deadline
+     * @return false nếu deadline không sau tick hiện tại (không được hẹn)
+     */
+    boolean schedule(long id, long deadline) {
+        cancel(id);
+        if (deadline <= currentTick) {
+            return false;
+        }
+        Timer timer = new Timer(deadline);
+        timers.put(id, timer);
+        place(id, timer);
+        return true;
+    }
+
+    boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(id);
+        return true;
+    }
+
+    /**
+     * Tick đã hẹn của id, -1 nếu không có
+     */
+    long deadlineOf(long id) {
+        Timer timer = timers.get(id);
+        return timer == null ? -1 : timer.deadline;
+    }
+
+    /**
+     * Tăng tick tới targetTick, gọi expired cho từng id tới hạn (theo thứ tự tick)
+     */
+    void advanceTo(long targetTick, LongConsumer expired) {
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Set<Long> due = slot(0, currentTick);
+            if (due.isEmpty()) {
+                continue;
+            }
+            List<Long> ids = new ArrayList<>(due);
+            due.clear();
+            for (Long id : ids) {
+                timers.remove(id);
+                expired.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Hạ cấp các ô mà tick hiện tại vừa bước vào, bắt đầu từ cấp cao nhất
+     */
+    private void cascade() {
+        int level = 0;
+        while (level < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        if (level == LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            replace(overflow);
+        }
+        for (; level > 0; level--) {
+            replace(slot(level, currentTick));
+        }
+    }
+
+    private void replace(Set<Long> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(slot);
+        slot.clear();
+        for (Long id : ids) {
+            place(id, timers.get(id));
+        }
+    }
+
+    private void place(long id, Timer timer) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((timer.deadline >>> shift) == (currentTick >>> shift)) {
+                timer.slot = slot(level, timer.deadline);
+                timer.slot.add(id);
+                return;
+            }
+        }
+        timer.slot = overflow;
+        overflow.add(id);
+    }
+
+    private Set<Long> slot(int level, long tick) {
+        int index = (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        return slots.get(level * SLOTS + index);
+    }
+
+    private static final class Timer {
+        private final long deadline;
+        private Set<Long> slot;
+
+        private Timer(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
@@ -11,6 +11,7 @@ public interface AuthorRepository extends BaseRepository<Author, Long> {
     
     /**
      * Tìm tác giả theo tên
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
      * @param name Tên tác giả
      * @return List các tác giả có tên tương tự
      */
@@ -57,4 +58,37 @@ public interface AuthorRepository extends BaseRepository<Author, Long> {
      * @return true nếu có sách, false nếu không
      */
     boolean hasBooks(Long authorId);
-}
\ No newline at end of file
+    
+    /**
+     * Tìm tác giả theo tên theo trang
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param name Tên tác giả
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các tác giả của trang
+     */
+    Slice<Author> findByName(String name, PageRequest pageRequest);
+    
+    /**
+     * Tìm tác giả theo quốc tịch theo trang
+     * @param nationality Quốc tịch
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các tác giả của trang
+     */
+    Slice<Author> findByNationality(String nationality, PageRequest pageRequest);
+    
+    /**
+     * Tìm tác giả theo năm sinh theo trang
+     * @param birthYear Năm sinh
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các tác giả của trang
+     */
+    Slice<Author> findByBirthYear(Integer birthYear, PageRequest pageRequest);
+    
+    /**
+     * Tìm tác giả theo từ khóa theo trang
+     * @param keyword Từ khóa tìm kiếm
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các tác giả của trang
+     */
+    Slice<Author> searchAuthors(String keyword, PageRequest pageRequest);
+}
@@ -1,7 +1,10 @@
 package com.library.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interface cơ bản cho tất cả Repository classes
@@ -18,6 +21,13 @@ public interface BaseRepository<T, ID> {
      */
     T save(T entity);
     
+    /**
+     * Lưu nhiều entity trong cùng một transaction
+     * @param entities Danh sách entity cần lưu
+     * @return Danh sách entity đã được lưu
+     */
+    List<T> saveAll(List<T> entities);
+    
     /**
      * Cập nhật entity trong database
      * @param entity Entity cần cập nhật
@@ -25,6 +35,13 @@ public interface BaseRepository<T, ID> {
      */
     T update(T entity);
     
+    /**
+     * Cập nhật nhiều entity trong cùng một transaction
+     * @param entities Danh sách entity cần cập nhật
+     * @return Danh sách entity đã được cập nhật
+     */
+    List<T> updateAll(List<T> entities);
+    
     /**
      * Xóa entity khỏi database
      * @param entity Entity cần xóa
@@ -44,12 +61,46 @@ public interface BaseRepository<T, ID> {
      */
     Optional<T> findById(ID id);
     
+    /**
+     * Tìm nhiều entity theo ID: lấy từ second-level cache trước, phần còn thiếu được tải
+     * bằng các câu IN theo chunk
+     * @param ids Danh sách ID cần tìm
+     * @return Các entity tìm thấy theo thứ tự ID yêu cầu (ID trùng hoặc không tồn tại bị bỏ qua)
+     */
+    List<T> findAllById(Collection<ID> ids);
+    
     /**
      * Lấy tất cả entities
      * @return List chứa tất cả entities
      */
     List<T> findAll();
     
+    /**
+     * Lấy một trang entity theo keyset pagination (sắp xếp theo khóa chính).
+     * Trang sâu tốn chi phí như trang đầu vì không dùng OFFSET.
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các entity của trang
+     */
+    Slice<T> findAll(PageRequest pageRequest);
+    
+    /**
+     * Duyệt tất cả entity theo luồng với bộ nhớ không đổi (ScrollableResults, clear Session theo đợt).
+     * Stream giữ Session và cursor cho đến khi đóng, phải dùng trong try-with-resources.
+     * Entity nhận được là read-only và bị detach sau mỗi đợt.
+     * @return Stream các entity
+     */
+    Stream<T> streamAll();
+    
+    /**
+     * Gọi action cho từng entity theo luồng (xem streamAll), tự đóng Session khi xong
+     * @param action Hàm xử lý mỗi entity
+     */
+    default void forEachEntity(Consumer<? super T> action) {
+        try (Stream<T> entities = streamAll()) {
+            entities.forEach(action);
+        }
+    }
+    
     /**
      * Đếm tổng số entities
      * @return Số lượng entities
@@ -1,7 +1,10 @@
 package com.library.repository;
 
+import com.library.dto.BookSummary;
 import com.library.entity.Book;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface cho Book entity
@@ -9,12 +12,32 @@ import java.util.List;
  */
 public interface BookRepository extends BaseRepository<Book, Long> {
     
+    /**
+     * Tìm sách theo ID kèm các quan hệ theo fetch plan
+     * @param id ID cần tìm
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return Optional chứa entity nếu tìm thấy
+     */
+    Optional<Book> findById(Long id, FetchPlan fetchPlan);
+    
     /**
      * Tìm sách theo tiêu đề
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param title Tiêu đề sách
+     * @return List các sách có tiêu đề tương tự
+     */
+    default List<Book> findByTitle(String title) {
+        return findByTitle(title, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách theo tiêu đề (theo fetch plan)
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
      * @param title Tiêu đề sách
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
      * @return List các sách có tiêu đề tương tự
      */
-    List<Book> findByTitle(String title);
+    List<Book> findByTitle(String title, FetchPlan fetchPlan);
     
     /**
      * Tìm sách theo ISBN
@@ -23,39 +46,144 @@ public interface BookRepository extends BaseRepository<Book, Long> {
      */
     Book findByIsbn(String isbn);
     
+    /**
+     * Tìm nhiều sách theo danh sách ID
+     * @param ids Danh sách ID sách
+     * @return List các sách tìm thấy
+     */
+    default List<Book> findByIds(List<Long> ids) {
+        return findByIds(ids, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm nhiều sách theo danh sách ID (theo fetch plan)
+     * @param ids Danh sách ID sách
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các sách tìm thấy
+     */
+    List<Book> findByIds(List<Long> ids, FetchPlan fetchPlan);
+    
+    /**
+     * Giữ chỗ nguyên tử các sách khi cho mượn (compare-and-set):
+     * UPDATE ... SET available = false WHERE id IN (:ids) AND available = true.
+     * Chỉ thành công khi tất cả sách đều còn sẵn; nếu không, không sách nào bị thay đổi.
+     * @param ids Danh sách ID sách
+     * @return true nếu giữ chỗ được tất cả sách
+     */
+    boolean reserveBooks(List<Long> ids);
+    
+    /**
+     * Đánh dấu các sách là có sẵn bằng một câu UPDATE. Các sách đang không có sẵn được khóa dòng trước,
+     * nên chỉ chúng được cập nhật và công bố thay đổi.
+     * @param ids Danh sách ID sách
+     * @return Số sách đã được cập nhật
+     */
+    int markAvailable(List<Long> ids);
+    
     /**
      * Tìm sách theo thể loại
      * @param category Thể loại sách
      * @return List các sách thuộc thể loại đó
      */
-    List<Book> findByCategory(String category);
+    default List<Book> findByCategory(String category) {
+        return findByCategory(category, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách theo thể loại (theo fetch plan)
+     * @param category Thể loại sách
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các sách thuộc thể loại đó
+     */
+    List<Book> findByCategory(String category, FetchPlan fetchPlan);
     
     /**
      * Tìm sách có sẵn (chưa được mượn)
      * @return List các sách có sẵn
      */
-    List<Book> findAvailableBooks();
+    default List<Book> findAvailableBooks() {
+        return findAvailableBooks(FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách có sẵn (chưa được mượn) (theo fetch plan)
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các sách có sẵn
+     */
+    List<Book> findAvailableBooks(FetchPlan fetchPlan);
     
     /**
      * Tìm sách theo tác giả
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param authorName Tên tác giả
+     * @return List các sách của tác giả đó
+     */
+    default List<Book> findByAuthorName(String authorName) {
+        return findByAuthorName(authorName, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách theo tác giả (theo fetch plan)
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
      * @param authorName Tên tác giả
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
      * @return List các sách của tác giả đó
      */
-    List<Book> findByAuthorName(String authorName);
+    List<Book> findByAuthorName(String authorName, FetchPlan fetchPlan);
     
     /**
      * Tìm sách phổ biến nhất (được mượn nhiều)
      * @param limit Số lượng sách cần lấy
      * @return List các sách phổ biến
      */
-    List<Book> findMostPopularBooks(int limit);
+    default List<Book> findMostPopularBooks(int limit) {
+        return findMostPopularBooks(limit, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách phổ biến nhất (được mượn nhiều) (theo fetch plan)
+     * @param limit Số lượng sách cần lấy
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các sách phổ biến
+     */
+    List<Book> findMostPopularBooks(int limit, FetchPlan fetchPlan);
     
     /**
      * Tìm sách theo từ khóa (tìm trong title và category)
      * @param keyword Từ khóa tìm kiếm
      * @return List các sách phù hợp
      */
-    List<Book> searchBooks(String keyword);
+    default List<Book> searchBooks(String keyword) {
+        return searchBooks(keyword, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm sách theo từ khóa (tìm trong title và category) (theo fetch plan)
+     * @param keyword Từ khóa tìm kiếm
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các sách phù hợp
+     */
+    List<Book> searchBooks(String keyword, FetchPlan fetchPlan);
+    
+    /**
+     * Lấy thông tin tóm tắt của tất cả sách (không nạp entity)
+     * @return List BookSummary
+     */
+    List<BookSummary> findAllSummaries();
+    
+    /**
+     * Lấy thông tin tóm tắt của sách theo thể loại (không nạp entity)
+     * @param category Thể loại sách
+     * @return List BookSummary thuộc thể loại đó
+     */
+    List<BookSummary> findSummariesByCategory(String category);
+    
+    /**
+     * Tìm kiếm sách theo từ khóa, chỉ trả về thông tin tóm tắt (không nạp entity)
+     * @param keyword Từ khóa tìm kiếm
+     * @return List BookSummary phù hợp
+     */
+    List<BookSummary> searchBookSummaries(String keyword);
     
     /**
      * Đếm số sách có sẵn
@@ -69,4 +197,74 @@ public interface BookRepository extends BaseRepository<Book, Long> {
      * @return Số lượng sách thuộc thể loại đó
      */
     long countByCategory(String category);
-}
\ No newline at end of file
+    
+    /**
+     * Đếm số sách có sẵn thuộc thể loại
+     * @param category Thể loại
+     * @return Số lượng sách có sẵn thuộc thể loại đó
+     */
+    long countAvailableByCategory(String category);
+    
+    /**
+     * Tìm sách theo tiêu đề theo trang
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param title Tiêu đề sách
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findByTitle(String title, PageRequest pageRequest);
+    
+    /**
+     * Tìm sách theo thể loại theo trang
+     * @param category Thể loại sách
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findByCategory(String category, PageRequest pageRequest);
+    
+    /**
+     * Tìm sách có sẵn theo trang
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findAvailableBooks(PageRequest pageRequest);
+    
+    /**
+     * Tìm sách có sẵn thuộc thể loại theo trang
+     * @param category Thể loại sách
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findAvailableByCategory(String category, PageRequest pageRequest);
+    
+    /**
+     * Tìm sách theo tên tác giả theo trang
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param authorName Tên tác giả
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findByAuthorName(String authorName, PageRequest pageRequest);
+    
+    /**
+     * Sách phổ biến nhất theo trang (keyset theo borrowCount giảm dần, rồi ID)
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> findMostPopularBooks(PageRequest pageRequest);
+    
+    /**
+     * Tìm sách theo từ khóa theo trang
+     * @param keyword Từ khóa tìm kiếm
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các sách của trang
+     */
+    Slice<Book> searchBooks(String keyword, PageRequest pageRequest);
+    
+    /**
+     * Duyệt sách theo thể loại theo luồng (xem streamAll), phải đóng Stream sau khi dùng
+     * @param category Thể loại sách
+     * @return Stream các sách thuộc thể loại đó
+     */
+    Stream<Book> streamByCategory(String category);
+}
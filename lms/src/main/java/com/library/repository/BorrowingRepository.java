@@ -4,6 +4,8 @@ import com.library.entity.Borrowing;
 import com.library.entity.Borrowing.BorrowingStatus;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface cho Borrowing entity
@@ -11,38 +13,144 @@ import java.util.List;
  */
 public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
     
+    /**
+     * Tìm phiếu mượn theo ID kèm các quan hệ theo fetch plan
+     * @param id ID cần tìm
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return Optional chứa entity nếu tìm thấy
+     */
+    Optional<Borrowing> findById(Long id, FetchPlan fetchPlan);
+    
+    /**
+     * Tìm nhiều phiếu mượn theo danh sách ID (kèm sách)
+     * @param ids Danh sách ID phiếu mượn
+     * @return List các phiếu mượn tìm thấy
+     */
+    List<Borrowing> findByIds(List<Long> ids);
+    
+    /**
+     * Đánh dấu đã trả các phiếu mượn bằng một câu UPDATE, tiền phạt của từng phiếu được tính trong câu lệnh
+     * theo số ngày quá hạn (chỉ áp dụng cho phiếu đang BORROWED hoặc OVERDUE)
+     * @param ids Danh sách ID phiếu mượn
+     * @param returnDate Ngày trả
+     * @return List mảng [borrowingId, bookId, memberId, fineAmount] của các phiếu đã được đánh dấu trả
+     */
+    List<Object[]> markReturned(List<Long> ids, LocalDate returnDate);
+    
+    /**
+     * Lấy các phiếu đang BORROWED có hạn trả trong khoảng [from, before), sắp theo hạn trả, không nạp entity
+     * @param from Hạn trả nhỏ nhất (null: không giới hạn dưới)
+     * @param before Hạn trả phải nhỏ hơn ngày này
+     * @param limit Số dòng tối đa
+     * @return List mảng [borrowingId, dueDate]
+     */
+    List<Object[]> findNewlyOverdue(LocalDate from, LocalDate before, int limit);
+    
+    /**
+     * Chuyển các phiếu sang OVERDUE bằng một câu UPDATE, tiền phạt tới ngày asOf của từng phiếu được tính
+     * trong câu lệnh (chỉ áp dụng cho phiếu đang BORROWED)
+     * @param ids Danh sách ID phiếu mượn
+     * @param asOf Ngày quét
+     * @return List mảng [borrowingId, fineAmount] của các phiếu đã được chuyển sang OVERDUE
+     */
+    List<Object[]> markOverdue(List<Long> ids, LocalDate asOf);
+    
+    /**
+     * Lấy các phiếu đang OVERDUE có tiền phạt đã lưu khác tiền phạt tính tới ngày asOf, sắp theo ID, không nạp entity
+     * @param asOf Ngày quét
+     * @param limit Số dòng tối đa
+     * @return List mảng [borrowingId, dueDate]
+     */
+    List<Object[]> findOverdueWithStaleFine(LocalDate asOf, int limit);
+    
+    /**
+     * Tính lại tiền phạt tới ngày asOf của các phiếu bằng một câu UPDATE (chỉ áp dụng cho phiếu đang OVERDUE)
+     * @param ids Danh sách ID phiếu mượn
+     * @param asOf Ngày quét
+     * @return List mảng [borrowingId, fineAmount] của các phiếu đã được tính lại
+     */
+    List<Object[]> reassessOverdueFines(List<Long> ids, LocalDate asOf);
+    
     /**
      * Tìm phiếu mượn theo thành viên
      * @param memberId ID thành viên
      * @return List các phiếu mượn của thành viên đó
      */
-    List<Borrowing> findByMemberId(Long memberId);
+    default List<Borrowing> findByMemberId(Long memberId) {
+        return findByMemberId(memberId, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn theo thành viên (theo fetch plan)
+     * @param memberId ID thành viên
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn của thành viên đó
+     */
+    List<Borrowing> findByMemberId(Long memberId, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn theo sách
      * @param bookId ID sách
      * @return List các phiếu mượn của sách đó
      */
-    List<Borrowing> findByBookId(Long bookId);
+    default List<Borrowing> findByBookId(Long bookId) {
+        return findByBookId(bookId, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn theo sách (theo fetch plan)
+     * @param bookId ID sách
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn của sách đó
+     */
+    List<Borrowing> findByBookId(Long bookId, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn theo trạng thái
      * @param status Trạng thái phiếu mượn
      * @return List các phiếu mượn có trạng thái đó
      */
-    List<Borrowing> findByStatus(BorrowingStatus status);
+    default List<Borrowing> findByStatus(BorrowingStatus status) {
+        return findByStatus(status, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn theo trạng thái (theo fetch plan)
+     * @param status Trạng thái phiếu mượn
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn có trạng thái đó
+     */
+    List<Borrowing> findByStatus(BorrowingStatus status, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn đang hoạt động (BORROWED)
      * @return List các phiếu mượn đang hoạt động
      */
-    List<Borrowing> findActiveBorrowings();
+    default List<Borrowing> findActiveBorrowings() {
+        return findActiveBorrowings(FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn đang hoạt động (BORROWED) (theo fetch plan)
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn đang hoạt động
+     */
+    List<Borrowing> findActiveBorrowings(FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn quá hạn
      * @return List các phiếu mượn quá hạn
      */
-    List<Borrowing> findOverdueBorrowings();
+    default List<Borrowing> findOverdueBorrowings() {
+        return findOverdueBorrowings(FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn quá hạn (theo fetch plan)
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn quá hạn
+     */
+    List<Borrowing> findOverdueBorrowings(FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn quá hạn theo số ngày
@@ -57,7 +165,18 @@ public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
      * @param endDate Ngày kết thúc
      * @return List các phiếu mượn trong khoảng thời gian đó
      */
-    List<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate);
+    default List<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate) {
+        return findByBorrowDateBetween(startDate, endDate, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn theo khoảng thời gian mượn (theo fetch plan)
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn trong khoảng thời gian đó
+     */
+    List<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn theo khoảng thời gian hạn trả
@@ -65,7 +184,18 @@ public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
      * @param endDate Ngày kết thúc
      * @return List các phiếu mượn có hạn trả trong khoảng thời gian đó
      */
-    List<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate);
+    default List<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate) {
+        return findByDueDateBetween(startDate, endDate, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn theo khoảng thời gian hạn trả (theo fetch plan)
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn có hạn trả trong khoảng thời gian đó
+     */
+    List<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn của thành viên theo trạng thái
@@ -73,7 +203,18 @@ public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
      * @param status Trạng thái
      * @return List các phiếu mượn của thành viên có trạng thái đó
      */
-    List<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status);
+    default List<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status) {
+        return findByMemberIdAndStatus(memberId, status, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn của thành viên theo trạng thái (theo fetch plan)
+     * @param memberId ID thành viên
+     * @param status Trạng thái
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn của thành viên có trạng thái đó
+     */
+    List<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status, FetchPlan fetchPlan);
     
     /**
      * Tìm phiếu mượn của sách theo trạng thái
@@ -81,7 +222,18 @@ public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
      * @param status Trạng thái
      * @return List các phiếu mượn của sách có trạng thái đó
      */
-    List<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status);
+    default List<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status) {
+        return findByBookIdAndStatus(bookId, status, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Tìm phiếu mượn của sách theo trạng thái (theo fetch plan)
+     * @param bookId ID sách
+     * @param status Trạng thái
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return List các phiếu mượn của sách có trạng thái đó
+     */
+    List<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status, FetchPlan fetchPlan);
     
     /**
      * Đếm số phiếu mượn theo trạng thái
@@ -122,4 +274,119 @@ public interface BorrowingRepository extends BaseRepository<Borrowing, Long> {
      * @return List các thành viên mượn nhiều sách
      */
     List<Object[]> findMostActiveMembers(int limit);
-}
\ No newline at end of file
+    
+    /**
+     * Tìm sách được mượn nhiều nhất trong khoảng thời gian
+     * @param limit Số lượng sách cần lấy
+     * @param window Khoảng thời gian theo ngày mượn
+     * @return List [Book, số lượt mượn] theo số lượt mượn giảm dần
+     */
+    List<Object[]> findMostBorrowedBooks(int limit, RankingWindow window);
+    
+    /**
+     * Tìm thành viên mượn sách nhiều nhất trong khoảng thời gian
+     * @param limit Số lượng thành viên cần lấy
+     * @param window Khoảng thời gian theo ngày mượn
+     * @return List [Member, số lượt mượn] theo số lượt mượn giảm dần
+     */
+    List<Object[]> findMostActiveMembers(int limit, RankingWindow window);
+    
+    /**
+     * Tìm phiếu mượn theo thành viên theo trang
+     * @param memberId ID thành viên
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByMemberId(Long memberId, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo sách theo trang
+     * @param bookId ID sách
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByBookId(Long bookId, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo trạng thái theo trang
+     * @param status Trạng thái phiếu mượn
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByStatus(BorrowingStatus status, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn đang hoạt động (BORROWED) theo trang
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findActiveBorrowings(PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn quá hạn theo trang (keyset theo hạn trả tăng dần, rồi ID)
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findOverdueBorrowings(PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo khoảng thời gian mượn theo trang
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo khoảng thời gian hạn trả theo trang
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo thành viên và trạng thái theo trang
+     * @param memberId ID thành viên
+     * @param status Trạng thái
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status, PageRequest pageRequest);
+    
+    /**
+     * Tìm phiếu mượn theo sách và trạng thái theo trang
+     * @param bookId ID sách
+     * @param status Trạng thái
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các phiếu mượn của trang
+     */
+    Slice<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status, PageRequest pageRequest);
+    
+    /**
+     * Duyệt phiếu mượn theo trạng thái theo luồng (xem streamAll), phải đóng Stream sau khi dùng
+     * @param status Trạng thái phiếu mượn
+     * @return Stream các phiếu mượn có trạng thái đó
+     */
+    default Stream<Borrowing> streamByStatus(BorrowingStatus status) {
+        return streamByStatus(status, FetchPlan.DEFAULT);
+    }
+    
+    /**
+     * Duyệt phiếu mượn theo trạng thái theo luồng (theo fetch plan), phải đóng Stream sau khi dùng
+     * @param status Trạng thái phiếu mượn
+     * @param fetchPlan Các quan hệ cần nạp kèm trong cùng câu SQL
+     * @return Stream các phiếu mượn có trạng thái đó
+     */
+    Stream<Borrowing> streamByStatus(BorrowingStatus status, FetchPlan fetchPlan);
+    
+    /**
+     * Duyệt phiếu mượn theo khoảng thời gian mượn theo luồng, phải đóng Stream sau khi dùng
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @return Stream các phiếu mượn trong khoảng thời gian đó
+     */
+    Stream<Borrowing> streamByBorrowDateBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,34 @@
+package com.library.repository;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dữ liệu cho một lần mượn sách: thành viên (đã khóa dòng, kèm bộ đếm activeBorrowings/totalBorrowed)
+ * và các sách được yêu cầu theo thứ tự yêu cầu (không khóa).
+ * Sách là bản chụp read-only: thay đổi trên chúng không được ghi xuống database.
+ */
+public final class CheckoutContext {
+
+    private final Member member;
+    private final List<Book> books;
+
+    public CheckoutContext(Member member, List<Book> books) {
+        this.member = member;
+        this.books = Collections.unmodifiableList(books);
+    }
+
+    public Member getMember() {
+        return member;
+    }
+
+    /**
+     * Sách tìm thấy (ID không tồn tại bị bỏ qua, nên có thể ít hơn số ID yêu cầu)
+     */
+    public List<Book> getBooks() {
+        return books;
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.repository;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+
+/**
+ * Fetch plan cho các phương thức tìm kiếm của repository: chỉ định các quan hệ LAZY
+ * cần nạp kèm trong cùng một câu SQL (ánh xạ tới @NamedEntityGraph "&lt;Entity&gt;.&lt;profile&gt;").
+ * Mỗi fetch plan (trừ DEFAULT) chỉ dùng được cho entity khai báo graph tương ứng.
+ */
+public enum FetchPlan {
+    
+    /** Không nạp thêm quan hệ nào (mặc định) */
+    DEFAULT(null, null),
+    
+    /** Borrowing kèm Member */
+    WITH_MEMBER(Borrowing.class, "withMember"),
+    
+    /** Borrowing kèm Book */
+    WITH_BOOK(Borrowing.class, "withBook"),
+    
+    /** Borrowing kèm cả Member và Book */
+    WITH_MEMBER_AND_BOOK(Borrowing.class, "withMemberAndBook"),
+    
+    /** Book kèm danh sách Author */
+    WITH_AUTHORS(Book.class, "withAuthors");
+    
+    private final Class<?> entityClass;
+    private final String profile;
+    
+    FetchPlan(Class<?> entityClass, String profile) {
+        this.entityClass = entityClass;
+        this.profile = profile;
+    }
+    
+    /**
+     * Tên entity graph tương ứng cho entity
+     * @param entityClass Lớp entity
+     * @return Tên graph, hoặc null với DEFAULT
+     * @throws IllegalArgumentException nếu fetch plan không dành cho entity này
+     */
+    public String graphName(Class<?> entityClass) {
+        if (profile == null) {
+            return null;
+        }
+        if (!this.entityClass.equals(entityClass)) {
+            throw new IllegalArgumentException("Fetch plan " + name() + " chỉ dùng cho "
+                    + this.entityClass.getSimpleName() + ", không dùng được cho " + entityClass.getSimpleName());
+        }
+        return this.entityClass.getSimpleName() + "." + profile;
+    }
+}
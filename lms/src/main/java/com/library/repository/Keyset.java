@@ -0,0 +1,59 @@
+package com.library.repository;
+
+import java.util.Objects;
+
+/**
+ * Vị trí của dòng cuối cùng trên một trang, dùng cho keyset (seek) pagination.
+ * Trang tiếp theo được lấy bằng điều kiện "sau vị trí này" thay vì OFFSET,
+ * nên trang sâu tốn chi phí như trang đầu.
+ */
+public final class Keyset {
+
+    private final Object sortValue;
+    private final Long id;
+
+    private Keyset(Object sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * Vị trí theo khóa chính (finder sắp xếp theo ID)
+     */
+    public static Keyset ofId(Long id) {
+        return new Keyset(null, id);
+    }
+
+    /**
+     * Vị trí theo khóa sắp xếp, ID dùng để phân định các dòng có cùng giá trị sắp xếp
+     */
+    public static Keyset of(Object sortValue, Long id) {
+        return new Keyset(Objects.requireNonNull(sortValue, "sortValue"), id);
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Keyset)) return false;
+        Keyset keyset = (Keyset) o;
+        return Objects.equals(sortValue, keyset.sortValue) && id.equals(keyset.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortValue, id);
+    }
+
+    @Override
+    public String toString() {
+        return sortValue == null ? "Keyset{id=" + id + '}' : "Keyset{sortValue=" + sortValue + ", id=" + id + '}';
+    }
+}
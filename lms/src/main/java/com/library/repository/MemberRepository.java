@@ -1,8 +1,10 @@
 package com.library.repository;
 
+import com.library.dto.MemberSummary;
 import com.library.entity.Member;
 import com.library.entity.Member.MemberStatus;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository interface cho Member entity
@@ -12,6 +14,7 @@ public interface MemberRepository extends BaseRepository<Member, Long> {
     
     /**
      * Tìm thành viên theo tên
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
      * @param name Tên thành viên
      * @return List các thành viên có tên tương tự
      */
@@ -64,6 +67,13 @@ public interface MemberRepository extends BaseRepository<Member, Long> {
      */
     List<Member> searchMembers(String keyword);
     
+    /**
+     * Tìm kiếm thành viên theo từ khóa, chỉ trả về thông tin tóm tắt (không nạp entity)
+     * @param keyword Từ khóa tìm kiếm
+     * @return List MemberSummary phù hợp
+     */
+    List<MemberSummary> searchMemberSummaries(String keyword);
+    
     /**
      * Đếm số thành viên theo trạng thái
      * @param status Trạng thái
@@ -77,6 +87,38 @@ public interface MemberRepository extends BaseRepository<Member, Long> {
      */
     long countMembersWithActiveBorrowings();
     
+    /**
+     * Đếm số phiếu mượn chưa trả (BORROWED, OVERDUE) của thành viên
+     * @param memberId ID thành viên
+     * @return Số phiếu mượn chưa trả
+     */
+    int countActiveBorrowings(Long memberId);
+    
+    /**
+     * Nạp thành viên (khóa dòng bằng SELECT ... FOR UPDATE để bộ đếm activeBorrowings được kiểm tra
+     * và cập nhật nguyên tử) và các sách cần mượn (không khóa, tình trạng sách do reserveBooks quyết định).
+     * Phải gọi bên trong UnitOfWork của lần mượn; thay đổi bộ đếm trên Member trả về
+     * được ghi khi unit of work commit.
+     * @param memberId ID thành viên
+     * @param bookIds ID các sách cần mượn
+     * @return CheckoutContext, null nếu thành viên không tồn tại
+     */
+    CheckoutContext findForCheckout(Long memberId, List<Long> bookIds);
+    
+    /**
+     * Giảm bộ đếm activeBorrowings khi trả sách hàng loạt (không xuống dưới 0)
+     * @param returnedByMember ID thành viên -> số phiếu vừa trả
+     * @return Số thành viên được cập nhật
+     */
+    int releaseBorrowings(Map<Long, Integer> returnedByMember);
+    
+    /**
+     * Tính lại activeBorrowings/totalBorrowed của mọi thành viên từ bảng borrowings
+     * (đối soát bộ đếm phi chuẩn hóa, ví dụ khi khởi động)
+     * @return Số thành viên được cập nhật
+     */
+    int reconcileBorrowingCounters();
+    
     /**
      * Kiểm tra email đã tồn tại chưa
      * @param email Email cần kiểm tra
@@ -90,4 +132,43 @@ public interface MemberRepository extends BaseRepository<Member, Long> {
      * @return true nếu đã tồn tại, false nếu chưa
      */
     boolean existsByPhone(String phone);
-}
\ No newline at end of file
+    
+    /**
+     * Tìm thành viên theo tên theo trang
+     * Không phân biệt dấu và hoa thường, khớp ở bất kỳ vị trí nào trong chuỗi (trên cột đã chuẩn hóa)
+     * @param name Tên thành viên
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các thành viên của trang
+     */
+    Slice<Member> findByName(String name, PageRequest pageRequest);
+    
+    /**
+     * Tìm thành viên theo trạng thái theo trang
+     * @param status Trạng thái thành viên
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các thành viên của trang
+     */
+    Slice<Member> findByStatus(MemberStatus status, PageRequest pageRequest);
+    
+    /**
+     * Tìm thành viên đang mượn sách theo trang
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các thành viên của trang
+     */
+    Slice<Member> findMembersWithActiveBorrowings(PageRequest pageRequest);
+    
+    /**
+     * Thành viên mượn nhiều nhất theo trang (keyset theo totalBorrowed giảm dần, rồi ID)
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các thành viên của trang
+     */
+    Slice<Member> findMostActiveMembers(PageRequest pageRequest);
+    
+    /**
+     * Tìm thành viên theo từ khóa theo trang
+     * @param keyword Từ khóa tìm kiếm
+     * @param pageRequest Kích thước trang, vị trí bắt đầu và có đếm tổng hay không
+     * @return Slice các thành viên của trang
+     */
+    Slice<Member> searchMembers(String keyword, PageRequest pageRequest);
+}
@@ -0,0 +1,68 @@
+package com.library.repository;
+
+/**
+ * Yêu cầu lấy một trang theo keyset pagination.
+ * Trang đầu: PageRequest.of(size); trang sau: slice.nextPageRequest() hoặc after(keyset).
+ */
+public final class PageRequest {
+
+    private final int size;
+    private final Keyset after;
+    private final boolean countTotal;
+
+    private PageRequest(int size, Keyset after, boolean countTotal) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size phải lớn hơn 0");
+        }
+        this.size = size;
+        this.after = after;
+        this.countTotal = countTotal;
+    }
+
+    /**
+     * Trang đầu tiên, không đếm tổng số dòng
+     * @param size Số dòng tối đa mỗi trang
+     */
+    public static PageRequest of(int size) {
+        return new PageRequest(size, null, false);
+    }
+
+    /**
+     * Trang bắt đầu ngay sau vị trí keyset
+     */
+    public PageRequest after(Keyset keyset) {
+        return new PageRequest(size, keyset, countTotal);
+    }
+
+    /**
+     * Yêu cầu thêm một câu COUNT để trả về tổng số dòng.
+     * Nên tắt với bảng lớn: COUNT phải quét toàn bộ các dòng thỏa điều kiện.
+     */
+    public PageRequest withTotalCount() {
+        return new PageRequest(size, after, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Vị trí dòng cuối của trang trước, null với trang đầu
+     */
+    public Keyset getAfter() {
+        return after;
+    }
+
+    public boolean isFirstPage() {
+        return after == null;
+    }
+
+    public boolean isCountTotal() {
+        return countTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{size=" + size + ", after=" + after + ", countTotal=" + countTotal + '}';
+    }
+}
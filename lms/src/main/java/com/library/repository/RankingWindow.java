@@ -0,0 +1,32 @@
+package com.library.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Khoảng thời gian xếp hạng theo ngày mượn
+ */
+public enum RankingWindow {
+    ALL_TIME(0),
+    LAST_7_DAYS(7),
+    LAST_30_DAYS(30);
+
+    private final int days;
+
+    RankingWindow(int days) {
+        this.days = days;
+    }
+
+    /**
+     * Số ngày của cửa sổ tính cả hôm nay, 0 nếu không giới hạn
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Ngày mượn sớm nhất thuộc cửa sổ, null nếu không giới hạn
+     */
+    public LocalDate startDate(LocalDate today) {
+        return days == 0 ? null : today.minusDays(days - 1L);
+    }
+}
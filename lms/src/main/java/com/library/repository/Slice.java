@@ -0,0 +1,75 @@
+package com.library.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Một trang kết quả của keyset pagination.
+ * Tổng số dòng chỉ có khi PageRequest yêu cầu (withTotalCount), khi đó Slice đóng vai trò Page.
+ */
+public final class Slice<T> {
+
+    private final List<T> content;
+    private final PageRequest pageRequest;
+    private final Keyset nextKeyset;
+    private final Long totalCount;
+
+    public Slice(List<T> content, PageRequest pageRequest, Keyset nextKeyset, Long totalCount) {
+        this.content = Collections.unmodifiableList(content);
+        this.pageRequest = pageRequest;
+        this.nextKeyset = nextKeyset;
+        this.totalCount = totalCount;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public PageRequest getPageRequest() {
+        return pageRequest;
+    }
+
+    public boolean hasNext() {
+        return nextKeyset != null;
+    }
+
+    /**
+     * Vị trí dòng cuối của trang này, null nếu đây là trang cuối
+     */
+    public Keyset getNextKeyset() {
+        return nextKeyset;
+    }
+
+    /**
+     * Yêu cầu cho trang tiếp theo. Không đếm lại tổng số dòng (đã có từ trang trước nếu cần).
+     * @throws IllegalStateException nếu đây là trang cuối
+     */
+    public PageRequest nextPageRequest() {
+        if (nextKeyset == null) {
+            throw new IllegalStateException("Không còn trang tiếp theo");
+        }
+        return PageRequest.of(pageRequest.getSize()).after(nextKeyset);
+    }
+
+    /**
+     * Tổng số dòng thỏa điều kiện, rỗng nếu không yêu cầu đếm
+     */
+    public OptionalLong getTotalCount() {
+        return totalCount == null ? OptionalLong.empty() : OptionalLong.of(totalCount);
+    }
+
+    @Override
+    public String toString() {
+        return "Slice{" +
+                "elements=" + content.size() +
+                ", hasNext=" + hasNext() +
+                ", nextKeyset=" + nextKeyset +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+}
@@ -2,15 +2,23 @@ package com.library.repository.impl;
 
 import com.library.entity.Author;
 import com.library.repository.AuthorRepository;
-import com.library.util.HibernateUtil;
+import com.library.repository.PageRequest;
+import com.library.repository.Slice;
+import com.library.search.CatalogFacets;
+import com.library.search.SearchIndex;
+import com.library.util.TextNormalizer;
+import com.library.util.UnitOfWork;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Implementation của AuthorRepository
@@ -20,54 +28,81 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthorRepositoryImpl.class);
     
+    // Điều kiện tìm kiếm khi chưa có chỉ mục toàn văn: tên so khớp không dấu trên cột đã chuẩn hóa
+    private static final String SEARCH_CONDITION = "(a.nameNormalized LIKE :folded OR a.biography LIKE :keyword)";
+    
     @Override
     public Author save(Author author) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.save(author);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã lưu tác giả: {}", author.getName());
             return author;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi lưu tác giả: {}", e.getMessage());
             throw new RuntimeException("Không thể lưu tác giả", e);
         }
     }
     
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Author author : authors) {
+                session.save(author);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã lưu {} tác giả", authors.size());
+            return authors;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lưu danh sách tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể lưu danh sách tác giả", e);
+        }
+    }
+    
     @Override
     public Author update(Author author) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.update(author);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã cập nhật tác giả: {}", author.getName());
             return author;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi cập nhật tác giả: {}", e.getMessage());
             throw new RuntimeException("Không thể cập nhật tác giả", e);
         }
     }
     
+    @Override
+    public List<Author> updateAll(List<Author> authors) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Author author : authors) {
+                session.update(author);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã cập nhật {} tác giả", authors.size());
+            return authors;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật danh sách tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể cập nhật danh sách tác giả", e);
+        }
+    }
+    
     @Override
     public void delete(Author author) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.delete(author);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã xóa tác giả: {}", author.getName());
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa tác giả: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa tác giả", e);
         }
@@ -75,19 +110,15 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public void deleteById(Long id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             Author author = session.get(Author.class, id);
             if (author != null) {
                 session.delete(author);
                 logger.info("Đã xóa tác giả có ID: {}", id);
             }
-            transaction.commit();
+            unitOfWork.commit();
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa tác giả theo ID: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa tác giả", e);
         }
@@ -95,7 +126,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public Optional<Author> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Author author = session.get(Author.class, id);
             return Optional.ofNullable(author);
         } catch (Exception e) {
@@ -104,9 +136,21 @@ public class AuthorRepositoryImpl implements AuthorRepository {
         }
     }
     
+    @Override
+    public List<Author> findAllById(Collection<Long> ids) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return MultiGet.findAllById(session, Author.class, "authorId", ids, Author::getAuthorId);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm tác giả theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm tác giả theo danh sách ID", e);
+        }
+    }
+    
     @Override
     public List<Author> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Author> query = session.createQuery("FROM Author", Author.class);
             return query.list();
         } catch (Exception e) {
@@ -117,7 +161,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public long count() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(a) FROM Author a", Long.class);
             return query.uniqueResult();
         } catch (Exception e) {
@@ -128,7 +173,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public boolean existsById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(a) FROM Author a WHERE a.authorId = :id", Long.class);
             query.setParameter("id", id);
             return query.uniqueResult() > 0;
@@ -140,9 +186,10 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public List<Author> findByName(String name) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Author> query = session.createQuery("FROM Author a WHERE a.name LIKE :name", Author.class);
-            query.setParameter("name", "%" + name + "%");
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Author> query = session.createQuery("FROM Author a WHERE a.nameNormalized LIKE :name", Author.class);
+            query.setParameter("name", TextNormalizer.likeContains(name));
             return query.list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm tác giả theo tên: {}", e.getMessage());
@@ -152,9 +199,11 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public List<Author> findByNationality(String nationality) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Author> query = session.createQuery("FROM Author a WHERE a.nationality = :nationality", Author.class);
             query.setParameter("nationality", nationality);
+            query.setCacheable(true);
             return query.list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm tác giả theo quốc tịch: {}", e.getMessage());
@@ -164,7 +213,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public List<Author> findByBirthYear(Integer birthYear) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Author> query = session.createQuery("FROM Author a WHERE a.birthYear = :birthYear", Author.class);
             query.setParameter("birthYear", birthYear);
             return query.list();
@@ -176,12 +226,14 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public List<Author> findMostProductiveAuthors(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Author> query = session.createQuery(
                 "SELECT a FROM Author a ORDER BY SIZE(a.books) DESC", 
                 Author.class
             );
             query.setMaxResults(limit);
+            query.setCacheable(true);
             return query.list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm tác giả có nhiều sách: {}", e.getMessage());
@@ -191,11 +243,21 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public List<Author> searchAuthors(String keyword) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Author> query = session.createQuery(
-                "FROM Author a WHERE a.name LIKE :keyword OR a.biography LIKE :keyword", 
-                Author.class
-            );
+        SearchIndex searchIndex = SearchIndex.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (searchIndex.isReady()) {
+                // Chỉ mục toàn văn: lấy ID theo thứ hạng rồi nạp theo khóa chính
+                List<Long> ids = searchIndex.searchAuthorIds(keyword, SearchIndex.MAX_RESULTS);
+                if (ids.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                Query<Author> query = session.createQuery("FROM Author a WHERE a.authorId IN (:ids)", Author.class);
+                query.setParameterList("ids", ids);
+                return ResultOrdering.byIds(query.list(), ids, Author::getAuthorId);
+            }
+            Query<Author> query = session.createQuery("FROM Author a WHERE " + SEARCH_CONDITION, Author.class);
+            query.setParameter("folded", TextNormalizer.likeContains(keyword));
             query.setParameter("keyword", "%" + keyword + "%");
             return query.list();
         } catch (Exception e) {
@@ -206,12 +268,18 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public long countByNationality(String nationality) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        CatalogFacets facets = CatalogFacets.getInstance();
+        if (facets.isReady()) {
+            return facets.countAuthors(nationality);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(a) FROM Author a WHERE a.nationality = :nationality", 
                 Long.class
             );
             query.setParameter("nationality", nationality);
+            query.setCacheable(true);
             return query.uniqueResult();
         } catch (Exception e) {
             logger.error("Lỗi khi đếm tác giả theo quốc tịch: {}", e.getMessage());
@@ -221,7 +289,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     
     @Override
     public boolean hasBooks(Long authorId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(b) FROM Book b JOIN b.authors a WHERE a.authorId = :authorId", 
                 Long.class
@@ -233,4 +302,83 @@ public class AuthorRepositoryImpl implements AuthorRepository {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public Slice<Author> findAll(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Author.class, "a", "authorId", Author::getAuthorId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy trang tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể lấy trang tác giả", e);
+        }
+    }
+    
+    @Override
+    public Slice<Author> findByName(String name, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Author.class, "a", "authorId", Author::getAuthorId)
+                .where("a.nameNormalized LIKE :name")
+                .param("name", TextNormalizer.likeContains(name))
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang tác giả theo tên: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm tác giả theo tên", e);
+        }
+    }
+    
+    @Override
+    public Slice<Author> findByNationality(String nationality, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Author.class, "a", "authorId", Author::getAuthorId)
+                .where("a.nationality = :nationality")
+                .param("nationality", nationality)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang tác giả theo quốc tịch: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm tác giả theo quốc tịch", e);
+        }
+    }
+    
+    @Override
+    public Slice<Author> findByBirthYear(Integer birthYear, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Author.class, "a", "authorId", Author::getAuthorId)
+                .where("a.birthYear = :birthYear")
+                .param("birthYear", birthYear)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang tác giả theo năm sinh: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm tác giả theo năm sinh", e);
+        }
+    }
+    
+    @Override
+    public Slice<Author> searchAuthors(String keyword, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Author.class, "a", "authorId", Author::getAuthorId)
+                .where(SEARCH_CONDITION)
+                .param("folded", TextNormalizer.likeContains(keyword))
+                .param("keyword", "%" + keyword + "%")
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm trang tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm kiếm tác giả", e);
+        }
+    }
+    
+    @Override
+    public Stream<Author> streamAll() {
+        try {
+            return StreamingQuery.stream(Author.class, "FROM Author a ORDER BY a.authorId", Collections.emptyMap());
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt tác giả", e);
+        }
+    }
+}
@@ -1,16 +1,34 @@
 package com.library.repository.impl;
 
+import com.library.dto.BookSummary;
 import com.library.entity.Book;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
 import com.library.repository.BookRepository;
-import com.library.util.HibernateUtil;
+import com.library.repository.FetchPlan;
+import com.library.repository.Keyset;
+import com.library.repository.PageRequest;
+import com.library.repository.Slice;
+import com.library.search.BookBitmapIndex;
+import com.library.search.SearchIndex;
+import com.library.stats.StatisticsStore;
+import com.library.util.TextNormalizer;
+import com.library.util.UnitOfWork;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Implementation của BookRepository
@@ -20,54 +38,85 @@ public class BookRepositoryImpl implements BookRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(BookRepositoryImpl.class);
     
+    // Constructor expression: chỉ đọc các cột cần hiển thị, không tạo entity managed
+    private static final String SELECT_SUMMARY =
+        "SELECT new com.library.dto.BookSummary(b.bookId, b.title, b.isbn, b.category, b.available)";
+    
+    // Điều kiện tìm kiếm khi chưa có chỉ mục toàn văn: tiêu đề so khớp không dấu trên cột đã chuẩn hóa
+    private static final String SEARCH_CONDITION = "(b.titleNormalized LIKE :folded OR b.category LIKE :keyword)";
+    
     @Override
     public Book save(Book book) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.save(book);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã lưu sách: {}", book.getTitle());
             return book;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi lưu sách: {}", e.getMessage());
             throw new RuntimeException("Không thể lưu sách", e);
         }
     }
     
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Book book : books) {
+                session.save(book);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã lưu {} sách", books.size());
+            return books;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lưu danh sách sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể lưu danh sách sách", e);
+        }
+    }
+    
     @Override
     public Book update(Book book) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.update(book);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã cập nhật sách: {}", book.getTitle());
             return book;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi cập nhật sách: {}", e.getMessage());
             throw new RuntimeException("Không thể cập nhật sách", e);
         }
     }
     
+    @Override
+    public List<Book> updateAll(List<Book> books) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Book book : books) {
+                session.update(book);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã cập nhật {} sách", books.size());
+            return books;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật danh sách sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể cập nhật danh sách sách", e);
+        }
+    }
+    
     @Override
     public void delete(Book book) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.delete(book);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã xóa sách: {}", book.getTitle());
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa sách: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa sách", e);
         }
@@ -75,19 +124,15 @@ public class BookRepositoryImpl implements BookRepository {
     
     @Override
     public void deleteById(Long id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             Book book = session.get(Book.class, id);
             if (book != null) {
                 session.delete(book);
                 logger.info("Đã xóa sách có ID: {}", id);
             }
-            transaction.commit();
+            unitOfWork.commit();
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa sách theo ID: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa sách", e);
         }
@@ -95,8 +140,15 @@ public class BookRepositoryImpl implements BookRepository {
     
     @Override
     public Optional<Book> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Book book = session.get(Book.class, id);
+        return findById(id, FetchPlan.DEFAULT);
+    }
+    
+    @Override
+    public Optional<Book> findById(Long id, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Book book = session.find(Book.class, id, FetchPlanSupport.findProperties(session, Book.class, fetchPlan));
             return Optional.ofNullable(book);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách theo ID: {}", e.getMessage());
@@ -104,9 +156,21 @@ public class BookRepositoryImpl implements BookRepository {
         }
     }
     
+    @Override
+    public List<Book> findAllById(Collection<Long> ids) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return MultiGet.findAllById(session, Book.class, "bookId", ids, Book::getBookId);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm sách theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách theo danh sách ID", e);
+        }
+    }
+    
     @Override
     public List<Book> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Book> query = session.createQuery("FROM Book", Book.class);
             return query.list();
         } catch (Exception e) {
@@ -117,7 +181,8 @@ public class BookRepositoryImpl implements BookRepository {
     
     @Override
     public long count() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Book b", Long.class);
             return query.uniqueResult();
         } catch (Exception e) {
@@ -128,7 +193,8 @@ public class BookRepositoryImpl implements BookRepository {
     
     @Override
     public boolean existsById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Book b WHERE b.bookId = :id", Long.class);
             query.setParameter("id", id);
             return query.uniqueResult() > 0;
@@ -139,11 +205,13 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> findByTitle(String title) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Book> query = session.createQuery("FROM Book b WHERE b.title LIKE :title", Book.class);
-            query.setParameter("title", "%" + title + "%");
-            return query.list();
+    public List<Book> findByTitle(String title, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Book> query = session.createQuery("FROM Book b WHERE b.titleNormalized LIKE :title", Book.class);
+            query.setParameter("title", TextNormalizer.likeContains(title));
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách theo tiêu đề: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm sách theo tiêu đề", e);
@@ -152,10 +220,13 @@ public class BookRepositoryImpl implements BookRepository {
     
     @Override
     public Book findByIsbn(String isbn) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Book> query = session.createQuery("FROM Book b WHERE b.isbn = :isbn", Book.class);
-            query.setParameter("isbn", isbn);
-            return query.uniqueResult();
+        if (isbn == null) {
+            return null;
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            // Natural-id cache: ISBN -> ID, sau đó entity lấy từ session/L2 cache nếu có
+            return session.bySimpleNaturalId(Book.class).load(isbn);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách theo ISBN: {}", e.getMessage());
             return null;
@@ -163,11 +234,112 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> findByCategory(String category) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Book> findByIds(List<Long> ids, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Book> query = session.createQuery("FROM Book b WHERE b.bookId IN (:ids)", Book.class);
+            query.setParameterList("ids", ids);
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm sách theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách theo danh sách ID", e);
+        }
+    }
+    
+    @Override
+    public boolean reserveBooks(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return false;
+        }
+        Set<Long> distinctIds = new HashSet<>(ids);
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // SQL thuần: HQL UPDATE sẽ xóa cả region cache của Book ở mỗi lần mượn sách
+            CacheAwareUpdate.lockUntilCompletion(unitOfWork, Book.class, distinctIds);
+            int updated = CacheAwareUpdate.create(session,
+                    "UPDATE books SET available = false, borrow_count = COALESCE(borrow_count, 0) + 1 " +
+                    "WHERE book_id IN (:ids) AND available = true")
+                    .setParameterList("ids", distinctIds)
+                    .executeUpdate();
+            if (updated != distinctIds.size()) {
+                // Không commit: unit of work sẽ rollback các dòng vừa giữ chỗ
+                logger.warn("Chỉ giữ chỗ được {}/{} sách: {}", updated, distinctIds.size(), ids);
+                return false;
+            }
+            // UPDATE hàng loạt không qua event listener: tự công bố sau khi commit
+            List<Object[]> borrowCounts = session.createQuery(
+                    "SELECT b.bookId, b.borrowCount FROM Book b WHERE b.bookId IN (:ids)", Object[].class)
+                    .setParameterList("ids", distinctIds)
+                    .list();
+            unitOfWork.afterCommit(() -> {
+                for (Object[] row : borrowCounts) {
+                    int borrowCount = (Integer) row[1];
+                    EntityEventBus.publish(new EntityChange(EntityChange.Type.UPDATE, Book.class, row[0], null,
+                            new String[]{"available", "borrowCount"},
+                            new Object[]{true, borrowCount - 1}, new Object[]{false, borrowCount}));
+                }
+            });
+            unitOfWork.commit();
+            logger.info("Đã giữ chỗ {} sách", updated);
+            return true;
+        } catch (Exception e) {
+            logger.error("Lỗi khi giữ chỗ sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể giữ chỗ sách", e);
+        }
+    }
+    
+    @Override
+    public int markAvailable(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // Khóa các sách đang không có sẵn để câu UPDATE cập nhật (và chỉ công bố) đúng các sách này,
+            // kể cả khi sách vừa được trả hoặc cho mượn ở một transaction khác
+            Query<Long> lockQuery = session.createQuery(
+                    "SELECT b.bookId FROM Book b WHERE b.bookId IN (:ids) AND b.available = false", Long.class);
+            lockQuery.setParameterList("ids", ids);
+            lockQuery.setLockMode("b", LockMode.PESSIMISTIC_WRITE);
+            List<Long> unavailableIds = lockQuery.list();
+            if (unavailableIds.isEmpty()) {
+                unitOfWork.commit();
+                return 0;
+            }
+            // SQL thuần: HQL UPDATE sẽ xóa cả region cache của Book ở mỗi lần trả sách
+            CacheAwareUpdate.lockUntilCompletion(unitOfWork, Book.class, unavailableIds);
+            int updated = CacheAwareUpdate.create(session,
+                    "UPDATE books SET available = true WHERE book_id IN (:ids) AND available = false")
+                    .setParameterList("ids", unavailableIds)
+                    .executeUpdate();
+            unitOfWork.afterCommit(() -> {
+                for (Long id : unavailableIds) {
+                    EntityEventBus.publish(EntityChange.bulkUpdate(Book.class, id, "available", false, true));
+                }
+            });
+            unitOfWork.commit();
+            logger.info("Đã đánh dấu {} sách có sẵn", updated);
+            return updated;
+        } catch (Exception e) {
+            logger.error("Lỗi khi đánh dấu sách có sẵn: {}", e.getMessage());
+            throw new RuntimeException("Không thể đánh dấu sách có sẵn", e);
+        }
+    }
+    
+    @Override
+    public List<Book> findByCategory(String category, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Book> query = session.createQuery("FROM Book b WHERE b.category = :category", Book.class);
             query.setParameter("category", category);
-            return query.list();
+            // Query cache chỉ lưu ID: khi trúng cache entity graph không được áp dụng nên chỉ bật cho DEFAULT
+            query.setCacheable(fetchPlan == FetchPlan.DEFAULT);
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách theo thể loại: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm sách theo thể loại", e);
@@ -175,10 +347,17 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> findAvailableBooks() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Book> findAvailableBooks(FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        BookBitmapIndex bitmapIndex = BookBitmapIndex.getInstance();
+        if (bitmapIndex.isReady() && fetchPlan == FetchPlan.DEFAULT) {
+            // Lấy ID từ bitmap rồi nạp qua multi-get (phần lớn từ second-level cache)
+            return findAllById(bitmapIndex.findAvailableIds(null, null, Integer.MAX_VALUE));
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Book> query = session.createQuery("FROM Book b WHERE b.available = true", Book.class);
-            return query.list();
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách có sẵn: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm sách có sẵn", e);
@@ -186,14 +365,16 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> findByAuthorName(String authorName) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Book> findByAuthorName(String authorName, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Book> query = session.createQuery(
-                "SELECT DISTINCT b FROM Book b JOIN b.authors a WHERE a.name LIKE :authorName", 
+                "SELECT DISTINCT b FROM Book b JOIN b.authors a WHERE a.nameNormalized LIKE :authorName", 
                 Book.class
             );
-            query.setParameter("authorName", "%" + authorName + "%");
-            return query.list();
+            query.setParameter("authorName", TextNormalizer.likeContains(authorName));
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách theo tác giả: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm sách theo tác giả", e);
@@ -201,8 +382,20 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> findMostPopularBooks(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Book> findMostPopularBooks(int limit, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (fetchPlan == FetchPlan.WITH_AUTHORS) {
+                // setMaxResults cùng JOIN FETCH collection sẽ phân trang trong bộ nhớ: lấy ID trước rồi nạp kèm tác giả
+                Query<Long> idQuery = session.createQuery(
+                    "SELECT b.bookId FROM Book b ORDER BY b.borrowCount DESC", 
+                    Long.class
+                );
+                idQuery.setMaxResults(limit);
+                List<Long> ids = idQuery.list();
+                return ResultOrdering.byIds(findByIds(ids, fetchPlan), ids, Book::getBookId);
+            }
             Query<Book> query = session.createQuery(
                 "FROM Book b ORDER BY b.borrowCount DESC", 
                 Book.class
@@ -216,23 +409,89 @@ public class BookRepositoryImpl implements BookRepository {
     }
     
     @Override
-    public List<Book> searchBooks(String keyword) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Book> query = session.createQuery(
-                "FROM Book b WHERE b.title LIKE :keyword OR b.category LIKE :keyword", 
-                Book.class
-            );
+    public List<Book> searchBooks(String keyword, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Book.class, fetchPlan);
+        SearchIndex searchIndex = SearchIndex.getInstance();
+        if (searchIndex.isReady()) {
+            // Chỉ mục toàn văn: lấy ID theo thứ hạng rồi nạp theo khóa chính
+            List<Long> ids = searchIndex.searchBookIds(keyword, SearchIndex.MAX_RESULTS);
+            return ResultOrdering.byIds(findByIds(ids, fetchPlan), ids, Book::getBookId);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Book> query = session.createQuery("FROM Book b WHERE " + SEARCH_CONDITION, Book.class);
+            query.setParameter("folded", TextNormalizer.likeContains(keyword));
             query.setParameter("keyword", "%" + keyword + "%");
-            return query.list();
+            return FetchPlanSupport.distinct(FetchPlanSupport.apply(query, session, Book.class, fetchPlan).list(), fetchPlan);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm kiếm sách: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm kiếm sách", e);
         }
     }
     
+    @Override
+    public List<BookSummary> findAllSummaries() {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<BookSummary> query = session.createQuery(SELECT_SUMMARY + " FROM Book b", BookSummary.class);
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy danh sách tóm tắt sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể lấy danh sách tóm tắt sách", e);
+        }
+    }
+    
+    @Override
+    public List<BookSummary> findSummariesByCategory(String category) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<BookSummary> query = session.createQuery(
+                SELECT_SUMMARY + " FROM Book b WHERE b.category = :category", 
+                BookSummary.class
+            );
+            query.setParameter("category", category);
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm tóm tắt sách theo thể loại: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm tóm tắt sách theo thể loại", e);
+        }
+    }
+    
+    @Override
+    public List<BookSummary> searchBookSummaries(String keyword) {
+        SearchIndex searchIndex = SearchIndex.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (searchIndex.isReady()) {
+                // Cùng đường với searchBooks: ID theo thứ hạng từ chỉ mục toàn văn
+                List<Long> ids = searchIndex.searchBookIds(keyword, SearchIndex.MAX_RESULTS);
+                if (ids.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                Query<BookSummary> query = session.createQuery(
+                    SELECT_SUMMARY + " FROM Book b WHERE b.bookId IN (:ids)", BookSummary.class);
+                query.setParameterList("ids", ids);
+                return ResultOrdering.byIds(query.list(), ids, BookSummary::getBookId);
+            }
+            Query<BookSummary> query = session.createQuery(
+                SELECT_SUMMARY + " FROM Book b WHERE " + SEARCH_CONDITION, BookSummary.class);
+            query.setParameter("folded", TextNormalizer.likeContains(keyword));
+            query.setParameter("keyword", "%" + keyword + "%");
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm tóm tắt sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm kiếm tóm tắt sách", e);
+        }
+    }
+    
     @Override
     public long countAvailableBooks() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.countAvailableBooks();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Book b WHERE b.available = true", Long.class);
             return query.uniqueResult();
         } catch (Exception e) {
@@ -241,15 +500,192 @@ public class BookRepositoryImpl implements BookRepository {
         }
     }
     
+    @Override
+    public long countAvailableByCategory(String category) {
+        BookBitmapIndex bitmapIndex = BookBitmapIndex.getInstance();
+        if (bitmapIndex.isReady()) {
+            return bitmapIndex.countAvailable(category);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Long> query = session.createQuery(
+                "SELECT COUNT(b) FROM Book b WHERE b.available = true AND b.category = :category", Long.class);
+            query.setParameter("category", category);
+            return query.uniqueResult();
+        } catch (Exception e) {
+            logger.error("Lỗi khi đếm sách có sẵn theo thể loại: {}", e.getMessage());
+            return 0;
+        }
+    }
+    
     @Override
     public long countByCategory(String category) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.countBooksByCategory(category);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Book b WHERE b.category = :category", Long.class);
             query.setParameter("category", category);
+            query.setCacheable(true);
             return query.uniqueResult();
         } catch (Exception e) {
             logger.error("Lỗi khi đếm sách theo thể loại: {}", e.getMessage());
             return 0;
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public Slice<Book> findAll(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy trang sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể lấy trang sách", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> findByTitle(String title, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where("b.titleNormalized LIKE :title")
+                .param("title", TextNormalizer.likeContains(title))
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách theo tiêu đề: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách theo tiêu đề", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> findByCategory(String category, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where("b.category = :category")
+                .param("category", category)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách theo thể loại: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách theo thể loại", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> findAvailableBooks(PageRequest pageRequest) {
+        BookBitmapIndex bitmapIndex = BookBitmapIndex.getInstance();
+        if (bitmapIndex.isReady()) {
+            return findAvailablePage(bitmapIndex, null, pageRequest);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where("b.available = true")
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách có sẵn: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách có sẵn", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> findAvailableByCategory(String category, PageRequest pageRequest) {
+        BookBitmapIndex bitmapIndex = BookBitmapIndex.getInstance();
+        if (bitmapIndex.isReady()) {
+            return findAvailablePage(bitmapIndex, category, pageRequest);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where("b.available = true")
+                .where("b.category = :category")
+                .param("category", category)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách có sẵn theo thể loại: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách có sẵn theo thể loại", e);
+        }
+    }
+    
+    /**
+     * Trang sách có sẵn theo keyset trên ID: lấy ID từ bitmap, nạp entity qua multi-get
+     */
+    private Slice<Book> findAvailablePage(BookBitmapIndex bitmapIndex, String category, PageRequest pageRequest) {
+        Long afterId = pageRequest.getAfter() != null ? pageRequest.getAfter().getId() : null;
+        List<Long> ids = bitmapIndex.findAvailableIds(category, afterId, pageRequest.getSize() + 1);
+        Keyset nextKeyset = null;
+        if (ids.size() > pageRequest.getSize()) {
+            ids = ids.subList(0, pageRequest.getSize());
+            nextKeyset = Keyset.ofId(ids.get(ids.size() - 1));
+        }
+        Long totalCount = pageRequest.isCountTotal() ? (long) bitmapIndex.countAvailable(category) : null;
+        return new Slice<>(findAllById(ids), pageRequest, nextKeyset, totalCount);
+    }
+    
+    @Override
+    public Slice<Book> findByAuthorName(String authorName, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where("b.bookId IN (SELECT bk.bookId FROM Book bk JOIN bk.authors a WHERE a.nameNormalized LIKE :authorName)")
+                .param("authorName", TextNormalizer.likeContains(authorName))
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách theo tác giả: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách theo tác giả", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> findMostPopularBooks(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .orderBy("borrowCount", Book::getBorrowCount, 0, true)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang sách phổ biến: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm sách phổ biến", e);
+        }
+    }
+    
+    @Override
+    public Slice<Book> searchBooks(String keyword, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Book.class, "b", "bookId", Book::getBookId)
+                .where(SEARCH_CONDITION)
+                .param("folded", TextNormalizer.likeContains(keyword))
+                .param("keyword", "%" + keyword + "%")
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm trang sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm kiếm sách", e);
+        }
+    }
+    
+    @Override
+    public Stream<Book> streamAll() {
+        try {
+            return StreamingQuery.stream(Book.class, "FROM Book b ORDER BY b.bookId", Collections.emptyMap());
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt sách", e);
+        }
+    }
+    
+    @Override
+    public Stream<Book> streamByCategory(String category) {
+        try {
+            return StreamingQuery.stream(Book.class, "FROM Book b WHERE b.category = :category ORDER BY b.bookId", Map.of("category", category));
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt sách theo thể loại: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt sách theo thể loại", e);
+        }
+    }
+}
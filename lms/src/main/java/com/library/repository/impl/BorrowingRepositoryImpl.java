@@ -1,18 +1,36 @@
 package com.library.repository.impl;
 
+import com.library.entity.Book;
 import com.library.entity.Borrowing;
 import com.library.entity.Borrowing.BorrowingStatus;
+import com.library.entity.Member;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
 import com.library.repository.BorrowingRepository;
-import com.library.util.HibernateUtil;
+import com.library.repository.FetchPlan;
+import com.library.repository.PageRequest;
+import com.library.repository.RankingWindow;
+import com.library.repository.Slice;
+import com.library.stats.Leaderboard;
+import com.library.stats.StatisticsStore;
+import com.library.util.UnitOfWork;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Implementation của BorrowingRepository
@@ -22,54 +40,82 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(BorrowingRepositoryImpl.class);
     
+    // Tiền phạt tới ngày :asOf theo hạn trả của từng dòng (giống Borrowing.calculateFine), tham số :finePerDay
+    private static final String FINE_AS_OF =
+            "CASE WHEN b.dueDate < :asOf THEN days_between(b.dueDate, :asOf) * :finePerDay ELSE 0.0 END";
+    
     @Override
     public Borrowing save(Borrowing borrowing) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.save(borrowing);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã lưu phiếu mượn ID: {}", borrowing.getBorrowingId());
             return borrowing;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi lưu phiếu mượn: {}", e.getMessage());
             throw new RuntimeException("Không thể lưu phiếu mượn", e);
         }
     }
     
+    @Override
+    public List<Borrowing> saveAll(List<Borrowing> borrowings) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Borrowing borrowing : borrowings) {
+                session.save(borrowing);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã lưu {} phiếu mượn", borrowings.size());
+            return borrowings;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lưu danh sách phiếu mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể lưu danh sách phiếu mượn", e);
+        }
+    }
+    
     @Override
     public Borrowing update(Borrowing borrowing) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.update(borrowing);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã cập nhật phiếu mượn ID: {}", borrowing.getBorrowingId());
             return borrowing;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi cập nhật phiếu mượn: {}", e.getMessage());
             throw new RuntimeException("Không thể cập nhật phiếu mượn", e);
         }
     }
     
+    @Override
+    public List<Borrowing> updateAll(List<Borrowing> borrowings) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Borrowing borrowing : borrowings) {
+                session.update(borrowing);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã cập nhật {} phiếu mượn", borrowings.size());
+            return borrowings;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật danh sách phiếu mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể cập nhật danh sách phiếu mượn", e);
+        }
+    }
+    
     @Override
     public void delete(Borrowing borrowing) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.delete(borrowing);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã xóa phiếu mượn ID: {}", borrowing.getBorrowingId());
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa phiếu mượn: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa phiếu mượn", e);
         }
@@ -77,19 +123,15 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public void deleteById(Long id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             Borrowing borrowing = session.get(Borrowing.class, id);
             if (borrowing != null) {
                 session.delete(borrowing);
                 logger.info("Đã xóa phiếu mượn có ID: {}", id);
             }
-            transaction.commit();
+            unitOfWork.commit();
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa phiếu mượn theo ID: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa phiếu mượn", e);
         }
@@ -97,8 +139,15 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public Optional<Borrowing> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Borrowing borrowing = session.get(Borrowing.class, id);
+        return findById(id, FetchPlan.DEFAULT);
+    }
+    
+    @Override
+    public Optional<Borrowing> findById(Long id, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Borrowing borrowing = session.find(Borrowing.class, id, FetchPlanSupport.findProperties(session, Borrowing.class, fetchPlan));
             return Optional.ofNullable(borrowing);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo ID: {}", e.getMessage());
@@ -106,9 +155,21 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
         }
     }
     
+    @Override
+    public List<Borrowing> findAllById(Collection<Long> ids) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return MultiGet.findAllById(session, Borrowing.class, "borrowingId", ids, Borrowing::getBorrowingId);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm phiếu mượn theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo danh sách ID", e);
+        }
+    }
+    
     @Override
     public List<Borrowing> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery("FROM Borrowing", Borrowing.class);
             return query.list();
         } catch (Exception e) {
@@ -119,7 +180,8 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public long count() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Borrowing b", Long.class);
             return query.uniqueResult();
         } catch (Exception e) {
@@ -130,7 +192,8 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public boolean existsById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Borrowing b WHERE b.borrowingId = :id", Long.class);
             query.setParameter("id", id);
             return query.uniqueResult() > 0;
@@ -141,11 +204,222 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByMemberId(Long memberId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Borrowing> query = session.createQuery(
+                "SELECT b FROM Borrowing b JOIN FETCH b.book WHERE b.borrowingId IN (:ids)", 
+                Borrowing.class
+            );
+            query.setParameterList("ids", ids);
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm phiếu mượn theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo danh sách ID", e);
+        }
+    }
+    
+    @Override
+    public List<Object[]> markReturned(List<Long> ids, LocalDate returnDate) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // Khóa các phiếu còn chưa trả để câu UPDATE cập nhật (và chỉ công bố) đúng các phiếu này,
+            // kể cả khi phiếu vừa được trả ở một transaction khác
+            List<Object[]> open = lockOpenBorrowings(session,
+                    "SELECT b.borrowingId, b.book.bookId, b.member.memberId, b.dueDate", ids,
+                    BorrowingStatus.BORROWED, BorrowingStatus.OVERDUE);
+            if (open.isEmpty()) {
+                unitOfWork.commit();
+                return new ArrayList<>();
+            }
+            List<Long> openIds = new ArrayList<>(open.size());
+            List<Object[]> returned = new ArrayList<>(open.size());
+            for (Object[] row : open) {
+                openIds.add((Long) row[0]);
+                returned.add(new Object[]{row[0], row[1], row[2], Borrowing.calculateFine((LocalDate) row[3], returnDate)});
+            }
+            // Một câu cho cả chunk: tiền phạt (giống Borrowing.calculateFine) được tính theo hạn trả của từng dòng
+            int updated = session.createQuery(
+                    "UPDATE Borrowing b SET b.status = :returned, b.returnDate = :returnDate, " +
+                    "b.fineAmount = CASE WHEN b.dueDate < :returnDate " +
+                    "THEN days_between(b.dueDate, :returnDate) * :finePerDay ELSE 0.0 END " +
+                    "WHERE b.borrowingId IN (:ids)")
+                    .setParameter("returned", BorrowingStatus.RETURNED)
+                    .setParameter("returnDate", returnDate)
+                    .setParameter("finePerDay", Borrowing.FINE_PER_DAY)
+                    .setParameterList("ids", openIds)
+                    .executeUpdate();
+            unitOfWork.afterCommit(() -> {
+                for (Object[] row : returned) {
+                    EntityEventBus.publish(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, row[0], null,
+                            new String[]{"status", "returnDate", "fineAmount"}, null,
+                            new Object[]{BorrowingStatus.RETURNED, returnDate, row[3]}));
+                }
+            });
+            unitOfWork.commit();
+            logger.info("Đã đánh dấu trả {} phiếu mượn", updated);
+            return returned;
+        } catch (Exception e) {
+            logger.error("Lỗi khi đánh dấu trả phiếu mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể đánh dấu trả phiếu mượn", e);
+        }
+    }
+    
+    /**
+     * Khóa (SELECT ... FOR UPDATE) các phiếu trong ids đang ở một trong các trạng thái
+     * @param select Mệnh đề SELECT trên alias b
+     */
+    private static List<Object[]> lockOpenBorrowings(Session session, String select, List<Long> ids,
+                                                     BorrowingStatus... statuses) {
+        Query<Object[]> query = session.createQuery(
+                select + " FROM Borrowing b WHERE b.borrowingId IN (:ids) AND b.status IN (:statuses)",
+                Object[].class);
+        query.setParameterList("ids", ids);
+        query.setParameterList("statuses", Arrays.asList(statuses));
+        query.setLockMode("b", LockMode.PESSIMISTIC_WRITE);
+        return query.list();
+    }
+    
+    @Override
+    public List<Object[]> findNewlyOverdue(LocalDate from, LocalDate before, int limit) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            // Phiếu đã chuyển sang OVERDUE không còn khớp điều kiện nên lần gọi sau tự lấy phần tiếp theo
+            Query<Object[]> query = session.createQuery(
+                    "SELECT b.borrowingId, b.dueDate FROM Borrowing b " +
+                    "WHERE b.status = :borrowed AND b.dueDate < :before" +
+                    (from != null ? " AND b.dueDate >= :from" : "") +
+                    " ORDER BY b.dueDate", Object[].class);
+            query.setParameter("borrowed", BorrowingStatus.BORROWED);
+            query.setParameter("before", before);
+            if (from != null) {
+                query.setParameter("from", from);
+            }
+            query.setMaxResults(limit);
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm phiếu mượn mới quá hạn: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn mới quá hạn", e);
+        }
+    }
+    
+    @Override
+    public List<Object[]> markOverdue(List<Long> ids, LocalDate asOf) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // Chỉ các phiếu vẫn đang BORROWED (phiếu vừa được trả song song bị bỏ qua và không được công bố)
+            List<Object[]> open = lockOpenBorrowings(session, "SELECT b.borrowingId, b.dueDate", ids, BorrowingStatus.BORROWED);
+            if (open.isEmpty()) {
+                unitOfWork.commit();
+                return new ArrayList<>();
+            }
+            List<Long> openIds = new ArrayList<>(open.size());
+            List<Object[]> marked = new ArrayList<>(open.size());
+            for (Object[] row : open) {
+                openIds.add((Long) row[0]);
+                marked.add(new Object[]{row[0], Borrowing.calculateFine((LocalDate) row[1], asOf)});
+            }
+            int updated = session.createQuery(
+                    "UPDATE Borrowing b SET b.status = :overdue, " +
+                    "b.fineAmount = " + FINE_AS_OF + " WHERE b.borrowingId IN (:ids)")
+                    .setParameter("overdue", BorrowingStatus.OVERDUE)
+                    .setParameter("asOf", asOf)
+                    .setParameter("finePerDay", Borrowing.FINE_PER_DAY)
+                    .setParameterList("ids", openIds)
+                    .executeUpdate();
+            unitOfWork.afterCommit(() -> {
+                for (Object[] row : marked) {
+                    EntityEventBus.publish(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, row[0], null,
+                            new String[]{"status", "fineAmount"}, null,
+                            new Object[]{BorrowingStatus.OVERDUE, row[1]}));
+                }
+            });
+            unitOfWork.commit();
+            logger.debug("Đã chuyển {} phiếu mượn sang quá hạn", updated);
+            return marked;
+        } catch (Exception e) {
+            logger.error("Lỗi khi chuyển phiếu mượn sang quá hạn: {}", e.getMessage());
+            throw new RuntimeException("Không thể chuyển phiếu mượn sang quá hạn", e);
+        }
+    }
+    
+    @Override
+    public List<Object[]> findOverdueWithStaleFine(LocalDate asOf, int limit) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            // Phiếu đã được tính lại không còn khớp điều kiện nên lần gọi sau tự lấy phần tiếp theo
+            Query<Object[]> query = session.createQuery(
+                    "SELECT b.borrowingId, b.dueDate FROM Borrowing b " +
+                    "WHERE b.status = :overdue AND (b.fineAmount IS NULL OR b.fineAmount <> " + FINE_AS_OF + ") " +
+                    "ORDER BY b.borrowingId", Object[].class);
+            query.setParameter("overdue", BorrowingStatus.OVERDUE);
+            query.setParameter("asOf", asOf);
+            query.setParameter("finePerDay", Borrowing.FINE_PER_DAY);
+            query.setMaxResults(limit);
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm phiếu quá hạn cần tính lại tiền phạt: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu quá hạn cần tính lại tiền phạt", e);
+        }
+    }
+    
+    @Override
+    public List<Object[]> reassessOverdueFines(List<Long> ids, LocalDate asOf) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // Chỉ các phiếu vẫn đang OVERDUE (phiếu vừa được trả song song giữ tiền phạt lúc trả)
+            List<Object[]> open = lockOpenBorrowings(session, "SELECT b.borrowingId, b.dueDate", ids, BorrowingStatus.OVERDUE);
+            if (open.isEmpty()) {
+                unitOfWork.commit();
+                return new ArrayList<>();
+            }
+            List<Long> openIds = new ArrayList<>(open.size());
+            List<Object[]> reassessed = new ArrayList<>(open.size());
+            for (Object[] row : open) {
+                openIds.add((Long) row[0]);
+                reassessed.add(new Object[]{row[0], Borrowing.calculateFine((LocalDate) row[1], asOf)});
+            }
+            int updated = session.createQuery(
+                    "UPDATE Borrowing b SET b.fineAmount = " + FINE_AS_OF + " WHERE b.borrowingId IN (:ids)")
+                    .setParameter("asOf", asOf)
+                    .setParameter("finePerDay", Borrowing.FINE_PER_DAY)
+                    .setParameterList("ids", openIds)
+                    .executeUpdate();
+            unitOfWork.afterCommit(() -> {
+                for (Object[] row : reassessed) {
+                    EntityEventBus.publish(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, row[0], null,
+                            new String[]{"fineAmount"}, null, new Object[]{row[1]}));
+                }
+            });
+            unitOfWork.commit();
+            logger.debug("Đã tính lại tiền phạt của {} phiếu quá hạn", updated);
+            return reassessed;
+        } catch (Exception e) {
+            logger.error("Lỗi khi tính lại tiền phạt phiếu quá hạn: {}", e.getMessage());
+            throw new RuntimeException("Không thể tính lại tiền phạt phiếu quá hạn", e);
+        }
+    }
+    
+    @Override
+    public List<Borrowing> findByMemberId(Long memberId, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery("FROM Borrowing b WHERE b.member.memberId = :memberId", Borrowing.class);
             query.setParameter("memberId", memberId);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo thành viên: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo thành viên", e);
@@ -153,11 +427,13 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByBookId(Long bookId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByBookId(Long bookId, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery("FROM Borrowing b WHERE b.book.bookId = :bookId", Borrowing.class);
             query.setParameter("bookId", bookId);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo sách: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo sách", e);
@@ -165,11 +441,13 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByStatus(BorrowingStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByStatus(BorrowingStatus status, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery("FROM Borrowing b WHERE b.status = :status", Borrowing.class);
             query.setParameter("status", status);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo trạng thái: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo trạng thái", e);
@@ -177,11 +455,13 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findActiveBorrowings() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findActiveBorrowings(FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery("FROM Borrowing b WHERE b.status = :status", Borrowing.class);
             query.setParameter("status", BorrowingStatus.BORROWED);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn đang hoạt động: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn đang hoạt động", e);
@@ -189,8 +469,10 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findOverdueBorrowings() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findOverdueBorrowings(FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.status IN (:borrowed, :overdue) AND b.dueDate < :currentDate", 
                 Borrowing.class
@@ -198,7 +480,7 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
             query.setParameter("borrowed", BorrowingStatus.BORROWED);
             query.setParameter("overdue", BorrowingStatus.OVERDUE);
             query.setParameter("currentDate", LocalDate.now());
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn quá hạn: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn quá hạn", e);
@@ -207,7 +489,8 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public List<Borrowing> findOverdueBorrowings(int days) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             LocalDate cutoffDate = LocalDate.now().minusDays(days);
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.status IN (:borrowed, :overdue) AND b.dueDate < :cutoffDate", 
@@ -224,15 +507,17 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.borrowDate BETWEEN :startDate AND :endDate", 
                 Borrowing.class
             );
             query.setParameter("startDate", startDate);
             query.setParameter("endDate", endDate);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo khoảng thời gian mượn: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo khoảng thời gian", e);
@@ -240,15 +525,17 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.dueDate BETWEEN :startDate AND :endDate", 
                 Borrowing.class
             );
             query.setParameter("startDate", startDate);
             query.setParameter("endDate", endDate);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo khoảng thời gian hạn trả: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo khoảng thời gian hạn trả", e);
@@ -256,15 +543,17 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.member.memberId = :memberId AND b.status = :status", 
                 Borrowing.class
             );
             query.setParameter("memberId", memberId);
             query.setParameter("status", status);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo thành viên và trạng thái: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo thành viên và trạng thái", e);
@@ -272,15 +561,17 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public List<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Borrowing> query = session.createQuery(
                 "FROM Borrowing b WHERE b.book.bookId = :bookId AND b.status = :status", 
                 Borrowing.class
             );
             query.setParameter("bookId", bookId);
             query.setParameter("status", status);
-            return query.list();
+            return FetchPlanSupport.apply(query, session, Borrowing.class, fetchPlan).list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm phiếu mượn theo sách và trạng thái: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm phiếu mượn theo sách và trạng thái", e);
@@ -289,7 +580,12 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public long countByStatus(BorrowingStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.countBorrowingsByStatus(status);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Borrowing b WHERE b.status = :status", Long.class);
             query.setParameter("status", status);
             return query.uniqueResult();
@@ -301,7 +597,8 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public long countByMemberId(Long memberId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(b) FROM Borrowing b WHERE b.member.memberId = :memberId", Long.class);
             query.setParameter("memberId", memberId);
             return query.uniqueResult();
@@ -313,7 +610,12 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public long countOverdueBorrowings() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.countOverdueBorrowings();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(b) FROM Borrowing b WHERE b.status IN (:borrowed, :overdue) AND b.dueDate < :currentDate", 
                 Long.class
@@ -330,7 +632,12 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public Double getTotalFineAmount() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.getTotalFineAmount();
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Double> query = session.createQuery("SELECT SUM(b.fineAmount) FROM Borrowing b", Double.class);
             Double result = query.uniqueResult();
             return result != null ? result : 0.0;
@@ -342,13 +649,23 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     
     @Override
     public List<Object[]> findMostBorrowedBooks(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Object[]> query = session.createQuery(
-                "SELECT b.book, COUNT(b) FROM Borrowing b GROUP BY b.book ORDER BY COUNT(b) DESC", 
-                Object[].class
-            );
-            query.setMaxResults(limit);
-            return query.list();
+        return findMostBorrowedBooks(limit, RankingWindow.ALL_TIME);
+    }
+    
+    @Override
+    public List<Object[]> findMostActiveMembers(int limit) {
+        return findMostActiveMembers(limit, RankingWindow.ALL_TIME);
+    }
+    
+    @Override
+    public List<Object[]> findMostBorrowedBooks(int limit, RankingWindow window) {
+        Leaderboard leaderboard = Leaderboard.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (leaderboard.isReady()) {
+                return withEntities(session, Book.class, "bookId", Book::getBookId, leaderboard.topBooks(limit, window));
+            }
+            return findMostBorrowedBy(session, "b.book", limit, window);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm sách được mượn nhiều nhất: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm sách được mượn nhiều nhất", e);
@@ -356,17 +673,238 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
     }
     
     @Override
-    public List<Object[]> findMostActiveMembers(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Object[]> query = session.createQuery(
-                "SELECT b.member, COUNT(b) FROM Borrowing b GROUP BY b.member ORDER BY COUNT(b) DESC", 
-                Object[].class
-            );
-            query.setMaxResults(limit);
-            return query.list();
+    public List<Object[]> findMostActiveMembers(int limit, RankingWindow window) {
+        Leaderboard leaderboard = Leaderboard.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (leaderboard.isReady()) {
+                return withEntities(session, Member.class, "memberId", Member::getMemberId, leaderboard.topMembers(limit, window));
+            }
+            return findMostBorrowedBy(session, "b.member", limit, window);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm thành viên hoạt động nhiều nhất: {}", e.getMessage());
             throw new RuntimeException("Không thể tìm thành viên hoạt động nhiều nhất", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * GROUP BY trên lịch sử mượn, dùng khi bảng xếp hạng chưa được dựng
+     */
+    private static List<Object[]> findMostBorrowedBy(Session session, String path, int limit, RankingWindow window) {
+        LocalDate from = window.startDate(LocalDate.now());
+        Query<Object[]> query = session.createQuery(
+            "SELECT " + path + ", COUNT(b) FROM Borrowing b" +
+                (from != null ? " WHERE b.borrowDate >= :from" : "") +
+                " GROUP BY " + path + " ORDER BY COUNT(b) DESC",
+            Object[].class
+        );
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        query.setMaxResults(limit);
+        return query.list();
+    }
+    
+    /**
+     * Nạp entity của các dòng xếp hạng qua multi-get, giữ thứ tự và số lượt mượn
+     */
+    private static <T> List<Object[]> withEntities(Session session, Class<T> entityClass, String idProperty,
+                                                   Function<T, Long> idOf, List<Leaderboard.Entry> entries) {
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (Leaderboard.Entry entry : entries) {
+            ids.add(entry.getId());
+        }
+        List<T> entities = MultiGet.findAllById(session, entityClass, idProperty, ids, idOf);
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (Leaderboard.Entry entry : entries) {
+            T entity = byId.get(entry.getId());
+            if (entity != null) {
+                rows.add(new Object[]{entity, entry.getCount()});
+            }
+        }
+        return rows;
+    }
+    
+    @Override
+    public Slice<Borrowing> findAll(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy trang phiếu mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể lấy trang phiếu mượn", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByMemberId(Long memberId, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.member.memberId = :memberId")
+                .param("memberId", memberId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo thành viên", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByBookId(Long bookId, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.book.bookId = :bookId")
+                .param("bookId", bookId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo sách", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByStatus(BorrowingStatus status, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.status = :status")
+                .param("status", status)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo trạng thái: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo trạng thái", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findActiveBorrowings(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.status = :status")
+                .param("status", BorrowingStatus.BORROWED)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn đang hoạt động: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn đang hoạt động", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findOverdueBorrowings(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.status IN (:borrowed, :overdue)")
+                .where("b.dueDate < :currentDate")
+                .param("borrowed", BorrowingStatus.BORROWED)
+                .param("overdue", BorrowingStatus.OVERDUE)
+                .param("currentDate", LocalDate.now())
+                .orderBy("dueDate", Borrowing::getDueDate, false)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn quá hạn: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn quá hạn", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByBorrowDateBetween(LocalDate startDate, LocalDate endDate, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.borrowDate BETWEEN :startDate AND :endDate")
+                .param("startDate", startDate)
+                .param("endDate", endDate)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo ngày mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo ngày mượn", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByDueDateBetween(LocalDate startDate, LocalDate endDate, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.dueDate BETWEEN :startDate AND :endDate")
+                .param("startDate", startDate)
+                .param("endDate", endDate)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo hạn trả: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo hạn trả", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByMemberIdAndStatus(Long memberId, BorrowingStatus status, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.member.memberId = :memberId")
+                .where("b.status = :status")
+                .param("memberId", memberId)
+                .param("status", status)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo thành viên và trạng thái: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo thành viên và trạng thái", e);
+        }
+    }
+    
+    @Override
+    public Slice<Borrowing> findByBookIdAndStatus(Long bookId, BorrowingStatus status, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Borrowing.class, "b", "borrowingId", Borrowing::getBorrowingId)
+                .where("b.book.bookId = :bookId")
+                .where("b.status = :status")
+                .param("bookId", bookId)
+                .param("status", status)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang phiếu mượn theo sách và trạng thái: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm phiếu mượn theo sách và trạng thái", e);
+        }
+    }
+    
+    @Override
+    public Stream<Borrowing> streamAll() {
+        try {
+            return StreamingQuery.stream(Borrowing.class, "FROM Borrowing b ORDER BY b.borrowingId", Collections.emptyMap());
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt phiếu mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt phiếu mượn", e);
+        }
+    }
+    
+    @Override
+    public Stream<Borrowing> streamByStatus(BorrowingStatus status, FetchPlan fetchPlan) {
+        FetchPlanSupport.requireApplicable(Borrowing.class, fetchPlan);
+        try {
+            return StreamingQuery.stream(Borrowing.class, "FROM Borrowing b WHERE b.status = :status ORDER BY b.borrowingId", Map.of("status", status), fetchPlan);
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt phiếu mượn theo trạng thái: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt phiếu mượn theo trạng thái", e);
+        }
+    }
+    
+    @Override
+    public Stream<Borrowing> streamByBorrowDateBetween(LocalDate startDate, LocalDate endDate) {
+        try {
+            return StreamingQuery.stream(Borrowing.class, "FROM Borrowing b WHERE b.borrowDate BETWEEN :startDate AND :endDate ORDER BY b.borrowingId", Map.of("startDate", startDate, "endDate", endDate));
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt phiếu mượn theo ngày mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt phiếu mượn theo ngày mượn", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.library.repository.impl;
+
+import com.library.util.UnitOfWork;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+import javax.transaction.Synchronization;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * UPDATE hàng loạt bằng SQL thuần mà không xóa cả region second-level cache.
+ *
+ * Với mỗi HQL UPDATE trên một entity được cache, Hibernate (BulkOperationCleanupAction) xóa toàn bộ region
+ * của entity đó, region natural-id và các region collection liên quan; native query khai báo query space
+ * là bảng của entity cũng vậy. Ở đây câu UPDATE được gắn với một query space không thuộc entity nào nên
+ * không region nào bị xóa. Thay vào đó các dòng sắp đổi được khóa mềm (soft lock) trong region trước câu
+ * UPDATE và mở khóa khi transaction kết thúc, như Hibernate làm với UPDATE từng entity READ_WRITE: trong
+ * lúc khóa, đọc đi thẳng xuống database và không ghi vào cache; sau khi mở khóa, bản được nạp từ trước đó
+ * (bản cũ) không được ghi lại vào cache.
+ *
+ * Khoảng hở còn lại: khóa mềm tự hết hạn theo timeout của region (mặc định 60 giây) và có thể bị region
+ * đẩy ra khi đầy; transaction kéo dài hơn thế, hoặc khóa bị đẩy ra, vẫn có thể để một bản cũ vào cache
+ * cho tới khi entry hết hạn (TTL của region).
+ *
+ * Query cache của bảng không bị làm mất hiệu lực: chỉ dùng cho các cột không nằm trong điều kiện của
+ * query được cache (available, borrow_count, active_borrowings).
+ */
+final class CacheAwareUpdate {
+
+    // Query space không thuộc entity nào: Hibernate không xóa region cache nào khi chạy câu UPDATE
+    private static final String QUERY_SPACE = "cache_aware_update";
+
+    private CacheAwareUpdate() {
+    }
+
+    static NativeQuery<?> create(Session session, String sql) {
+        return session.createNativeQuery(sql).addSynchronizedQuerySpace(QUERY_SPACE);
+    }
+
+    /**
+     * Khóa mềm các entity sắp bị UPDATE trong second-level cache cho tới khi transaction commit hoặc
+     * rollback. Phải gọi trước khi chạy câu UPDATE.
+     */
+    static void lockUntilCompletion(UnitOfWork unitOfWork, Class<?> entityClass, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Session session = unitOfWork.getSession();
+        SharedSessionContractImplementor sessionImplementor = (SharedSessionContractImplementor) session;
+        SessionFactoryImplementor sessionFactory = sessionImplementor.getFactory();
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(entityClass);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Map<Object, SoftLock> locks = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Object key = cacheAccess.generateCacheKey(id, persister, sessionFactory, sessionImplementor.getTenantIdentifier());
+            locks.put(key, cacheAccess.lockItem(sessionImplementor, key, null));
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Mở khóa cả khi rollback: dữ liệu cũ trong database vẫn đúng, chỉ cần cho phép cache lại
+                for (Map.Entry<Object, SoftLock> entry : locks.entrySet()) {
+                    cacheAccess.unlockItem(sessionImplementor, entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.library.repository.impl;
+
+import com.library.repository.FetchPlan;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Áp dụng FetchPlan lên query/find bằng entity graph (javax.persistence.fetchgraph)
+ */
+final class FetchPlanSupport {
+
+    static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private FetchPlanSupport() {
+    }
+
+    /**
+     * Kiểm tra fetch plan dùng được cho entity; gọi ngoài try/catch của repository để lỗi dùng sai
+     * fetch plan không bị bọc thành lỗi truy vấn hoặc bị nuốt thành kết quả rỗng
+     * @throws IllegalArgumentException nếu entity không khai báo entity graph của fetch plan
+     */
+    static void requireApplicable(Class<?> entityClass, FetchPlan fetchPlan) {
+        graphName(entityClass, fetchPlan);
+    }
+
+    /**
+     * Gắn entity graph của fetch plan vào query
+     */
+    static <T> Query<T> apply(Query<T> query, Session session, Class<T> entityClass, FetchPlan fetchPlan) {
+        String graphName = graphName(entityClass, fetchPlan);
+        if (graphName != null) {
+            query.setHint(FETCH_GRAPH_HINT, session.getEntityGraph(graphName));
+        }
+        return query;
+    }
+
+    /**
+     * Thuộc tính truyền cho Session.find() để nạp theo fetch plan
+     */
+    static Map<String, Object> findProperties(Session session, Class<?> entityClass, FetchPlan fetchPlan) {
+        String graphName = graphName(entityClass, fetchPlan);
+        if (graphName == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(FETCH_GRAPH_HINT, session.getEntityGraph(graphName));
+    }
+
+    /**
+     * Fetch collection qua JOIN sinh ra dòng trùng lặp cho entity gốc, loại bỏ và giữ thứ tự
+     */
+    static <T> List<T> distinct(List<T> results, FetchPlan fetchPlan) {
+        if (fetchPlan != FetchPlan.WITH_AUTHORS) {
+            return results;
+        }
+        return new ArrayList<>(new LinkedHashSet<>(results));
+    }
+
+    private static String graphName(Class<?> entityClass, FetchPlan fetchPlan) {
+        return fetchPlan == null ? null : fetchPlan.graphName(entityClass);
+    }
+}
@@ -0,0 +1,145 @@
+package com.library.repository.impl;
+
+import com.library.repository.Keyset;
+import com.library.repository.PageRequest;
+import com.library.repository.Slice;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dựng câu HQL keyset (seek) pagination cho một entity.
+ *
+ * Trang tiếp theo được chọn bằng điều kiện so sánh với khóa của dòng cuối trang trước
+ * (ORDER BY khóa sắp xếp, ID) và LIMIT size + 1 để biết còn trang sau hay không,
+ * nên database đi thẳng tới vị trí trên index thay vì quét và bỏ qua OFFSET dòng.
+ */
+final class KeysetQuery<T> {
+
+    private final Class<T> entityClass;
+    private final String alias;
+    private final String idProperty;
+    private final Function<T, Long> idExtractor;
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private String sortExpression;
+    private Function<T, ?> sortExtractor;
+    private boolean descending;
+
+    private KeysetQuery(Class<T> entityClass, String alias, String idProperty, Function<T, Long> idExtractor) {
+        this.entityClass = entityClass;
+        this.alias = alias;
+        this.idProperty = idProperty;
+        this.idExtractor = idExtractor;
+    }
+
+    static <T> KeysetQuery<T> from(Class<T> entityClass, String alias, String idProperty, Function<T, Long> idExtractor) {
+        return new KeysetQuery<>(entityClass, alias, idProperty, idExtractor);
+    }
+
+    /**
+     * Thêm điều kiện lọc (nối bằng AND)
+     */
+    KeysetQuery<T> where(String condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    KeysetQuery<T> param(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Sắp xếp theo một thuộc tính không null thay vì khóa chính; ID được dùng để phân định các dòng bằng nhau
+     */
+    KeysetQuery<T> orderBy(String property, Function<T, ?> extractor, boolean descending) {
+        this.sortExpression = alias + "." + property;
+        this.sortExtractor = extractor;
+        this.descending = descending;
+        return this;
+    }
+
+    /**
+     * Sắp xếp theo một thuộc tính số có thể null, coi NULL là nullValue (COALESCE) cả trong ORDER BY,
+     * điều kiện seek và khóa của trang sau; nếu không, dòng NULL bị điều kiện so sánh bỏ qua
+     */
+    <V extends Number> KeysetQuery<T> orderBy(String property, Function<T, V> extractor, V nullValue, boolean descending) {
+        this.sortExpression = "COALESCE(" + alias + "." + property + ", " + nullValue + ")";
+        this.sortExtractor = row -> {
+            V value = extractor.apply(row);
+            return value != null ? value : nullValue;
+        };
+        this.descending = descending;
+        return this;
+    }
+
+    Slice<T> fetch(Session session, PageRequest pageRequest) {
+        String from = "FROM " + entityClass.getSimpleName() + " " + alias;
+        String id = alias + "." + idProperty;
+        String direction = descending ? "DESC" : "ASC";
+
+        List<String> pageConditions = new ArrayList<>(conditions);
+        Keyset after = pageRequest.getAfter();
+        if (after != null) {
+            String comparator = descending ? "<" : ">";
+            if (sortExpression == null) {
+                pageConditions.add(id + " " + comparator + " :keysetId");
+            } else {
+                pageConditions.add("(" + sortExpression + " " + comparator + " :keysetSort OR ("
+                        + sortExpression + " = :keysetSort AND " + id + " " + comparator + " :keysetId))");
+            }
+        }
+        String orderBy = sortExpression == null
+                ? " ORDER BY " + id + " " + direction
+                : " ORDER BY " + sortExpression + " " + direction + ", " + id + " " + direction;
+
+        Query<T> query = session.createQuery(from + whereClause(pageConditions) + orderBy, entityClass);
+        bind(query, parameters);
+        if (after != null) {
+            query.setParameter("keysetId", after.getId());
+            if (sortExpression != null) {
+                query.setParameter("keysetSort", after.getSortValue());
+            }
+        }
+        query.setMaxResults(pageRequest.getSize() + 1);
+        List<T> rows = new ArrayList<>(query.list());
+
+        Keyset nextKeyset = null;
+        if (rows.size() > pageRequest.getSize()) {
+            rows.remove(rows.size() - 1);
+            T last = rows.get(rows.size() - 1);
+            nextKeyset = sortExpression == null
+                    ? Keyset.ofId(idExtractor.apply(last))
+                    : Keyset.of(sortExtractor.apply(last), idExtractor.apply(last));
+        }
+
+        Long totalCount = null;
+        if (pageRequest.isCountTotal()) {
+            Query<Long> countQuery = session.createQuery("SELECT COUNT(" + alias + ") " + from + whereClause(conditions), Long.class);
+            bind(countQuery, parameters);
+            totalCount = countQuery.uniqueResult();
+        }
+        return new Slice<>(rows, pageRequest, nextKeyset, totalCount);
+    }
+
+    private static String whereClause(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static void bind(Query<?> query, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            if (parameter.getValue() instanceof Collection) {
+                query.setParameterList(parameter.getKey(), (Collection<?>) parameter.getValue());
+            } else {
+                query.setParameter(parameter.getKey(), parameter.getValue());
+            }
+        }
+    }
+}
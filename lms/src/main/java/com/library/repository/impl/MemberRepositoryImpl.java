@@ -1,17 +1,35 @@
 package com.library.repository.impl;
 
+import com.library.dto.MemberSummary;
+import com.library.entity.Book;
+import com.library.entity.Borrowing.BorrowingStatus;
 import com.library.entity.Member;
 import com.library.entity.Member.MemberStatus;
+import com.library.repository.CheckoutContext;
 import com.library.repository.MemberRepository;
-import com.library.util.HibernateUtil;
+import com.library.repository.PageRequest;
+import com.library.repository.RankingWindow;
+import com.library.repository.Slice;
+import com.library.search.SearchIndex;
+import com.library.stats.Leaderboard;
+import com.library.stats.StatisticsStore;
+import com.library.util.TextNormalizer;
+import com.library.util.UnitOfWork;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Implementation của MemberRepository
@@ -21,54 +39,85 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(MemberRepositoryImpl.class);
     
+    private static final String SELECT_SUMMARY =
+        "SELECT new com.library.dto.MemberSummary(m.memberId, m.name, m.email, m.phone, m.status)";
+    
+    // Điều kiện tìm kiếm khi chưa có chỉ mục toàn văn: tên so khớp không dấu trên cột đã chuẩn hóa
+    private static final String SEARCH_CONDITION =
+        "(m.nameNormalized LIKE :folded OR m.email LIKE :keyword OR m.phone LIKE :keyword)";
+    
     @Override
     public Member save(Member member) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.save(member);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã lưu thành viên: {}", member.getName());
             return member;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi lưu thành viên: {}", e.getMessage());
             throw new RuntimeException("Không thể lưu thành viên", e);
         }
     }
     
+    @Override
+    public List<Member> saveAll(List<Member> members) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Member member : members) {
+                session.save(member);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã lưu {} thành viên", members.size());
+            return members;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lưu danh sách thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể lưu danh sách thành viên", e);
+        }
+    }
+    
     @Override
     public Member update(Member member) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.update(member);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã cập nhật thành viên: {}", member.getName());
             return member;
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi cập nhật thành viên: {}", e.getMessage());
             throw new RuntimeException("Không thể cập nhật thành viên", e);
         }
     }
     
+    @Override
+    public List<Member> updateAll(List<Member> members) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int processed = 0;
+            for (Member member : members) {
+                session.update(member);
+                unitOfWork.flushIfBatchFull(++processed);
+            }
+            unitOfWork.commit();
+            logger.info("Đã cập nhật {} thành viên", members.size());
+            return members;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật danh sách thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể cập nhật danh sách thành viên", e);
+        }
+    }
+    
     @Override
     public void delete(Member member) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             session.delete(member);
-            transaction.commit();
+            unitOfWork.commit();
             logger.info("Đã xóa thành viên: {}", member.getName());
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa thành viên: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa thành viên", e);
         }
@@ -76,19 +125,15 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public void deleteById(Long id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
             Member member = session.get(Member.class, id);
             if (member != null) {
                 session.delete(member);
                 logger.info("Đã xóa thành viên có ID: {}", id);
             }
-            transaction.commit();
+            unitOfWork.commit();
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             logger.error("Lỗi khi xóa thành viên theo ID: {}", e.getMessage());
             throw new RuntimeException("Không thể xóa thành viên", e);
         }
@@ -96,7 +141,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public Optional<Member> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Member member = session.get(Member.class, id);
             return Optional.ofNullable(member);
         } catch (Exception e) {
@@ -105,9 +151,21 @@ public class MemberRepositoryImpl implements MemberRepository {
         }
     }
     
+    @Override
+    public List<Member> findAllById(Collection<Long> ids) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return MultiGet.findAllById(session, Member.class, "memberId", ids, Member::getMemberId);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm thành viên theo danh sách ID: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm thành viên theo danh sách ID", e);
+        }
+    }
+    
     @Override
     public List<Member> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery("FROM Member", Member.class);
             return query.list();
         } catch (Exception e) {
@@ -118,7 +176,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public long count() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(m) FROM Member m", Long.class);
             return query.uniqueResult();
         } catch (Exception e) {
@@ -129,7 +188,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public boolean existsById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery("SELECT COUNT(m) FROM Member m WHERE m.memberId = :id", Long.class);
             query.setParameter("id", id);
             return query.uniqueResult() > 0;
@@ -141,9 +201,10 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> findByName(String name) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Member> query = session.createQuery("FROM Member m WHERE m.name LIKE :name", Member.class);
-            query.setParameter("name", "%" + name + "%");
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            Query<Member> query = session.createQuery("FROM Member m WHERE m.nameNormalized LIKE :name", Member.class);
+            query.setParameter("name", TextNormalizer.likeContains(name));
             return query.list();
         } catch (Exception e) {
             logger.error("Lỗi khi tìm thành viên theo tên: {}", e.getMessage());
@@ -153,10 +214,12 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public Member findByEmail(String email) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Member> query = session.createQuery("FROM Member m WHERE m.email = :email", Member.class);
-            query.setParameter("email", email);
-            return query.uniqueResult();
+        if (email == null) {
+            return null;
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return session.bySimpleNaturalId(Member.class).load(email);
         } catch (Exception e) {
             logger.error("Lỗi khi tìm thành viên theo email: {}", e.getMessage());
             return null;
@@ -165,7 +228,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public Member findByPhone(String phone) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery("FROM Member m WHERE m.phone = :phone", Member.class);
             query.setParameter("phone", phone);
             return query.uniqueResult();
@@ -177,7 +241,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> findByStatus(MemberStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery("FROM Member m WHERE m.status = :status", Member.class);
             query.setParameter("status", status);
             return query.list();
@@ -189,7 +254,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> findMembersWithActiveBorrowings() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery("FROM Member m WHERE m.activeBorrowings > 0", Member.class);
             return query.list();
         } catch (Exception e) {
@@ -200,7 +266,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> findEligibleMembers() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery(
                 "FROM Member m WHERE m.status = :status AND m.activeBorrowings < 5", 
                 Member.class
@@ -215,7 +282,17 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> findMostActiveMembers(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        Leaderboard leaderboard = Leaderboard.getInstance();
+        if (leaderboard.isReady()) {
+            // Bảng xếp hạng trong bộ nhớ: lấy ID theo số lượt mượn rồi nạp qua multi-get
+            List<Long> ids = new ArrayList<>();
+            for (Leaderboard.Entry entry : leaderboard.topMembers(limit, RankingWindow.ALL_TIME)) {
+                ids.add(entry.getId());
+            }
+            return findAllById(ids);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Member> query = session.createQuery(
                 "FROM Member m ORDER BY m.totalBorrowed DESC", 
                 Member.class
@@ -230,11 +307,21 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public List<Member> searchMembers(String keyword) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Member> query = session.createQuery(
-                "FROM Member m WHERE m.name LIKE :keyword OR m.email LIKE :keyword OR m.phone LIKE :keyword", 
-                Member.class
-            );
+        SearchIndex searchIndex = SearchIndex.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (searchIndex.isReady()) {
+                // Chỉ mục toàn văn: lấy ID theo thứ hạng rồi nạp theo khóa chính
+                List<Long> ids = searchIndex.searchMemberIds(keyword, SearchIndex.MAX_RESULTS);
+                if (ids.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                Query<Member> query = session.createQuery("FROM Member m WHERE m.memberId IN (:ids)", Member.class);
+                query.setParameterList("ids", ids);
+                return ResultOrdering.byIds(query.list(), ids, Member::getMemberId);
+            }
+            Query<Member> query = session.createQuery("FROM Member m WHERE " + SEARCH_CONDITION, Member.class);
+            query.setParameter("folded", TextNormalizer.likeContains(keyword));
             query.setParameter("keyword", "%" + keyword + "%");
             return query.list();
         } catch (Exception e) {
@@ -243,9 +330,41 @@ public class MemberRepositoryImpl implements MemberRepository {
         }
     }
     
+    @Override
+    public List<MemberSummary> searchMemberSummaries(String keyword) {
+        SearchIndex searchIndex = SearchIndex.getInstance();
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            if (searchIndex.isReady()) {
+                // Cùng đường với searchMembers: ID theo thứ hạng từ chỉ mục toàn văn
+                List<Long> ids = searchIndex.searchMemberIds(keyword, SearchIndex.MAX_RESULTS);
+                if (ids.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                Query<MemberSummary> query = session.createQuery(
+                    SELECT_SUMMARY + " FROM Member m WHERE m.memberId IN (:ids)", MemberSummary.class);
+                query.setParameterList("ids", ids);
+                return ResultOrdering.byIds(query.list(), ids, MemberSummary::getMemberId);
+            }
+            Query<MemberSummary> query = session.createQuery(
+                SELECT_SUMMARY + " FROM Member m WHERE " + SEARCH_CONDITION, MemberSummary.class);
+            query.setParameter("folded", TextNormalizer.likeContains(keyword));
+            query.setParameter("keyword", "%" + keyword + "%");
+            return query.list();
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm tóm tắt thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm kiếm tóm tắt thành viên", e);
+        }
+    }
+    
     @Override
     public long countByStatus(MemberStatus status) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        StatisticsStore statistics = StatisticsStore.getInstance();
+        if (statistics.isReady()) {
+            return statistics.countMembersByStatus(status);
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(m) FROM Member m WHERE m.status = :status", 
                 Long.class
@@ -260,7 +379,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public long countMembersWithActiveBorrowings() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(m) FROM Member m WHERE m.activeBorrowings > 0", 
                 Long.class
@@ -273,14 +393,111 @@ public class MemberRepositoryImpl implements MemberRepository {
     }
     
     @Override
-    public boolean existsByEmail(String email) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+    public int countActiveBorrowings(Long memberId) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
-                "SELECT COUNT(m) FROM Member m WHERE m.email = :email", 
+                "SELECT COUNT(b) FROM Borrowing b WHERE b.member.memberId = :memberId AND b.status IN (:borrowed, :overdue)", 
                 Long.class
             );
-            query.setParameter("email", email);
-            return query.uniqueResult() > 0;
+            query.setParameter("memberId", memberId);
+            query.setParameter("borrowed", BorrowingStatus.BORROWED);
+            query.setParameter("overdue", BorrowingStatus.OVERDUE);
+            return query.uniqueResult().intValue();
+        } catch (Exception e) {
+            logger.error("Lỗi khi đếm phiếu mượn chưa trả của thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể đếm phiếu mượn chưa trả của thành viên", e);
+        }
+    }
+    
+    @Override
+    public CheckoutContext findForCheckout(Long memberId, List<Long> bookIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            // Chỉ khóa dòng thành viên: khóa cả dòng sách (FOR UPDATE trên câu JOIN) sẽ làm các lần mượn
+            // chung một cuốn chờ nhau trước cả khi UPDATE giữ chỗ (reserveBooks) quyết định ai được mượn
+            Member member = session.get(Member.class, memberId, LockMode.PESSIMISTIC_WRITE);
+            if (member == null) {
+                unitOfWork.commit();
+                return null;
+            }
+            List<Book> books = new ArrayList<>();
+            if (!distinctIds.isEmpty()) {
+                // Trạng thái sách được đổi bằng UPDATE giữ chỗ (reserveBooks), không qua dirty checking
+                Query<Book> query = session.createQuery("FROM Book b WHERE b.bookId IN (:bookIds)", Book.class);
+                query.setParameterList("bookIds", distinctIds);
+                query.setReadOnly(true);
+                books = query.list();
+            }
+            unitOfWork.commit();
+            return new CheckoutContext(member, ResultOrdering.byIds(books, distinctIds, Book::getBookId));
+        } catch (Exception e) {
+            logger.error("Lỗi khi nạp dữ liệu mượn sách của thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể nạp dữ liệu mượn sách của thành viên", e);
+        }
+    }
+    
+    @Override
+    public int releaseBorrowings(Map<Long, Integer> returnedByMember) {
+        if (returnedByMember == null || returnedByMember.isEmpty()) {
+            return 0;
+        }
+        // Gom theo số phiếu trả: mỗi mức một câu UPDATE thay vì một câu cho mỗi thành viên
+        Map<Integer, List<Long>> memberIdsByCount = new HashMap<>();
+        returnedByMember.forEach((memberId, count) ->
+                memberIdsByCount.computeIfAbsent(count, key -> new ArrayList<>()).add(memberId));
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            CacheAwareUpdate.lockUntilCompletion(unitOfWork, Member.class, returnedByMember.keySet());
+            int updated = 0;
+            for (Map.Entry<Integer, List<Long>> entry : memberIdsByCount.entrySet()) {
+                // SQL thuần: HQL UPDATE sẽ xóa cả region cache của Member ở mỗi lần trả sách
+                updated += CacheAwareUpdate.create(session,
+                        "UPDATE members SET active_borrowings = CASE WHEN active_borrowings > :count " +
+                        "THEN active_borrowings - :count ELSE 0 END WHERE member_id IN (:ids)")
+                        .setParameter("count", entry.getKey())
+                        .setParameterList("ids", entry.getValue())
+                        .executeUpdate();
+            }
+            unitOfWork.commit();
+            return updated;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật số sách đang mượn: {}", e.getMessage());
+            throw new RuntimeException("Không thể cập nhật số sách đang mượn", e);
+        }
+    }
+    
+    @Override
+    public int reconcileBorrowingCounters() {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            int updated = session.createQuery(
+                    "UPDATE Member m SET " +
+                    "m.activeBorrowings = (SELECT COUNT(b) FROM Borrowing b WHERE b.member.memberId = m.memberId " +
+                    "AND b.status IN (:borrowed, :overdue)), " +
+                    "m.totalBorrowed = (SELECT COUNT(b) FROM Borrowing b WHERE b.member.memberId = m.memberId)")
+                    .setParameter("borrowed", BorrowingStatus.BORROWED)
+                    .setParameter("overdue", BorrowingStatus.OVERDUE)
+                    .executeUpdate();
+            unitOfWork.commit();
+            logger.info("Đã đối soát bộ đếm mượn sách của {} thành viên", updated);
+            return updated;
+        } catch (Exception e) {
+            logger.error("Lỗi khi đối soát bộ đếm mượn sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể đối soát bộ đếm mượn sách", e);
+        }
+    }
+    
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            // Chỉ phân giải email -> ID (natural-id cache hoặc SELECT id), trả về proxy chưa khởi tạo
+            return session.bySimpleNaturalId(Member.class).getReference(email) != null;
         } catch (Exception e) {
             logger.error("Lỗi khi kiểm tra email tồn tại: {}", e.getMessage());
             return false;
@@ -289,7 +506,8 @@ public class MemberRepositoryImpl implements MemberRepository {
     
     @Override
     public boolean existsByPhone(String phone) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
             Query<Long> query = session.createQuery(
                 "SELECT COUNT(m) FROM Member m WHERE m.phone = :phone", 
                 Long.class
@@ -301,4 +519,95 @@ public class MemberRepositoryImpl implements MemberRepository {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public Slice<Member> findAll(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy trang thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể lấy trang thành viên", e);
+        }
+    }
+    
+    @Override
+    public Slice<Member> findByName(String name, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .where("m.nameNormalized LIKE :name")
+                .param("name", TextNormalizer.likeContains(name))
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang thành viên theo tên: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm thành viên theo tên", e);
+        }
+    }
+    
+    @Override
+    public Slice<Member> findByStatus(MemberStatus status, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .where("m.status = :status")
+                .param("status", status)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang thành viên theo trạng thái: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm thành viên theo trạng thái", e);
+        }
+    }
+    
+    @Override
+    public Slice<Member> findMembersWithActiveBorrowings(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .where("m.activeBorrowings > 0")
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang thành viên đang mượn sách: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm thành viên đang mượn sách", e);
+        }
+    }
+    
+    @Override
+    public Slice<Member> findMostActiveMembers(PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .orderBy("totalBorrowed", Member::getTotalBorrowed, 0, true)
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm trang thành viên tích cực: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm thành viên tích cực", e);
+        }
+    }
+    
+    @Override
+    public Slice<Member> searchMembers(String keyword, PageRequest pageRequest) {
+        try (UnitOfWork unitOfWork = UnitOfWork.read()) {
+            Session session = unitOfWork.getSession();
+            return KeysetQuery.from(Member.class, "m", "memberId", Member::getMemberId)
+                .where(SEARCH_CONDITION)
+                .param("folded", TextNormalizer.likeContains(keyword))
+                .param("keyword", "%" + keyword + "%")
+                .fetch(session, pageRequest);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm trang thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể tìm kiếm thành viên", e);
+        }
+    }
+    
+    @Override
+    public Stream<Member> streamAll() {
+        try {
+            return StreamingQuery.stream(Member.class, "FROM Member m ORDER BY m.memberId", Collections.emptyMap());
+        } catch (Exception e) {
+            logger.error("Lỗi khi duyệt thành viên: {}", e.getMessage());
+            throw new RuntimeException("Không thể duyệt thành viên", e);
+        }
+    }
+}
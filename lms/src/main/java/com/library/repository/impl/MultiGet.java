@@ -0,0 +1,76 @@
+package com.library.repository.impl;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Tải nhiều entity theo ID: lấy từ second-level cache trước, phần còn thiếu được tải bằng
+ * các câu "WHERE id IN (...)" theo chunk.
+ *
+ * Số tham số của mỗi chunk được làm tròn lên lũy thừa của 2 (lặp lại ID cuối) nên chỉ có vài
+ * dạng câu SQL khác nhau, giữ cho query plan cache của Hibernate và prepared statement cache
+ * của driver nhỏ. Kết quả giữ thứ tự ID yêu cầu; ID trùng hoặc không tồn tại bị bỏ qua.
+ */
+final class MultiGet {
+
+    static final int MAX_CHUNK_SIZE = 512;
+    static final int MIN_CHUNK_SIZE = 16;
+
+    private MultiGet() {
+    }
+
+    static <T> List<T> findAllById(Session session, Class<T> entityClass, String idProperty,
+                                   Collection<Long> ids, Function<T, Long> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+
+        List<T> rows = new ArrayList<>(distinctIds.size());
+        List<Long> misses = new ArrayList<>();
+        Cache cache = session.getSessionFactory().getCache();
+        for (Long id : distinctIds) {
+            // session.get() lấy từ persistence context hoặc second-level cache, không phát sinh SQL
+            if (cache.containsEntity(entityClass, id)) {
+                T entity = session.get(entityClass, id);
+                if (entity != null) {
+                    rows.add(entity);
+                    continue;
+                }
+            }
+            misses.add(id);
+        }
+
+        String hql = "FROM " + entityClass.getSimpleName() + " e WHERE e." + idProperty + " IN (:ids)";
+        for (int from = 0; from < misses.size(); from += MAX_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + MAX_CHUNK_SIZE, misses.size()));
+            Query<T> query = session.createQuery(hql, entityClass);
+            query.setParameterList("ids", pad(chunk));
+            rows.addAll(query.list());
+        }
+        return ResultOrdering.byIds(rows, new ArrayList<>(distinctIds), idOf);
+    }
+
+    /**
+     * Làm tròn số tham số lên lũy thừa của 2 (tối thiểu MIN_CHUNK_SIZE) bằng cách lặp lại ID cuối
+     */
+    static List<Long> pad(List<Long> chunk) {
+        int size = Math.max(MIN_CHUNK_SIZE, Integer.highestOneBit(Math.max(1, chunk.size() - 1)) << 1);
+        List<Long> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        Long last = chunk.get(chunk.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+}
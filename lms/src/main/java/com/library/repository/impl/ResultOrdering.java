@@ -0,0 +1,32 @@
+package com.library.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sắp xếp lại kết quả truy vấn "WHERE id IN (...)" theo thứ tự ID yêu cầu
+ * (IN không đảm bảo thứ tự trả về)
+ */
+final class ResultOrdering {
+
+    private ResultOrdering() {
+    }
+
+    static <T> List<T> byIds(List<T> rows, List<Long> ids, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(rows.size());
+        for (Long id : ids) {
+            T row = byId.remove(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.repository.impl;
+
+import com.library.repository.FetchPlan;
+import com.library.util.HibernateUtil;
+import com.library.util.ProjectionScroll;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Duyệt kết quả lớn với bộ nhớ không đổi: ScrollableResults FORWARD_ONLY trên một Session riêng,
+ * lấy từng đợt fetch size dòng và clear persistence context sau mỗi đợt.
+ *
+ * Stream trả về giữ Session và cursor cho đến khi được đóng, vì vậy luôn dùng trong try-with-resources:
+ * <pre>
+ * try (Stream&lt;Book&gt; books = bookRepository.streamAll()) {
+ *     books.forEach(...);
+ * }
+ * </pre>
+ * Entity nhận được là read-only và bị detach sau mỗi đợt, không dùng để cập nhật.
+ */
+final class StreamingQuery {
+
+    private StreamingQuery() {
+    }
+
+    static <T> Stream<T> stream(Class<T> entityClass, String hql, Map<String, Object> parameters) {
+        return stream(HibernateUtil.getSessionFactory(), entityClass, hql, parameters, FetchPlan.DEFAULT);
+    }
+
+    static <T> Stream<T> stream(Class<T> entityClass, String hql, Map<String, Object> parameters, FetchPlan fetchPlan) {
+        return stream(HibernateUtil.getSessionFactory(), entityClass, hql, parameters, fetchPlan);
+    }
+
+    static <T> Stream<T> stream(SessionFactory sessionFactory, Class<T> entityClass, String hql,
+                                Map<String, Object> parameters, FetchPlan fetchPlan) {
+        int fetchSize = ProjectionScroll.fetchSize(sessionFactory);
+        Session session = sessionFactory.openSession();
+        ScrollableResults results;
+        try {
+            session.setDefaultReadOnly(true);
+            // Không đẩy hàng triệu entity vào second-level cache khi duyệt toàn bảng
+            session.setCacheMode(CacheMode.IGNORE);
+            Query<T> query = session.createQuery(hql, entityClass);
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                if (parameter.getValue() instanceof Collection) {
+                    query.setParameterList(parameter.getKey(), (Collection<?>) parameter.getValue());
+                } else {
+                    query.setParameter(parameter.getKey(), parameter.getValue());
+                }
+            }
+            FetchPlanSupport.apply(query, session, entityClass, fetchPlan);
+            query.setReadOnly(true);
+            query.setFetchSize(fetchSize);
+            results = query.scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+        return StreamSupport.stream(new ScrollSpliterator<>(session, results, entityClass, fetchSize), false)
+                .onClose(() -> {
+                    try {
+                        results.close();
+                    } finally {
+                        session.close();
+                    }
+                });
+    }
+
+    private static final class ScrollSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Session session;
+        private final ScrollableResults results;
+        private final Class<T> entityClass;
+        private final int clearInterval;
+        private long rows;
+
+        private ScrollSpliterator(Session session, ScrollableResults results, Class<T> entityClass, int clearInterval) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+            this.entityClass = entityClass;
+            this.clearInterval = clearInterval;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!results.next()) {
+                return false;
+            }
+            action.accept(entityClass.cast(results.get(0)));
+            if (++rows % clearInterval == 0) {
+                // Giải phóng các entity đã duyệt khỏi persistence context
+                session.clear();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.library.search;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.util.ProjectionScroll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gợi ý tự động hoàn thành cho tên sách và tên tác giả, xếp theo lượt mượn
+ * (điểm của tác giả là tổng lượt mượn các sách của họ).
+ *
+ * Hai chỉ mục tiền tố được dựng song song khi khởi động bằng cách duyệt theo luồng các cột cần thiết,
+ * sau đó được cập nhật tăng dần qua EntityEventBus. Trước lần rebuild() đầu tiên isReady() trả về false.
+ */
+public final class AutocompleteService extends RebuildableListener<AutocompleteService.Snapshot> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    /** Số gợi ý mặc định */
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final AutocompleteService INSTANCE = new AutocompleteService();
+
+    private volatile Snapshot snapshot = new Snapshot(new PrefixIndex(), new PrefixIndex(), new ConcurrentHashMap<>());
+    private volatile boolean ready;
+
+    private AutocompleteService() {
+        super("Chỉ mục gợi ý");
+        EntityEventBus.register(this);
+    }
+
+    public static AutocompleteService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã dựng chỉ mục ít nhất một lần
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gợi ý tên sách bắt đầu bằng chuỗi đang gõ
+     * @param prefix Chuỗi đang gõ (không phân biệt hoa thường và dấu)
+     * @param limit Số gợi ý tối đa
+     * @return Gợi ý (ID sách, tên sách, lượt mượn) theo lượt mượn giảm dần
+     */
+    public List<Suggestion> suggestTitles(String prefix, int limit) {
+        return snapshot.titles.complete(prefix, limit);
+    }
+
+    /**
+     * Gợi ý tên tác giả bắt đầu bằng chuỗi đang gõ
+     * @param prefix Chuỗi đang gõ (không phân biệt hoa thường và dấu)
+     * @param limit Số gợi ý tối đa
+     * @return Gợi ý (ID tác giả, tên, tổng lượt mượn) theo tổng lượt mượn giảm dần
+     */
+    public List<Suggestion> suggestAuthors(String prefix, int limit) {
+        return snapshot.authors.complete(prefix, limit);
+    }
+
+    @Override
+    protected Snapshot load() {
+        // Sách và tác giả được dựng song song
+        try {
+            Map<Long, long[]> bookAuthors = new ConcurrentHashMap<>();
+            CompletableFuture<PrefixIndex> titles = CompletableFuture.supplyAsync(AutocompleteService::loadTitles);
+            CompletableFuture<PrefixIndex> authors = CompletableFuture.supplyAsync(() -> loadAuthors(bookAuthors));
+            return new Snapshot(titles.join(), authors.join(), bookAuthors);
+        } catch (RuntimeException e) {
+            logger.error("Lỗi khi dựng chỉ mục gợi ý: {}", e.getMessage());
+            throw new RuntimeException("Không thể dựng chỉ mục gợi ý", e);
+        }
+    }
+
+    @Override
+    protected Snapshot current() {
+        return snapshot;
+    }
+
+    @Override
+    protected void install(Snapshot rebuilt) {
+        snapshot = rebuilt;
+        ready = true;
+    }
+
+    @Override
+    protected void logRebuilt(Snapshot rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng chỉ mục gợi ý: {} tên sách, {} tác giả trong {} ms",
+                rebuilt.titles.size(), rebuilt.authors.size(), elapsedMillis);
+    }
+
+    @Override
+    protected void apply(EntityChange change, Snapshot target) {
+        if (change.isFor(Book.class)) {
+            applyBookChange(change, target);
+        } else if (change.isFor(Author.class)) {
+            long id = ((Number) change.getId()).longValue();
+            if (change.getType() == EntityChange.Type.DELETE) {
+                target.authors.remove(id);
+            } else if (change.getEntity() instanceof Author) {
+                target.authors.put(id, ((Author) change.getEntity()).getName(), Math.max(0L, target.authors.scoreOf(id)));
+            }
+        }
+    }
+
+    private static void applyBookChange(EntityChange change, Snapshot target) {
+        long id = ((Number) change.getId()).longValue();
+        long oldScore = Math.max(0L, target.titles.scoreOf(id));
+        long newScore;
+        if (change.getType() == EntityChange.Type.DELETE) {
+            target.titles.remove(id);
+            newScore = 0L;
+        } else if (change.getEntity() instanceof Book) {
+            Book book = (Book) change.getEntity();
+            newScore = book.getBorrowCount() == null ? 0L : book.getBorrowCount();
+            target.titles.put(id, book.getTitle(), newScore);
+        } else if (change.hasProperty("borrowCount")) {
+            newScore = ((Number) change.getNewValue("borrowCount")).longValue();
+            target.titles.updateScore(id, newScore);
+        } else {
+            return;
+        }
+        // Điểm cũ lấy từ chỉ mục (không dựa vào old state, vốn trống khi entity được update ở trạng thái detached)
+        long delta = newScore - oldScore;
+        long[] authorIds = change.getType() == EntityChange.Type.DELETE
+                ? target.bookAuthors.remove(id)
+                : target.bookAuthors.get(id);
+        if (delta == 0 || authorIds == null) {
+            return;
+        }
+        for (long authorId : authorIds) {
+            long score = target.authors.scoreOf(authorId);
+            if (score >= 0) {
+                target.authors.updateScore(authorId, Math.max(0L, score + delta));
+            }
+        }
+    }
+
+    private static PrefixIndex loadTitles() {
+        List<Suggestion> suggestions = new ArrayList<>();
+        ProjectionScroll.forEach("SELECT b.bookId, b.title, b.borrowCount FROM Book b", row -> suggestions.add(
+                new Suggestion((Long) row[0], (String) row[1], row[2] == null ? 0L : ((Number) row[2]).longValue())));
+        return PrefixIndex.build(suggestions);
+    }
+
+    private static PrefixIndex loadAuthors(Map<Long, long[]> bookAuthors) {
+        Map<Long, Long> scores = new HashMap<>();
+        Map<Long, List<Long>> authorsByBook = new HashMap<>();
+        ProjectionScroll.forEach("SELECT a.authorId, b.bookId, b.borrowCount FROM Author a JOIN a.books b", row -> {
+            Long authorId = (Long) row[0];
+            long borrowCount = row[2] == null ? 0L : ((Number) row[2]).longValue();
+            scores.merge(authorId, borrowCount, Long::sum);
+            authorsByBook.computeIfAbsent((Long) row[1], bookId -> new ArrayList<>(2)).add(authorId);
+        });
+        authorsByBook.forEach((bookId, authorIds) ->
+                bookAuthors.put(bookId, authorIds.stream().mapToLong(Long::longValue).toArray()));
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        ProjectionScroll.forEach("SELECT a.authorId, a.name FROM Author a", row -> suggestions.add(
+                new Suggestion((Long) row[0], (String) row[1], scores.getOrDefault((Long) row[0], 0L))));
+        return PrefixIndex.build(suggestions);
+    }
+
+    /**
+     * Bộ chỉ mục được thay thế nguyên khối khi rebuild
+     */
+    static final class Snapshot {
+        private final PrefixIndex titles;
+        private final PrefixIndex authors;
+        // ID sách -> ID các tác giả, để cộng dồn thay đổi lượt mượn vào điểm tác giả
+        private final Map<Long, long[]> bookAuthors;
+
+        private Snapshot(PrefixIndex titles, PrefixIndex authors, Map<Long, long[]> bookAuthors) {
+            this.titles = titles;
+            this.authors = authors;
+            this.bookAuthors = bookAuthors;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.util.ProjectionScroll;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap theo ID sách: một bitmap sách có sẵn và một bitmap cho mỗi thể loại, để trả lời
+ * "có sẵn", "có sẵn AND thể loại X" (đếm hoặc danh sách ID) mà không quét bảng books.
+ *
+ * Dùng RoaringBitmap: ID được chia thành các khối 65536 giá trị, mỗi khối lưu dạng mảng (thưa), bitmap
+ * (dày) hoặc run, nên dải ID dày đặc tốn khoảng 1 bit cho mỗi ID còn dải thưa hoặc bắt đầu từ ID lớn chỉ
+ * tốn theo số sách thay vì theo ID lớn nhất (xem BookBitmapIndexTest). Phép AND/đếm chạy theo từng khối.
+ * Được đồng bộ qua EntityEventBus (mượn, trả, thêm, sửa, xóa sách) và dựng lại bằng rebuild() như
+ * SearchIndex. ID vượt quá Integer.MAX_VALUE không được hỗ trợ: khi gặp, chỉ mục tự tắt (isReady() false)
+ * và repository dùng lại truy vấn.
+ */
+public final class BookBitmapIndex extends RebuildableListener<BookBitmapIndex.Bitmaps> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookBitmapIndex.class);
+
+    private static final BookBitmapIndex INSTANCE = create();
+
+    // Được bảo vệ bởi this
+    private Bitmaps bitmaps = new Bitmaps();
+    private volatile boolean ready;
+
+    BookBitmapIndex() {
+        super("Bitmap sách");
+    }
+
+    private static BookBitmapIndex create() {
+        BookBitmapIndex index = new BookBitmapIndex();
+        EntityEventBus.register(index);
+        return index;
+    }
+
+    public static BookBitmapIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã dựng chỉ mục ít nhất một lần (và mọi ID đều biểu diễn được)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Đếm sách có sẵn
+     * @param category Thể loại, null nếu không lọc theo thể loại
+     */
+    public synchronized int countAvailable(String category) {
+        if (category == null) {
+            return bitmaps.available.getCardinality();
+        }
+        RoaringBitmap inCategory = bitmaps.byCategory.get(category);
+        return inCategory == null ? 0 : RoaringBitmap.andCardinality(inCategory, bitmaps.available);
+    }
+
+    /**
+     * ID các sách có sẵn theo thứ tự tăng dần, sau afterId
+     * @param category Thể loại, null nếu không lọc theo thể loại
+     * @param afterId Chỉ lấy ID lớn hơn giá trị này (null: từ đầu)
+     * @param limit Số ID tối đa
+     */
+    public synchronized List<Long> findAvailableIds(String category, Long afterId, int limit) {
+        RoaringBitmap inCategory = category == null ? null : bitmaps.byCategory.get(category);
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1_024));
+        if (category != null && inCategory == null || afterId != null && afterId >= Integer.MAX_VALUE) {
+            return ids;
+        }
+        PeekableIntIterator available = bitmaps.available.getIntIterator();
+        available.advanceIfNeeded(afterId == null ? 0 : (int) Math.max(0L, afterId + 1));
+        while (available.hasNext() && ids.size() < limit) {
+            int id = available.next();
+            if (inCategory == null || inCategory.contains(id)) {
+                ids.add((long) id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Dung lượng ước tính của các bitmap (byte)
+     */
+    synchronized long sizeInBytes() {
+        return bitmaps.sizeInBytes();
+    }
+
+    @Override
+    protected Bitmaps load() {
+        Bitmaps loaded = new Bitmaps();
+        ProjectionScroll.forEach("SELECT b.bookId, b.category, b.available FROM Book b",
+                row -> loaded.load(((Number) row[0]).longValue(), (String) row[1], Boolean.TRUE.equals(row[2])));
+        loaded.runOptimize();
+        return loaded;
+    }
+
+    @Override
+    protected Bitmaps current() {
+        return bitmaps;
+    }
+
+    @Override
+    protected void install(Bitmaps rebuilt) {
+        bitmaps = rebuilt;
+        ready = !rebuilt.overflowed;
+    }
+
+    @Override
+    protected void logRebuilt(Bitmaps rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng bitmap sách: {} sách có sẵn, {} thể loại, {} KB trong {} ms",
+                rebuilt.available.getCardinality(), rebuilt.byCategory.size(), rebuilt.sizeInBytes() / 1024, elapsedMillis);
+    }
+
+    @Override
+    protected boolean accepts(EntityChange change) {
+        return change.isFor(Book.class);
+    }
+
+    @Override
+    protected void apply(EntityChange change, Bitmaps target) {
+        target.apply(change);
+    }
+
+    @Override
+    public synchronized void onChange(EntityChange change) {
+        super.onChange(change);
+        if (bitmaps.overflowed && ready) {
+            logger.warn("ID sách vượt quá phạm vi bitmap, tắt bitmap sách");
+            ready = false;
+        }
+    }
+
+    /**
+     * Bộ bitmap được thay thế nguyên khối khi rebuild
+     */
+    static final class Bitmaps {
+        private final RoaringBitmap available = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+        private boolean overflowed;
+
+        void apply(EntityChange change) {
+            if (!change.isFor(Book.class) || change.getId() == null) {
+                return;
+            }
+            long id = ((Number) change.getId()).longValue();
+            if (change.getType() == EntityChange.Type.DELETE) {
+                remove(id);
+            } else if (change.getEntity() instanceof Book) {
+                Book book = (Book) change.getEntity();
+                put(id, book.getCategory(), Boolean.TRUE.equals(book.getAvailable()));
+            } else if (isInRange(id)) {
+                // UPDATE hàng loạt: chỉ có các cột đã đổi
+                if (change.hasProperty("available")) {
+                    setAvailable((int) id, Boolean.TRUE.equals(change.getNewValue("available")));
+                }
+                if (change.hasProperty("category")) {
+                    setCategory((int) id, (String) change.getNewValue("category"));
+                }
+            }
+        }
+
+        /**
+         * Thêm sách khi dựng lại (ID chưa có trong bitmap nào)
+         */
+        void load(long id, String category, boolean isAvailable) {
+            if (!isInRange(id)) {
+                overflowed = true;
+                return;
+            }
+            setAvailable((int) id, isAvailable);
+            if (category != null) {
+                byCategory.computeIfAbsent(category, key -> new RoaringBitmap()).add((int) id);
+            }
+        }
+
+        /**
+         * Nén các dải ID liên tiếp thành run sau khi nạp
+         */
+        void runOptimize() {
+            available.runOptimize();
+            byCategory.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        long sizeInBytes() {
+            long size = available.getLongSizeInBytes();
+            for (RoaringBitmap inCategory : byCategory.values()) {
+                size += inCategory.getLongSizeInBytes();
+            }
+            return size;
+        }
+
+        void put(long id, String category, boolean isAvailable) {
+            if (!isInRange(id)) {
+                overflowed = true;
+                return;
+            }
+            setAvailable((int) id, isAvailable);
+            setCategory((int) id, category);
+        }
+
+        private void remove(long id) {
+            if (isInRange(id)) {
+                available.remove((int) id);
+                setCategory((int) id, null);
+            }
+        }
+
+        private void setAvailable(int id, boolean isAvailable) {
+            if (isAvailable) {
+                available.add(id);
+            } else {
+                available.remove(id);
+            }
+        }
+
+        private void setCategory(int id, String category) {
+            // Số thể loại nhỏ nên tìm thể loại cũ bằng cách duyệt các bitmap thay vì giữ thêm bảng ID -> thể loại
+            byCategory.entrySet().removeIf(entry -> {
+                if (!entry.getKey().equals(category)) {
+                    entry.getValue().remove(id);
+                }
+                return entry.getValue().isEmpty();
+            });
+            if (category != null) {
+                byCategory.computeIfAbsent(category, key -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        private static boolean isInRange(long id) {
+            return id >= 0 && id <= Integer.MAX_VALUE;
+        }
+    }
+}
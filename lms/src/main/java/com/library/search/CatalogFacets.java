@@ -0,0 +1,442 @@
+package com.library.search;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.util.ProjectionScroll;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facet cho trang duyệt danh mục: số sách theo thể loại (Book.category) và theo quốc tịch tác giả
+ * (Author.nationality), thay cho một câu countByCategory/countByNationality cho mỗi giá trị facet.
+ *
+ * Giá trị facet được mã hóa thành số thứ tự; mỗi giá trị có một bộ đếm int, mỗi quốc tịch có thêm một
+ * BitSet theo ID sách. Không lọc: đọc thẳng bộ đếm. Có lọc: AND BitSet quốc tịch đã chọn rồi duyệt tập kết
+ * quả một lần, lọc thể loại theo mảng thể loại của từng sách và cộng dồn cả hai facet cùng lúc. Thể loại
+ * không có BitSet riêng: bitmap theo thể loại đã có trong BookBitmapIndex. Được đồng bộ qua EntityEventBus và dựng lại bằng rebuild() như SearchIndex.
+ *
+ * Liên kết sách - tác giả chỉ được cập nhật khi sự kiện của Book mang collection authors đã được nạp
+ * (thay đổi chỉ trên bảng book_authors không phát sự kiện entity); rebuild() đồng bộ lại toàn bộ.
+ */
+public final class CatalogFacets extends RebuildableListener<CatalogFacets.Facets> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogFacets.class);
+
+    private static final int[] NO_VALUES = new int[0];
+    // Giới hạn kích thước mảng Java
+    private static final int MAX_BOOK_ID = Integer.MAX_VALUE - 8;
+
+    private static final CatalogFacets INSTANCE = create();
+
+    // Được bảo vệ bởi this
+    private Facets facets = new Facets();
+    private volatile boolean ready;
+
+    CatalogFacets() {
+        super("Facet danh mục");
+    }
+
+    private static CatalogFacets create() {
+        CatalogFacets catalogFacets = new CatalogFacets();
+        EntityEventBus.register(catalogFacets);
+        return catalogFacets;
+    }
+
+    public static CatalogFacets getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã dựng facet ít nhất một lần (và mọi ID sách đều biểu diễn được)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Số sách theo thể loại và theo quốc tịch tác giả, dưới bộ lọc
+     * @param category Thể loại đang chọn, null nếu không lọc
+     * @param nationality Quốc tịch tác giả đang chọn, null nếu không lọc
+     */
+    public synchronized FacetCounts count(String category, String nationality) {
+        Facets current = facets;
+        if (category == null && nationality == null) {
+            return new FacetCounts(current.books.cardinality(),
+                    toMap(current.categories, current.categoryCounts),
+                    toMap(current.nationalities, current.nationalityCounts));
+        }
+
+        int[] categoryCounts = new int[current.categories.size()];
+        int[] nationalityCounts = new int[current.nationalities.size()];
+        int categoryFilter = category == null ? -1 : current.categories.idOf(category);
+        if (category != null && categoryFilter < 0) {
+            return new FacetCounts(0, toMap(current.categories, categoryCounts), toMap(current.nationalities, nationalityCounts));
+        }
+        BitSet filter = (BitSet) current.books.clone();
+        if (nationality != null) {
+            filter.and(current.nationalities.bitsOf(nationality));
+        }
+        int total = 0;
+        for (int id = filter.nextSetBit(0); id >= 0; id = filter.nextSetBit(id + 1)) {
+            int bookCategory = current.bookCategory[id];
+            if (category != null && bookCategory != categoryFilter) {
+                continue;
+            }
+            total++;
+            if (bookCategory >= 0) {
+                categoryCounts[bookCategory]++;
+            }
+            for (int bookNationality : current.bookNationalities[id]) {
+                nationalityCounts[bookNationality]++;
+            }
+        }
+        return new FacetCounts(total, toMap(current.categories, categoryCounts), toMap(current.nationalities, nationalityCounts));
+    }
+
+    /**
+     * Số tác giả có quốc tịch
+     */
+    public synchronized int countAuthors(String nationality) {
+        int value = facets.nationalities.idOf(nationality);
+        return value < 0 || value >= facets.authorCounts.length ? 0 : facets.authorCounts[value];
+    }
+
+    @Override
+    protected Facets load() {
+        Facets loaded = new Facets();
+        ProjectionScroll.forEach("SELECT a.authorId, a.nationality FROM Author a",
+                row -> loaded.putAuthor((Long) row[0], (String) row[1]));
+        ProjectionScroll.forEach("SELECT b.bookId, b.category FROM Book b",
+                row -> loaded.putBook((Long) row[0], (String) row[1], null));
+        Map<Long, List<Long>> authorsByBook = new HashMap<>();
+        ProjectionScroll.forEach("SELECT b.bookId, a.authorId FROM Book b JOIN b.authors a",
+                row -> authorsByBook.computeIfAbsent((Long) row[0], key -> new ArrayList<>()).add((Long) row[1]));
+        authorsByBook.forEach(loaded::setBookAuthors);
+        return loaded;
+    }
+
+    @Override
+    protected Facets current() {
+        return facets;
+    }
+
+    @Override
+    protected void install(Facets rebuilt) {
+        facets = rebuilt;
+        ready = !rebuilt.overflowed;
+    }
+
+    @Override
+    protected void logRebuilt(Facets rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng facet danh mục: {} sách, {} thể loại, {} quốc tịch trong {} ms",
+                rebuilt.books.cardinality(), rebuilt.categories.size(), rebuilt.nationalities.size(), elapsedMillis);
+    }
+
+    @Override
+    protected boolean accepts(EntityChange change) {
+        return change.isFor(Book.class) || change.isFor(Author.class);
+    }
+
+    @Override
+    protected void apply(EntityChange change, Facets target) {
+        target.apply(change);
+    }
+
+    @Override
+    public synchronized void onChange(EntityChange change) {
+        super.onChange(change);
+        if (facets.overflowed && ready) {
+            logger.warn("ID sách vượt quá phạm vi bitmap, tắt facet danh mục");
+            ready = false;
+        }
+    }
+
+    private static Map<String, Integer> toMap(Dictionary dictionary, int[] counts) {
+        List<Integer> values = new ArrayList<>();
+        for (int value = 0; value < Math.min(counts.length, dictionary.size()); value++) {
+            if (counts[value] > 0) {
+                values.add(value);
+            }
+        }
+        values.sort(Comparator.<Integer>comparingInt(value -> counts[value]).reversed());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int value : values) {
+            result.put(dictionary.nameOf(value), counts[value]);
+        }
+        return result;
+    }
+
+    /**
+     * Giá trị facet -> số thứ tự, kèm BitSet các sách mang giá trị đó nếu trackBooks
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<BitSet> bits = new ArrayList<>();
+        private final boolean trackBooks;
+
+        Dictionary(boolean trackBooks) {
+            this.trackBooks = trackBooks;
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        int idOf(String name) {
+            Integer id = name == null ? null : ids.get(name);
+            return id == null ? -1 : id;
+        }
+
+        int intern(String name) {
+            if (name == null) {
+                return -1;
+            }
+            return ids.computeIfAbsent(name, key -> {
+                names.add(key);
+                if (trackBooks) {
+                    bits.add(new BitSet());
+                }
+                return names.size() - 1;
+            });
+        }
+
+        String nameOf(int id) {
+            return names.get(id);
+        }
+
+        BitSet bitsOf(String name) {
+            int id = idOf(name);
+            return id < 0 ? new BitSet() : bits.get(id);
+        }
+
+        BitSet bitsOf(int id) {
+            return bits.get(id);
+        }
+    }
+
+    /**
+     * Trạng thái facet được thay thế nguyên khối khi rebuild
+     */
+    static final class Facets {
+        private final Dictionary categories = new Dictionary(false);
+        private final Dictionary nationalities = new Dictionary(true);
+        private final BitSet books = new BitSet();
+
+        // Theo ID sách: số thứ tự thể loại (-1 nếu không có) và các quốc tịch tác giả (không trùng)
+        private int[] bookCategory = new int[0];
+        private int[][] bookNationalities = new int[0][];
+
+        private int[] categoryCounts = new int[0];
+        private int[] nationalityCounts = new int[0];
+        private int[] authorCounts = new int[0];
+
+        private final Map<Long, long[]> bookAuthors = new HashMap<>();
+        private final Map<Long, Set<Long>> authorBooks = new HashMap<>();
+        private final Map<Long, Integer> authorNationality = new HashMap<>();
+        private boolean overflowed;
+
+        void apply(EntityChange change) {
+            if (change.getId() == null) {
+                return;
+            }
+            long id = ((Number) change.getId()).longValue();
+            boolean delete = change.getType() == EntityChange.Type.DELETE;
+            if (change.isFor(Book.class)) {
+                if (delete) {
+                    removeBook(id);
+                } else if (change.getEntity() instanceof Book) {
+                    Book book = (Book) change.getEntity();
+                    putBook(id, book.getCategory(), authorIdsOf(book));
+                } else if (change.hasProperty("category") && isInRange(id) && books.get((int) id)) {
+                    putBook(id, (String) change.getNewValue("category"), null);
+                }
+            } else if (change.isFor(Author.class)) {
+                if (delete) {
+                    removeAuthor(id);
+                } else if (change.getEntity() instanceof Author) {
+                    putAuthor(id, ((Author) change.getEntity()).getNationality());
+                } else if (change.hasProperty("nationality")) {
+                    putAuthor(id, (String) change.getNewValue("nationality"));
+                }
+            }
+        }
+
+        /**
+         * Thêm hoặc cập nhật sách
+         * @param authorIds ID các tác giả, null nếu giữ nguyên liên kết đã biết
+         */
+        void putBook(long id, String category, long[] authorIds) {
+            if (!isInRange(id)) {
+                overflowed = true;
+                return;
+            }
+            int book = (int) id;
+            ensureBookCapacity(book);
+            if (!books.get(book)) {
+                books.set(book);
+                bookCategory[book] = -1;
+                bookNationalities[book] = NO_VALUES;
+            }
+            setCategory(book, categories.intern(category));
+            if (authorIds != null) {
+                setBookAuthors(id, authorIds);
+            }
+        }
+
+        void setBookAuthors(Long bookId, List<Long> authorIds) {
+            setBookAuthors(bookId, authorIds.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        private void setBookAuthors(long bookId, long[] authorIds) {
+            long[] previous = bookAuthors.put(bookId, authorIds);
+            if (previous != null) {
+                for (long authorId : previous) {
+                    Set<Long> authored = authorBooks.get(authorId);
+                    if (authored != null) {
+                        authored.remove(bookId);
+                    }
+                }
+            }
+            for (long authorId : authorIds) {
+                authorBooks.computeIfAbsent(authorId, key -> new HashSet<>()).add(bookId);
+            }
+            refreshNationalities(bookId);
+        }
+
+        private void removeBook(long id) {
+            if (!isInRange(id) || !books.get((int) id)) {
+                return;
+            }
+            setBookAuthors(id, new long[0]);
+            bookAuthors.remove(id);
+            setCategory((int) id, -1);
+            books.clear((int) id);
+        }
+
+        void putAuthor(long id, String nationality) {
+            int value = nationalities.intern(nationality);
+            Integer previous = authorNationality.containsKey(id) ? authorNationality.get(id) : null;
+            if (previous != null && previous == value) {
+                return;
+            }
+            if (previous != null && previous >= 0) {
+                authorCounts[previous]--;
+            }
+            authorNationality.put(id, value);
+            if (value >= 0) {
+                authorCounts = grow(authorCounts, value);
+                authorCounts[value]++;
+            }
+            refreshBooksOf(id);
+        }
+
+        private void removeAuthor(long id) {
+            Integer previous = authorNationality.remove(id);
+            if (previous != null && previous >= 0) {
+                authorCounts[previous]--;
+            }
+            refreshBooksOf(id);
+        }
+
+        private void refreshBooksOf(long authorId) {
+            Set<Long> authored = authorBooks.get(authorId);
+            if (authored != null) {
+                for (Long bookId : authored) {
+                    refreshNationalities(bookId);
+                }
+            }
+        }
+
+        private void setCategory(int book, int value) {
+            int previous = bookCategory[book];
+            if (previous == value) {
+                return;
+            }
+            if (previous >= 0) {
+                categoryCounts[previous]--;
+            }
+            bookCategory[book] = value;
+            if (value >= 0) {
+                categoryCounts = grow(categoryCounts, value);
+                categoryCounts[value]++;
+            }
+        }
+
+        /**
+         * Tính lại tập quốc tịch của sách từ tác giả và cập nhật BitSet/bộ đếm theo phần chênh lệch
+         */
+        private void refreshNationalities(long bookId) {
+            if (!isInRange(bookId) || !books.get((int) bookId)) {
+                return;
+            }
+            int book = (int) bookId;
+            long[] authorIds = bookAuthors.getOrDefault(bookId, new long[0]);
+            int[] values = Arrays.stream(authorIds)
+                    .mapToObj(authorNationality::get)
+                    .filter(value -> value != null && value >= 0)
+                    .mapToInt(Integer::intValue)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            int[] previous = bookNationalities[book];
+            for (int value : previous) {
+                if (Arrays.binarySearch(values, value) < 0) {
+                    nationalities.bitsOf(value).clear(book);
+                    nationalityCounts[value]--;
+                }
+            }
+            for (int value : values) {
+                if (Arrays.binarySearch(previous, value) < 0) {
+                    nationalities.bitsOf(value).set(book);
+                    nationalityCounts = grow(nationalityCounts, value);
+                    nationalityCounts[value]++;
+                }
+            }
+            bookNationalities[book] = values.length == 0 ? NO_VALUES : values;
+        }
+
+        private void ensureBookCapacity(int book) {
+            if (book >= bookCategory.length) {
+                int capacity = (int) Math.max(book + 1L, Math.min(MAX_BOOK_ID, bookCategory.length * 2L));
+                bookCategory = Arrays.copyOf(bookCategory, capacity);
+                bookNationalities = Arrays.copyOf(bookNationalities, capacity);
+            }
+        }
+
+        private static int[] grow(int[] counts, int value) {
+            return value < counts.length ? counts : Arrays.copyOf(counts, Math.max(value + 1, counts.length * 2));
+        }
+
+        private static long[] authorIdsOf(Book book) {
+            // Collection chưa nạp (entity detached/proxy): giữ liên kết đã biết
+            if (book.getAuthors() == null || !Hibernate.isInitialized(book.getAuthors())) {
+                return null;
+            }
+            return book.getAuthors().stream()
+                    .map(Author::getAuthorId)
+                    .filter(authorId -> authorId != null)
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+
+        private static boolean isInRange(long id) {
+            return id >= 0 && id < MAX_BOOK_ID;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.search;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Số sách theo từng giá trị facet (thể loại, quốc tịch tác giả) dưới một bộ lọc.
+ * Các Map được sắp theo số lượng giảm dần, giá trị có số lượng 0 bị bỏ qua.
+ */
+public final class FacetCounts {
+
+    private final int totalCount;
+    private final Map<String, Integer> categoryCounts;
+    private final Map<String, Integer> nationalityCounts;
+
+    FacetCounts(int totalCount, Map<String, Integer> categoryCounts, Map<String, Integer> nationalityCounts) {
+        this.totalCount = totalCount;
+        this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+        this.nationalityCounts = Collections.unmodifiableMap(nationalityCounts);
+    }
+
+    /**
+     * Số sách khớp bộ lọc
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Thể loại -> số sách khớp bộ lọc
+     */
+    public Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    /**
+     * Quốc tịch -> số sách khớp bộ lọc có ít nhất một tác giả mang quốc tịch đó
+     */
+    public Map<String, Integer> getNationalityCounts() {
+        return nationalityCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "FacetCounts{" +
+                "totalCount=" + totalCount +
+                ", categoryCounts=" + categoryCounts +
+                ", nationalityCounts=" + nationalityCounts +
+                '}';
+    }
+}
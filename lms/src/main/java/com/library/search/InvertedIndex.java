@@ -0,0 +1,163 @@
+package com.library.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ: token -> (ID tài liệu -> trọng số).
+ *
+ * Trọng số của token trong tài liệu là tổng trọng số của các trường chứa token đó
+ * (mỗi lần xuất hiện cộng một lần). Khi tìm kiếm, mọi token của câu truy vấn phải khớp (AND),
+ * token cuối được so khớp theo tiền tố để hỗ trợ gõ đến đâu tìm đến đó, và điểm được nhân với IDF
+ * để token hiếm quan trọng hơn token phổ biến.
+ *
+ * Đọc không cần khóa; ghi (index/remove) được tuần tự hóa bởi chính đối tượng.
+ */
+public class InvertedIndex {
+
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+
+    /**
+     * Một trường văn bản của tài liệu kèm trọng số
+     */
+    public static final class Field {
+        private final String text;
+        private final float weight;
+
+        public Field(String text, float weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Thêm hoặc thay thế tài liệu
+     */
+    public synchronized void index(long id, Field... fields) {
+        Map<String, Float> terms = new HashMap<>();
+        for (Field field : fields) {
+            for (String token : Tokenizer.tokenize(field.text)) {
+                terms.merge(token, field.weight, Float::sum);
+            }
+        }
+        removeTerms(id);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new ConcurrentHashMap<>()).put(id, term.getValue());
+        }
+        documents.put(id, terms);
+    }
+
+    public synchronized void remove(long id) {
+        removeTerms(id);
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Tìm tài liệu chứa tất cả token của câu truy vấn, xếp theo điểm giảm dần (bằng điểm thì ID tăng dần)
+     * @param query Câu truy vấn
+     * @param limit Số kết quả tối đa
+     * @return ID tài liệu theo thứ hạng
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int documentCount = Math.max(documents.size(), 1);
+        Map<Long, Float> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = i == tokens.size() - 1;
+            Map<Long, Float> matches = match(tokens.get(i), prefix, documentCount);
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            scores = scores == null ? matches : intersect(scores, matches);
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        return top(scores, limit);
+    }
+
+    private Map<Long, Float> match(String token, boolean prefix, int documentCount) {
+        Map<Long, Float> matches = new HashMap<>();
+        NavigableMap<String, Map<Long, Float>> terms = prefix
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                : postings.subMap(token, true, token, true);
+        for (Map<Long, Float> docs : terms.values()) {
+            float idf = (float) Math.log(1.0 + (double) documentCount / Math.max(docs.size(), 1));
+            for (Map.Entry<Long, Float> doc : docs.entrySet()) {
+                // Nhiều token cùng tiền tố trong một tài liệu: lấy token có điểm cao nhất
+                matches.merge(doc.getKey(), doc.getValue() * idf, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private static Map<Long, Float> intersect(Map<Long, Float> left, Map<Long, Float> right) {
+        Map<Long, Float> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Float> larger = smaller == left ? right : left;
+        Map<Long, Float> result = new HashMap<>();
+        for (Map.Entry<Long, Float> entry : smaller.entrySet()) {
+            Float other = larger.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> top(Map<Long, Float> scores, int limit) {
+        Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void removeTerms(long id) {
+        Map<String, Float> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.library.search;
+
+import com.library.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Chỉ mục tiền tố cho autocomplete, xếp hạng theo điểm (lượt mượn).
+ *
+ * Phần chính là các mảng sắp xếp theo khóa đã chuẩn hóa (bỏ dấu, chữ thường) kèm cây phân đoạn
+ * lưu điểm lớn nhất của từng đoạn: các khóa có cùng tiền tố nằm liền nhau nên tìm được bằng
+ * tìm kiếm nhị phân, rồi lấy top-k trong đoạn đó bằng cách duyệt cây theo heap - O(k log n),
+ * không phụ thuộc số khóa khớp tiền tố.
+ * Thay đổi điểm cập nhật thẳng vào cây; khóa mới hoặc đổi tên được ghi vào phần delta nhỏ
+ * (TreeMap) và được gộp vào phần chính khi delta vượt ngưỡng.
+ */
+public final class PrefixIndex {
+
+    /** Số mục tối đa trong delta (và số mục đã xóa) trước khi gộp lại phần chính */
+    static final int MAX_DELTA_SIZE = 10_000;
+
+    private static final long TOMBSTONE = -1L;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::getScore).reversed()
+            .thenComparing(Suggestion::getText)
+            .thenComparingLong(Suggestion::getId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Phần chính, sắp xếp theo khóa
+    private String[] keys;
+    private String[] texts;
+    private long[] ids;
+    // Cây phân đoạn: tree[leafBase + i] là điểm của mục i, TOMBSTONE nếu đã xóa
+    private long[] tree;
+    private int leafBase;
+    private int tombstones;
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    // Phần delta: khóa + '\0' + ID -> gợi ý
+    private final TreeMap<String, Suggestion> delta = new TreeMap<>();
+    private final Map<Long, String> deltaKeys = new HashMap<>();
+
+    public PrefixIndex() {
+        load(new Entry[0]);
+    }
+
+    /**
+     * Dựng chỉ mục từ một tập gợi ý, chuẩn hóa và sắp xếp song song
+     */
+    public static PrefixIndex build(Collection<Suggestion> suggestions) {
+        Entry[] entries = suggestions.parallelStream()
+                .filter(suggestion -> suggestion.getText() != null)
+                .map(suggestion -> new Entry(normalize(suggestion.getText()), suggestion))
+                .toArray(Entry[]::new);
+        Arrays.parallelSort(entries);
+        PrefixIndex index = new PrefixIndex();
+        index.load(entries);
+        return index;
+    }
+
+    /**
+     * Thêm hoặc thay thế gợi ý của một ID
+     */
+    public void put(long id, String text, long score) {
+        if (text == null) {
+            remove(id);
+            return;
+        }
+        String key = normalize(text);
+        lock.writeLock().lock();
+        try {
+            Integer position = positions.get(id);
+            if (position != null && keys[position].equals(key) && texts[position].equals(text)) {
+                setScore(position, score);
+                return;
+            }
+            removeEntry(id);
+            String deltaKey = key + '\0' + id;
+            delta.put(deltaKey, new Suggestion(id, text, score));
+            deltaKeys.put(id, deltaKey);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Đổi điểm của một ID đã có, bỏ qua nếu ID chưa có trong chỉ mục
+     */
+    public void updateScore(long id, long score) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positions.get(id);
+            if (position != null) {
+                setScore(position, score);
+                return;
+            }
+            String deltaKey = deltaKeys.get(id);
+            if (deltaKey != null) {
+                delta.put(deltaKey, new Suggestion(id, delta.get(deltaKey).getText(), score));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Điểm hiện tại của một ID, -1 nếu không có trong chỉ mục
+     */
+    public long scoreOf(long id) {
+        lock.readLock().lock();
+        try {
+            Integer position = positions.get(id);
+            if (position != null) {
+                return tree[leafBase + position];
+            }
+            String deltaKey = deltaKeys.get(id);
+            return deltaKey == null ? TOMBSTONE : delta.get(deltaKey).getScore();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return positions.size() + deltaKeys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top-k gợi ý có khóa bắt đầu bằng tiền tố (không phân biệt hoa thường và dấu),
+     * các chuỗi trùng nhau sau chuẩn hóa chỉ giữ mục có điểm cao nhất
+     * @param prefix Chuỗi người dùng đang gõ
+     * @param k Số gợi ý tối đa
+     * @return Gợi ý theo điểm giảm dần
+     */
+    public List<Suggestion> complete(String prefix, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        String from = normalize(prefix == null ? "" : prefix);
+        String to = from + Character.MAX_VALUE;
+        lock.readLock().lock();
+        try {
+            List<Suggestion> candidates = new ArrayList<>(delta.subMap(from, to).values());
+            // Lấy dư theo số mục delta để việc khử trùng bên dưới không làm thiếu kết quả
+            collectTop(lowerBound(from), lowerBound(to), k + candidates.size(), candidates);
+            candidates.sort(RANKING);
+
+            List<Suggestion> result = new ArrayList<>(k);
+            Set<String> seen = new HashSet<>();
+            for (Suggestion candidate : candidates) {
+                if (seen.add(normalize(candidate.getText()))) {
+                    result.add(candidate);
+                    if (result.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectTop(int from, int to, int limit, List<Suggestion> out) {
+        if (from >= to) {
+            return;
+        }
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((a, b) -> {
+            int byScore = Long.compare(tree[b], tree[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+        // Phân rã [from, to) thành các nút phủ đoạn
+        for (int left = from + leafBase, right = to + leafBase; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                nodes.add(left++);
+            }
+            if ((right & 1) == 1) {
+                nodes.add(--right);
+            }
+        }
+        Set<String> seen = new HashSet<>();
+        int collected = 0;
+        while (!nodes.isEmpty() && collected < limit) {
+            int node = nodes.poll();
+            if (tree[node] == TOMBSTONE) {
+                break;
+            }
+            if (node >= leafBase) {
+                int position = node - leafBase;
+                if (seen.add(keys[position])) {
+                    out.add(new Suggestion(ids[position], texts[position], tree[node]));
+                    collected++;
+                }
+            } else {
+                nodes.add(2 * node);
+                nodes.add(2 * node + 1);
+            }
+        }
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void setScore(int position, long score) {
+        int node = leafBase + position;
+        tree[node] = score;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private void removeEntry(long id) {
+        Integer position = positions.remove(id);
+        if (position != null) {
+            setScore(position, TOMBSTONE);
+            tombstones++;
+        }
+        String deltaKey = deltaKeys.remove(id);
+        if (deltaKey != null) {
+            delta.remove(deltaKey);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (delta.size() <= MAX_DELTA_SIZE && tombstones <= MAX_DELTA_SIZE) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(positions.size() + delta.size());
+        for (Map.Entry<Long, Integer> live : positions.entrySet()) {
+            int position = live.getValue();
+            entries.add(new Entry(keys[position], new Suggestion(ids[position], texts[position], tree[leafBase + position])));
+        }
+        for (Suggestion suggestion : delta.values()) {
+            entries.add(new Entry(normalize(suggestion.getText()), suggestion));
+        }
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.parallelSort(sorted);
+        load(sorted);
+    }
+
+    private void load(Entry[] entries) {
+        int size = entries.length;
+        keys = new String[size];
+        texts = new String[size];
+        ids = new long[size];
+        leafBase = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        tree = new long[2 * leafBase];
+        Arrays.fill(tree, TOMBSTONE);
+        positions.clear();
+        delta.clear();
+        deltaKeys.clear();
+        tombstones = 0;
+        for (int i = 0; i < size; i++) {
+            Suggestion suggestion = entries[i].suggestion;
+            keys[i] = entries[i].key;
+            texts[i] = suggestion.getText();
+            ids[i] = suggestion.getId();
+            tree[leafBase + i] = suggestion.getScore();
+            Integer previous = positions.put(suggestion.getId(), i);
+            if (previous != null) {
+                // ID trùng trong dữ liệu nguồn: giữ mục sau cùng
+                tree[leafBase + previous] = TOMBSTONE;
+                tombstones++;
+            }
+        }
+        for (int node = leafBase - 1; node >= 1; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(TextNormalizer.fold(text.trim())).replaceAll(" ");
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final String key;
+        private final Suggestion suggestion;
+
+        private Entry(String key, Suggestion suggestion) {
+            this.key = key;
+            this.suggestion = suggestion;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : Long.compare(suggestion.getId(), other.suggestion.getId());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.library.search;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.repository.impl.AuthorRepositoryImpl;
+import com.library.repository.impl.BookRepositoryImpl;
+import com.library.repository.impl.MemberRepositoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Chỉ mục tìm kiếm toàn văn trong bộ nhớ cho sách (title, category), thành viên (name, email, phone)
+ * và tác giả (name, biography), thay cho LIKE '%kw%' quét toàn bảng.
+ *
+ * Được đồng bộ qua EntityEventBus sau mỗi commit và dựng lại toàn bộ bằng rebuild() khi khởi động
+ * (duyệt theo luồng, sau đó áp lại các thay đổi xảy ra trong lúc dựng rồi mới thay chỉ mục cũ, xem RebuildableListener).
+ * Trước lần rebuild() đầu tiên isReady() trả về false và repository dùng lại truy vấn LIKE.
+ */
+public final class SearchIndex extends RebuildableListener<SearchIndex.Indexes> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    /** Số kết quả tối đa trả về cho một truy vấn */
+    public static final int MAX_RESULTS = 1_000;
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float EMAIL_WEIGHT = 2.0f;
+    private static final float SECONDARY_WEIGHT = 1.0f;
+
+    private static final SearchIndex INSTANCE = new SearchIndex();
+
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready;
+
+    private SearchIndex() {
+        super("Chỉ mục tìm kiếm");
+        EntityEventBus.register(this);
+    }
+
+    public static SearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã dựng chỉ mục ít nhất một lần
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> searchBookIds(String keyword, int limit) {
+        return indexes.books.search(keyword, limit);
+    }
+
+    public List<Long> searchMemberIds(String keyword, int limit) {
+        return indexes.members.search(keyword, limit);
+    }
+
+    public List<Long> searchAuthorIds(String keyword, int limit) {
+        return indexes.authors.search(keyword, limit);
+    }
+
+    @Override
+    protected Indexes load() {
+        Indexes loaded = new Indexes();
+        new BookRepositoryImpl().forEachEntity(book -> indexBook(loaded.books, book));
+        new MemberRepositoryImpl().forEachEntity(member -> indexMember(loaded.members, member));
+        new AuthorRepositoryImpl().forEachEntity(author -> indexAuthor(loaded.authors, author));
+        return loaded;
+    }
+
+    @Override
+    protected Indexes current() {
+        return indexes;
+    }
+
+    @Override
+    protected void install(Indexes rebuilt) {
+        indexes = rebuilt;
+        ready = true;
+    }
+
+    @Override
+    protected void logRebuilt(Indexes rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng chỉ mục tìm kiếm: {} sách, {} thành viên, {} tác giả trong {} ms",
+                rebuilt.books.size(), rebuilt.members.size(), rebuilt.authors.size(), elapsedMillis);
+    }
+
+    @Override
+    protected void apply(EntityChange change, Indexes target) {
+        InvertedIndex index;
+        if (change.isFor(Book.class)) {
+            index = target.books;
+        } else if (change.isFor(Member.class)) {
+            index = target.members;
+        } else if (change.isFor(Author.class)) {
+            index = target.authors;
+        } else {
+            return;
+        }
+        long id = ((Number) change.getId()).longValue();
+        if (change.getType() == EntityChange.Type.DELETE) {
+            index.remove(id);
+        } else if (change.getEntity() instanceof Book) {
+            indexBook(index, (Book) change.getEntity());
+        } else if (change.getEntity() instanceof Member) {
+            indexMember(index, (Member) change.getEntity());
+        } else if (change.getEntity() instanceof Author) {
+            indexAuthor(index, (Author) change.getEntity());
+        }
+        // Thay đổi hàng loạt (không có entity) không chạm tới các trường được đánh chỉ mục
+    }
+
+    private static void indexBook(InvertedIndex index, Book book) {
+        index.index(book.getBookId(),
+                new InvertedIndex.Field(book.getTitle(), TITLE_WEIGHT),
+                new InvertedIndex.Field(book.getCategory(), SECONDARY_WEIGHT));
+    }
+
+    private static void indexMember(InvertedIndex index, Member member) {
+        index.index(member.getMemberId(),
+                new InvertedIndex.Field(member.getName(), NAME_WEIGHT),
+                new InvertedIndex.Field(member.getEmail(), EMAIL_WEIGHT),
+                new InvertedIndex.Field(member.getPhone(), SECONDARY_WEIGHT));
+    }
+
+    private static void indexAuthor(InvertedIndex index, Author author) {
+        index.index(author.getAuthorId(),
+                new InvertedIndex.Field(author.getName(), NAME_WEIGHT),
+                new InvertedIndex.Field(author.getBiography(), SECONDARY_WEIGHT));
+    }
+
+    /**
+     * Bộ chỉ mục được thay thế nguyên khối khi rebuild
+     */
+    static final class Indexes {
+        private final InvertedIndex books = new InvertedIndex();
+        private final InvertedIndex members = new InvertedIndex();
+        private final InvertedIndex authors = new InvertedIndex();
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.search;
+
+/**
+ * Một gợi ý autocomplete: ID đối tượng, chuỗi hiển thị và điểm xếp hạng
+ */
+public final class Suggestion {
+
+    private final long id;
+    private final String text;
+    private final long score;
+
+    public Suggestion(long id, String text, long score) {
+        this.id = id;
+        this.text = text;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Điểm xếp hạng (lượt mượn), cao hơn đứng trước
+     */
+    public long getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{" +
+                "id=" + id +
+                ", text='" + text + '\'' +
+                ", score=" + score +
+                '}';
+    }
+}
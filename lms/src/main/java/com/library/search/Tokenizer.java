@@ -0,0 +1,32 @@
+package com.library.search;
+
+import com.library.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tách văn bản thành các token cho chỉ mục tìm kiếm: bỏ dấu, chữ thường,
+ * tách theo mọi ký tự không phải chữ/số (khoảng trắng, dấu câu, '@', '.', '-'...).
+ */
+public final class Tokenizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(TextNormalizer.fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,13 +1,16 @@
 package com.library.service;
 
+import com.library.dto.BookSummary;
 import com.library.entity.Book;
 import com.library.entity.Borrowing;
 import com.library.repository.BookRepository;
+import com.library.util.ReadThroughCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import javax.validation.Validator;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -16,9 +19,19 @@ public class BookService {
     private final BookRepository bookRepository;
     private final Validator validator;
 
+    // Sách theo ID cho getBookById; trạng thái mượn/trả có thể trễ tối đa một TTL
+    static final int BOOK_CACHE_SIZE = 10_000;
+    static final Duration BOOK_CACHE_TTL = Duration.ofSeconds(30);
+    private final ReadThroughCache<Long, Book> bookCache;
+
     public BookService(BookRepository bookRepository, Validator validator) {
+        this(bookRepository, validator, new ReadThroughCache<>(BOOK_CACHE_SIZE, BOOK_CACHE_TTL));
+    }
+
+    public BookService(BookRepository bookRepository, Validator validator, ReadThroughCache<Long, Book> bookCache) {
         this.bookRepository = bookRepository;
         this.validator = validator;
+        this.bookCache = bookCache;
     }
 
     public Book createBook(Book book) {
@@ -40,8 +53,10 @@ public class BookService {
         MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
         LOGGER.info("Fetching book: {}", id);
 
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Book not found: " + id));
+        Book book = bookCache.get(id, key -> bookRepository.findById(key).orElse(null));
+        if (book == null) {
+            throw new RuntimeException("Book not found: " + id);
+        }
         MDC.clear();
         return book;
     }
@@ -59,6 +74,7 @@ public class BookService {
         existing.setCategory(book.getCategory());
         existing.setUpdatedDate(LocalDate.now());
         bookRepository.update(existing);
+        bookCache.invalidate(id);
         LOGGER.info("Book updated: {}", id);
         MDC.clear();
         return existing;
@@ -74,6 +90,7 @@ public class BookService {
             throw new RuntimeException("Book is currently borrowed");
         }
         bookRepository.delete(id);
+        bookCache.invalidate(id);
         LOGGER.info("Book deleted: {}", id);
         MDC.clear();
     }
@@ -89,6 +106,17 @@ public class BookService {
         return books;
     }
 
+    public List<BookSummary> searchBookSummaries(String keyword) {
+        String correlationId = java.util.UUID.randomUUID().toString();
+        MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
+        LOGGER.info("Searching book summaries with keyword: {}", keyword);
+
+        List<BookSummary> books = bookRepository.searchBookSummaries(keyword);
+        LOGGER.info("Found {} books", books.size());
+        MDC.clear();
+        return books;
+    }
+
     public List<Book> findTopBorrowed(int limit) {
         String correlationId = java.util.UUID.randomUUID().toString();
         MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
@@ -100,6 +128,10 @@ public class BookService {
         return books;
     }
 
+    public ReadThroughCache.Stats getBookCacheStats() {
+        return bookCache.stats();
+    }
+
     private void validate(Object object) {
         var violations = validator.validate(object);
         if (!violations.isEmpty()) {
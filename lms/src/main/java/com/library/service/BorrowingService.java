@@ -5,7 +5,11 @@ import com.library.entity.Borrowing;
 import com.library.entity.Member;
 import com.library.repository.BorrowingRepository;
 import com.library.repository.BookRepository;
+import com.library.repository.CheckoutContext;
 import com.library.repository.MemberRepository;
+import com.library.util.HibernateUtil;
+import com.library.util.UnitOfWork;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -13,21 +17,35 @@ import org.slf4j.MDC;
 import javax.validation.Validator;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class BorrowingService {
     private static final Logger LOGGER = LoggerFactory.getLogger(BorrowingService.class);
+    private static final int BULK_CHUNK_SIZE = 500;
+    static final int MAX_ACTIVE_BORROWINGS = 5;
     private final BorrowingRepository borrowingRepository;
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
     private final Validator validator;
+    private final SessionFactory sessionFactory;
 
     public BorrowingService(BorrowingRepository borrowingRepository, BookRepository bookRepository,
                            MemberRepository memberRepository, Validator validator) {
+        this(borrowingRepository, bookRepository, memberRepository, validator, HibernateUtil.getSessionFactory());
+    }
+
+    public BorrowingService(BorrowingRepository borrowingRepository, BookRepository bookRepository,
+                           MemberRepository memberRepository, Validator validator, SessionFactory sessionFactory) {
         this.borrowingRepository = borrowingRepository;
         this.bookRepository = bookRepository;
         this.memberRepository = memberRepository;
         this.validator = validator;
+        this.sessionFactory = sessionFactory;
     }
 
     public List<Borrowing> borrowBooks(Long memberId, List<Long> bookIds, LocalDate dueDate) {
@@ -35,77 +53,159 @@ public class BorrowingService {
         MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
         LOGGER.info("Borrowing books {} for member {}", bookIds, memberId);
 
-        if (!isEligibleToBorrow(memberId, bookIds.size())) {
-            LOGGER.warn("Member {} cannot borrow due to limit", memberId);
-            throw new RuntimeException("Member borrowing limit exceeded");
-        }
-        if (dueDate.isBefore(LocalDate.now())) {
-            LOGGER.warn("Invalid due date: {}", dueDate);
-            throw new RuntimeException("Due date must be after borrow date");
-        }
+        try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+            if (dueDate.isBefore(LocalDate.now())) {
+                LOGGER.warn("Invalid due date: {}", dueDate);
+                throw new RuntimeException("Due date must be after borrow date");
+            }
 
-        List<Book> books = bookRepository.findByIds(bookIds);
-        if (books.size() != bookIds.size()) {
-            LOGGER.warn("Some books not found: {}", bookIds);
-            throw new RuntimeException("One or more books not found");
-        }
-        if (books.stream().anyMatch(book -> !book.getAvailable())) {
-            LOGGER.warn("Some books are not available: {}", bookIds);
-            throw new RuntimeException("One or more books are not available");
-        }
+            // findForCheckout trả mỗi sách một lần: bỏ ID trùng trước khi so số lượng và giữ chỗ
+            List<Long> distinctBookIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
 
-        List<Borrowing> borrowings = new ArrayList<>();
-        for (Book book : books) {
-            Borrowing borrowing = new Borrowing();
-            borrowing.setMember(memberRepository.findById(memberId)
-                    .orElseThrow(() -> new RuntimeException("Member not found: " + memberId)));
-            borrowing.setBook(book);
-            borrowing.setBorrowDate(LocalDate.now());
-            borrowing.setDueDate(dueDate);
-            borrowing.setStatus(Borrowing.BorrowingStatus.BORROWED);
-            borrowings.add(borrowing);
-            book.setAvailable(false);
-        }
+            // Thành viên (khóa dòng, kèm bộ đếm) và các sách cần mượn (không khóa)
+            CheckoutContext checkout = memberRepository.findForCheckout(memberId, distinctBookIds);
+            if (checkout == null) {
+                LOGGER.warn("Member not found: {}", memberId);
+                throw new RuntimeException("Member not found: " + memberId);
+            }
+            Member member = checkout.getMember();
+            if (!isEligibleToBorrow(member, distinctBookIds.size())) {
+                LOGGER.warn("Member {} cannot borrow due to limit", memberId);
+                throw new RuntimeException("Member borrowing limit exceeded");
+            }
+            List<Book> books = checkout.getBooks();
+            if (books.size() != distinctBookIds.size()) {
+                LOGGER.warn("Some books not found: {}", bookIds);
+                throw new RuntimeException("One or more books not found");
+            }
+
+            // Giữ chỗ nguyên tử trên database thay vì kiểm tra available trong bộ nhớ,
+            // để hai quầy không thể cho mượn cùng một cuốn sách
+            if (!bookRepository.reserveBooks(distinctBookIds)) {
+                LOGGER.warn("Some books are not available: {}", bookIds);
+                throw new RuntimeException("One or more books are not available");
+            }
+
+            List<Borrowing> borrowings = new ArrayList<>();
+            for (Book book : books) {
+                // Bản chụp read-only: cập nhật cho khớp với UPDATE giữ chỗ, không sinh thêm câu lệnh
+                book.setAvailable(false);
+                book.setBorrowCount((book.getBorrowCount() != null ? book.getBorrowCount() : 0) + 1);
+                Borrowing borrowing = new Borrowing();
+                borrowing.setMember(member);
+                borrowing.setBook(book);
+                borrowing.setBorrowDate(LocalDate.now());
+                borrowing.setDueDate(dueDate);
+                borrowing.setStatus(Borrowing.BorrowingStatus.BORROWED);
+                borrowings.add(borrowing);
+            }
+            // Member đang được quản lý và đã khóa dòng: bộ đếm được ghi cùng transaction khi commit
+            member.setActiveBorrowings(member.getActiveBorrowings() + books.size());
+            member.setTotalBorrowed(member.getTotalBorrowed() + books.size());
 
-        borrowingRepository.saveAll(borrowings);
-        bookRepository.updateAll(books);
-        LOGGER.info("Borrowed {} books for member {}", bookIds.size(), memberId);
-        MDC.clear();
-        return borrowings;
+            borrowingRepository.saveAll(borrowings);
+            unitOfWork.commit();
+            LOGGER.info("Borrowed {} books for member {}", distinctBookIds.size(), memberId);
+            return borrowings;
+        } finally {
+            MDC.clear();
+        }
     }
 
+    /**
+     * Trả các phiếu mượn trong một transaction, theo cùng đường UPDATE theo tập hợp với returnBooksInBulk
+     * (tiền phạt tính trong SQL). Thất bại và không thay đổi gì nếu có phiếu không tồn tại hoặc đã trả.
+     */
     public List<Borrowing> returnBooks(List<Long> borrowingIds) {
         String correlationId = java.util.UUID.randomUUID().toString();
         MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
         LOGGER.info("Returning borrowings: {}", borrowingIds);
 
-        List<Borrowing> borrowings = borrowingRepository.findByIds(borrowingIds);
-        if (borrowings.size() != borrowingIds.size()) {
-            LOGGER.warn("Some borrowings not found: {}", borrowingIds);
-            throw new RuntimeException("One or more borrowings not found");
+        try {
+            List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(borrowingIds));
+            try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+                ReturnedChunk returned = returnChunk(distinctIds, LocalDate.now());
+                if (returned.returnedIds.size() != distinctIds.size()) {
+                    // Không commit: unit of work rollback các phiếu vừa được đánh dấu trả
+                    LOGGER.warn("Some borrowings not found or already returned: {}", borrowingIds);
+                    throw new RuntimeException("One or more borrowings not found or already returned");
+                }
+                unitOfWork.commit();
+            }
+            List<Borrowing> borrowings = borrowingRepository.findByIds(distinctIds);
+            LOGGER.info("Returned {} borrowings", distinctIds.size());
+            return borrowings;
+        } finally {
+            MDC.clear();
         }
+    }
+
+    /**
+     * Trả sách hàng loạt (ví dụ hộp trả sách cuối ngày) bằng các câu UPDATE theo tập hợp.
+     * Mỗi chunk là một transaction với số câu lệnh cố định: một SELECT khóa các phiếu chưa trả,
+     * một UPDATE cho các phiếu đó (tiền phạt tính trong SQL), một UPDATE cho sách và một cho thành viên.
+     * Phiếu không tồn tại hoặc đã trả được bỏ qua.
+     */
+    public BulkReturnResult returnBooksInBulk(List<Long> borrowingIds) {
+        String correlationId = java.util.UUID.randomUUID().toString();
+        MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
+        LOGGER.info("Bulk returning {} borrowings", borrowingIds.size());
+
+        try {
+            LocalDate today = LocalDate.now();
+            int returnedCount = 0;
+            double totalFine = 0.0;
+            List<Long> skippedIds = new ArrayList<>();
+            for (int from = 0; from < borrowingIds.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = borrowingIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, borrowingIds.size()));
+                try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+                    ReturnedChunk returned = returnChunk(chunk, today);
+                    unitOfWork.commit();
+                    returnedCount += returned.returnedIds.size();
+                    totalFine += returned.totalFine;
 
-        List<Book> booksToUpdate = new ArrayList<>();
-        for (Borrowing borrowing : borrowings) {
-            if (borrowing.getStatus() == Borrowing.BorrowingStatus.RETURNED) {
-                LOGGER.warn("Borrowing {} already returned", borrowing.getBorrowingId());
-                throw new RuntimeException("Borrowing already returned");
+                    for (Long id : chunk) {
+                        if (!returned.returnedIds.contains(id)) {
+                            skippedIds.add(id);
+                        }
+                    }
+                }
             }
-            borrowing.setStatus(Borrowing.BorrowingStatus.RETURNED);
-            borrowing.setReturnDate(LocalDate.now());
-            booksToUpdate.add(borrowing.getBook());
-            borrowing.getBook().setAvailable(true);
+
+            if (!skippedIds.isEmpty()) {
+                LOGGER.warn("Skipped {} borrowings (not found or already returned)", skippedIds.size());
+            }
+            BulkReturnResult result = new BulkReturnResult(returnedCount, totalFine, skippedIds);
+            LOGGER.info("Bulk returned: {}", result);
+            return result;
+        } finally {
+            MDC.clear();
         }
+    }
 
-        borrowingRepository.updateAll(borrowings);
-        bookRepository.updateAll(booksToUpdate);
-        LOGGER.info("Returned {} borrowings", borrowingIds.size());
-        MDC.clear();
-        return borrowings;
+    /**
+     * Đánh dấu trả các phiếu trong unit of work hiện tại: một UPDATE cho phiếu, một cho sách và một cho
+     * thành viên. Chỉ các phiếu thực sự được chuyển sang RETURNED mới giải phóng sách và bộ đếm của thành viên.
+     */
+    private ReturnedChunk returnChunk(List<Long> borrowingIds, LocalDate returnDate) {
+        ReturnedChunk result = new ReturnedChunk();
+        List<Long> bookIds = new ArrayList<>();
+        Map<Long, Integer> returnedByMember = new HashMap<>();
+        for (Object[] row : borrowingRepository.markReturned(borrowingIds, returnDate)) {
+            result.returnedIds.add((Long) row[0]);
+            bookIds.add((Long) row[1]);
+            returnedByMember.merge((Long) row[2], 1, Integer::sum);
+            result.totalFine += (Double) row[3];
+        }
+        if (!bookIds.isEmpty()) {
+            bookRepository.markAvailable(bookIds);
+            memberRepository.releaseBorrowings(returnedByMember);
+        }
+        return result;
     }
 
-    private boolean isEligibleToBorrow(Long memberId, int additionalBooks) {
-        return memberRepository.countActiveBorrowings(memberId) + additionalBooks <= 5;
+    private boolean isEligibleToBorrow(Member member, int additionalBooks) {
+        return member.getActiveBorrowings() + additionalBooks <= MAX_ACTIVE_BORROWINGS;
     }
 
     private void validate(Object object) {
@@ -118,4 +218,9 @@ public class BorrowingService {
             throw new RuntimeException(message);
         }
     }
-}
\ No newline at end of file
+
+    private static class ReturnedChunk {
+        private final Set<Long> returnedIds = new HashSet<>();
+        private double totalFine;
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kết quả trả sách hàng loạt
+ */
+public final class BulkReturnResult {
+
+    private final int returnedCount;
+    private final double totalFine;
+    private final List<Long> skippedIds;
+
+    public BulkReturnResult(int returnedCount, double totalFine, List<Long> skippedIds) {
+        this.returnedCount = returnedCount;
+        this.totalFine = totalFine;
+        this.skippedIds = Collections.unmodifiableList(skippedIds);
+    }
+
+    /**
+     * Số phiếu mượn đã được trả
+     */
+    public int getReturnedCount() {
+        return returnedCount;
+    }
+
+    /**
+     * Tổng tiền phạt của các phiếu vừa trả
+     */
+    public double getTotalFine() {
+        return totalFine;
+    }
+
+    /**
+     * ID phiếu mượn bị bỏ qua (không tồn tại hoặc đã trả/mất trước đó)
+     */
+    public List<Long> getSkippedIds() {
+        return skippedIds;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkReturnResult{" +
+                "returnedCount=" + returnedCount +
+                ", totalFine=" + totalFine +
+                ", skippedIds=" + skippedIds.size() +
+                '}';
+    }
+}
@@ -1,12 +1,15 @@
 package com.library.service;
 
+import com.library.dto.MemberSummary;
 import com.library.entity.Member;
 import com.library.repository.MemberRepository;
+import com.library.util.ReadThroughCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import javax.validation.Validator;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -15,9 +18,19 @@ public class MemberService {
     private final MemberRepository memberRepository;
     private final Validator validator;
 
+    // Thành viên theo ID cho getMemberById; số sách đang mượn có thể trễ tối đa một TTL
+    static final int MEMBER_CACHE_SIZE = 10_000;
+    static final Duration MEMBER_CACHE_TTL = Duration.ofSeconds(30);
+    private final ReadThroughCache<Long, Member> memberCache;
+
     public MemberService(MemberRepository memberRepository, Validator validator) {
+        this(memberRepository, validator, new ReadThroughCache<>(MEMBER_CACHE_SIZE, MEMBER_CACHE_TTL));
+    }
+
+    public MemberService(MemberRepository memberRepository, Validator validator, ReadThroughCache<Long, Member> memberCache) {
         this.memberRepository = memberRepository;
         this.validator = validator;
+        this.memberCache = memberCache;
     }
 
     public Member registerMember(Member member) {
@@ -42,8 +55,10 @@ public class MemberService {
         MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
         LOGGER.info("Fetching member: {}", id);
 
-        Member member = memberRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Member not found: " + id));
+        Member member = memberCache.get(id, key -> memberRepository.findById(key).orElse(null));
+        if (member == null) {
+            throw new RuntimeException("Member not found: " + id);
+        }
         MDC.clear();
         return member;
     }
@@ -65,6 +80,7 @@ public class MemberService {
         existing.setPhone(member.getPhone());
         existing.setUpdatedDate(LocalDate.now());
         memberRepository.update(existing);
+        memberCache.invalidate(id);
         LOGGER.info("Member updated: {}", id);
         MDC.clear();
         return existing;
@@ -80,6 +96,7 @@ public class MemberService {
             throw new RuntimeException("Member has active borrowings");
         }
         memberRepository.delete(id);
+        memberCache.invalidate(id);
         LOGGER.info("Member deleted: {}", id);
         MDC.clear();
     }
@@ -95,6 +112,21 @@ public class MemberService {
         return members;
     }
 
+    public List<MemberSummary> searchMemberSummaries(String keyword) {
+        String correlationId = java.util.UUID.randomUUID().toString();
+        MDC.put("correlationId", correlationId != null ? correlationId : "N/A");
+        LOGGER.info("Searching member summaries with keyword: {}", keyword);
+
+        List<MemberSummary> members = memberRepository.searchMemberSummaries(keyword);
+        LOGGER.info("Found {} members", members.size());
+        MDC.clear();
+        return members;
+    }
+
+    public ReadThroughCache.Stats getMemberCacheStats() {
+        return memberCache.stats();
+    }
+
     private void validate(Object object) {
         var violations = validator.validate(object);
         if (!violations.isEmpty()) {
@@ -0,0 +1,132 @@
+package com.library.service;
+
+import com.library.repository.BorrowingRepository;
+import com.library.util.HibernateUtil;
+import com.library.util.UnitOfWork;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuyển các phiếu BORROWED đã quá hạn trả sang OVERDUE và ghi tiền phạt tính tới ngày quét,
+ * bằng một câu UPDATE cho mỗi chunk (mỗi chunk một transaction ngắn). Tiền phạt của các phiếu đã
+ * OVERDUE từ trước cũng được tính lại tới ngày quét theo cùng cách, để tổng tiền phạt không dừng ở
+ * giá trị của lần quét đầu tiên.
+ *
+ * Mỗi lần quét dùng một ngày duy nhất lấy từ clock và chỉ xét các phiếu có hạn trả trong khoảng
+ * [ngày của lần quét trước, hôm nay), nên chạy lại trong cùng ngày gần như không tốn gì. Lần quét đầu
+ * tiên sau khi khởi động xét mọi phiếu BORROWED đã quá hạn. Tiền phạt cuối cùng vẫn được tính lại
+ * khi trả sách.
+ */
+public class OverdueSweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverdueSweeper.class);
+    static final int CHUNK_SIZE = 1_000;
+    public static final Duration DEFAULT_INTERVAL = Duration.ofHours(1);
+
+    private final BorrowingRepository borrowingRepository;
+    private final SessionFactory sessionFactory;
+    private final Clock clock;
+
+    // Hạn trả từ ngày này trở đi chưa được quét, null trước lần quét đầu tiên (được bảo vệ bởi this)
+    private LocalDate sweptUntil;
+    private ScheduledExecutorService scheduler;
+
+    public OverdueSweeper(BorrowingRepository borrowingRepository) {
+        this(borrowingRepository, HibernateUtil.getSessionFactory(), Clock.systemDefaultZone());
+    }
+
+    public OverdueSweeper(BorrowingRepository borrowingRepository, SessionFactory sessionFactory, Clock clock) {
+        this.borrowingRepository = borrowingRepository;
+        this.sessionFactory = sessionFactory;
+        this.clock = clock;
+    }
+
+    /**
+     * Quét một lần
+     * @return Số phiếu mượn đã chuyển sang OVERDUE
+     */
+    public synchronized int sweep() {
+        long startNanos = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+        if (today.equals(sweptUntil)) {
+            return 0;
+        }
+
+        int overdueCount = 0;
+        int reassessedCount = 0;
+        double totalFine = 0.0;
+        List<Object[]> rows;
+        // Phiếu đã OVERDUE từ trước: tiền phạt tăng theo từng ngày quá hạn
+        do {
+            try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+                rows = borrowingRepository.findOverdueWithStaleFine(today, CHUNK_SIZE);
+                reassessedCount += borrowingRepository.reassessOverdueFines(idsOf(rows), today).size();
+                unitOfWork.commit();
+            }
+        } while (rows.size() == CHUNK_SIZE);
+
+        do {
+            try (UnitOfWork unitOfWork = UnitOfWork.begin(sessionFactory)) {
+                rows = borrowingRepository.findNewlyOverdue(sweptUntil, today, CHUNK_SIZE);
+                // Một câu UPDATE cho cả chunk, tiền phạt của từng phiếu được tính trong SQL
+                for (Object[] marked : borrowingRepository.markOverdue(idsOf(rows), today)) {
+                    overdueCount++;
+                    totalFine += (Double) marked[1];
+                }
+                unitOfWork.commit();
+            }
+        } while (rows.size() == CHUNK_SIZE);
+
+        sweptUntil = today;
+        LOGGER.info("Overdue sweep for {}: {} borrowings marked overdue, {} fine assessed, {} overdue fines reassessed in {} ms",
+                today, overdueCount, totalFine, reassessedCount, (System.nanoTime() - startNanos) / 1_000_000L);
+        return overdueCount;
+    }
+
+    private static List<Long> idsOf(List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        return ids;
+    }
+
+    /**
+     * Quét ngay rồi lặp lại sau mỗi khoảng interval trên một thread nền
+     */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            LOGGER.error("Overdue sweep failed: {}", e.getMessage());
+        }
+    }
+}
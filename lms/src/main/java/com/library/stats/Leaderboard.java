@@ -0,0 +1,385 @@
+package com.library.stats;
+
+import com.library.entity.Borrowing;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.repository.RankingWindow;
+import com.library.util.ProjectionScroll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bảng xếp hạng sách được mượn nhiều nhất và thành viên mượn nhiều nhất, toàn thời gian hoặc trong
+ * 7/30 ngày gần nhất, thay cho GROUP BY trên toàn bộ lịch sử mượn ở mỗi lần xem.
+ *
+ * Mỗi cửa sổ có một bộ đếm LongAdder theo ID sách/thành viên, được tăng theo từng phiếu mượn mới qua
+ * EntityEventBus. Top K được lấy bằng một min-heap kích thước K trên bộ đếm (O(n log K)) mà không cần
+ * khóa. Số lượt mượn theo từng ngày của 30 ngày gần nhất được giữ lại để trừ khỏi cửa sổ khi sang ngày
+ * mới (tick() chạy mỗi phút khi đã start()).
+ *
+ * rebuild() đếm lại từ một lần duyệt theo luồng bảng borrowings. Thay đổi nhận được trong lúc duyệt được
+ * khử trùng theo ID phiếu mượn: ID lấy từ sequence pooled nên phiếu có thể commit không theo thứ tự ID.
+ */
+public final class Leaderboard extends RebuildableListener<Leaderboard.Tallies> {
+
+    private static final Logger logger = LoggerFactory.getLogger(Leaderboard.class);
+
+    private static final Leaderboard INSTANCE = new Leaderboard();
+
+    /**
+     * Một dòng xếp hạng: ID sách hoặc thành viên và số lượt mượn
+     */
+    public static final class Entry {
+        private final long id;
+        private final long count;
+
+        Entry(long id, long count) {
+            this.id = id;
+            this.count = count;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + count;
+        }
+    }
+
+    // Thứ tự xếp hạng: nhiều lượt mượn trước, cùng số lượt thì ID nhỏ trước
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::getCount).reversed()
+            .thenComparingLong(Entry::getId);
+
+    private final Clock clock;
+    private volatile Tallies tallies;
+    private volatile boolean ready;
+
+    private ScheduledExecutorService ticker;
+
+    private Leaderboard() {
+        this(Clock.systemDefaultZone());
+        EntityEventBus.register(this);
+    }
+
+    Leaderboard(Clock clock) {
+        super("Bảng xếp hạng");
+        this.clock = clock;
+        this.tallies = new Tallies(LocalDate.now(clock).toEpochDay());
+    }
+
+    public static Leaderboard getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã đếm lại từ database ít nhất một lần
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Các sách được mượn nhiều nhất trong cửa sổ
+     * @param limit Số dòng tối đa
+     */
+    public List<Entry> topBooks(int limit, RankingWindow window) {
+        return top(tallies.books.get(window), limit);
+    }
+
+    /**
+     * Các thành viên mượn nhiều nhất trong cửa sổ
+     * @param limit Số dòng tối đa
+     */
+    public List<Entry> topMembers(int limit, RankingWindow window) {
+        return top(tallies.members.get(window), limit);
+    }
+
+    /**
+     * Đếm lại từ database rồi chuyển cửa sổ sang ngày mới mỗi phút trên một thread nền
+     */
+    public void start() {
+        rebuild();
+        synchronized (this) {
+            if (ticker != null) {
+                return;
+            }
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "leaderboard-ticker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleWithFixedDelay(this::tickSafely, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    @Override
+    protected Tallies load() {
+        Tallies loaded = new Tallies(LocalDate.now(clock).toEpochDay());
+        loaded.countedIds = new CountedIds();
+        ProjectionScroll.forEach("SELECT b.borrowingId, b.book.bookId, b.member.memberId, b.borrowDate FROM Borrowing b",
+                row -> {
+                    loaded.countedIds.add((Long) row[0]);
+                    loaded.record((Long) row[1], (Long) row[2], (LocalDate) row[3], 1);
+                });
+        return loaded;
+    }
+
+    @Override
+    protected Tallies current() {
+        return tallies;
+    }
+
+    @Override
+    protected void replay(List<EntityChange> changes, Tallies rebuilt) {
+        rebuilt.advanceTo(LocalDate.now(clock).toEpochDay());
+        CountedIds counted = rebuilt.countedIds;
+        for (EntityChange change : changes) {
+            long id = ((Number) change.getId()).longValue();
+            // Phiếu thêm chỉ được đếm nếu lần duyệt chưa thấy; phiếu xóa chỉ được trừ nếu đã được đếm
+            if (change.getType() == EntityChange.Type.INSERT && counted.add(id)
+                    || change.getType() == EntityChange.Type.DELETE && counted.remove(id)) {
+                apply(change, rebuilt);
+            }
+        }
+    }
+
+    @Override
+    protected void install(Tallies rebuilt) {
+        rebuilt.loadedRows = rebuilt.countedIds.size();
+        rebuilt.countedIds = null;
+        tallies = rebuilt;
+        ready = true;
+    }
+
+    @Override
+    protected void logRebuilt(Tallies rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng bảng xếp hạng: {} phiếu mượn, {} sách, {} thành viên trong {} ms",
+                rebuilt.loadedRows, rebuilt.books.get(RankingWindow.ALL_TIME).size(),
+                rebuilt.members.get(RankingWindow.ALL_TIME).size(), elapsedMillis);
+    }
+
+    /**
+     * Chuyển các cửa sổ 7/30 ngày sang hôm nay
+     */
+    public synchronized void tick() {
+        tallies.advanceTo(LocalDate.now(clock).toEpochDay());
+    }
+
+    @Override
+    protected boolean accepts(EntityChange change) {
+        return change.isFor(Borrowing.class) && change.getId() != null;
+    }
+
+    @Override
+    protected void apply(EntityChange change, Tallies target) {
+        target.apply(change);
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.error("Lỗi khi chuyển bảng xếp hạng sang ngày mới: {}", e.getMessage());
+        }
+    }
+
+    private static List<Entry> top(Map<Long, LongAdder> counts, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Min-heap giữ K dòng tốt nhất, phần tử đầu là dòng kém nhất trong số đó
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Math.min(limit, 1_024), RANKING.reversed());
+        for (Map.Entry<Long, LongAdder> count : counts.entrySet()) {
+            long value = count.getValue().sum();
+            if (value <= 0) {
+                continue;
+            }
+            Entry entry = new Entry(count.getKey(), value);
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (RANKING.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Entry> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    /**
+     * Bộ đếm được thay thế nguyên khối khi rebuild. Ghi khi giữ khóa của Leaderboard, đọc không cần khóa.
+     */
+    static final class Tallies {
+        private static final int LONGEST_WINDOW_DAYS = RankingWindow.LAST_30_DAYS.getDays();
+
+        private final Map<RankingWindow, Map<Long, LongAdder>> books = new EnumMap<>(RankingWindow.class);
+        private final Map<RankingWindow, Map<Long, LongAdder>> members = new EnumMap<>(RankingWindow.class);
+
+        // Ngày mượn (epoch day) -> lượt mượn theo ID trong ngày đó, chỉ cho các ngày thuộc cửa sổ dài nhất
+        private final TreeMap<Long, Map<Long, long[]>> bookDays = new TreeMap<>();
+        private final TreeMap<Long, Map<Long, long[]>> memberDays = new TreeMap<>();
+        private long today;
+
+        // Chỉ dùng khi rebuild: ID các phiếu đã được đếm (bỏ đi khi thay bộ đếm cũ) và số phiếu đã đếm
+        private CountedIds countedIds;
+        private long loadedRows;
+
+        Tallies(long today) {
+            this.today = today;
+            for (RankingWindow window : RankingWindow.values()) {
+                books.put(window, new ConcurrentHashMap<>());
+                members.put(window, new ConcurrentHashMap<>());
+            }
+        }
+
+        void apply(EntityChange change) {
+            if (!(change.getEntity() instanceof Borrowing)) {
+                return;
+            }
+            Borrowing borrowing = (Borrowing) change.getEntity();
+            if (borrowing.getBook() == null || borrowing.getMember() == null) {
+                return;
+            }
+            // Chỉ thêm và xóa phiếu làm đổi số lượt mượn
+            if (change.getType() == EntityChange.Type.INSERT) {
+                record(borrowing.getBook().getBookId(), borrowing.getMember().getMemberId(), borrowing.getBorrowDate(), 1);
+            } else if (change.getType() == EntityChange.Type.DELETE) {
+                record(borrowing.getBook().getBookId(), borrowing.getMember().getMemberId(), borrowing.getBorrowDate(), -1);
+            }
+        }
+
+        void record(Long bookId, Long memberId, LocalDate borrowDate, long delta) {
+            // Ngày mượn trong tương lai được tính như hôm nay
+            long day = borrowDate == null ? today : Math.min(borrowDate.toEpochDay(), today);
+            add(books, bookDays, bookId, day, delta);
+            add(members, memberDays, memberId, day, delta);
+        }
+
+        /**
+         * Trừ khỏi mỗi cửa sổ các ngày vừa ra khỏi cửa sổ đó
+         */
+        void advanceTo(long newToday) {
+            if (newToday <= today) {
+                return;
+            }
+            for (RankingWindow window : RankingWindow.values()) {
+                if (window.getDays() == 0) {
+                    continue;
+                }
+                // Các ngày thuộc cửa sổ cũ nhưng không thuộc cửa sổ mới
+                long from = today - window.getDays() + 1;
+                long to = newToday - window.getDays();
+                expire(books.get(window), bookDays, from, to);
+                expire(members.get(window), memberDays, from, to);
+            }
+            today = newToday;
+            long oldest = today - LONGEST_WINDOW_DAYS + 1;
+            bookDays.headMap(oldest).clear();
+            memberDays.headMap(oldest).clear();
+        }
+
+        private void add(Map<RankingWindow, Map<Long, LongAdder>> counters, TreeMap<Long, Map<Long, long[]>> days,
+                         Long id, long day, long delta) {
+            if (id == null) {
+                return;
+            }
+            for (RankingWindow window : RankingWindow.values()) {
+                if (window.getDays() == 0 || day > today - window.getDays()) {
+                    Map<Long, LongAdder> counts = counters.get(window);
+                    counts.computeIfAbsent(id, key -> new LongAdder()).add(delta);
+                    if (delta < 0 && counts.get(id).sum() <= 0) {
+                        counts.remove(id);
+                    }
+                }
+            }
+            if (day > today - LONGEST_WINDOW_DAYS) {
+                days.computeIfAbsent(day, key -> new HashMap<>()).computeIfAbsent(id, key -> new long[1])[0] += delta;
+            }
+        }
+
+        private static void expire(Map<Long, LongAdder> counts, TreeMap<Long, Map<Long, long[]>> days, long from, long to) {
+            for (Map<Long, long[]> day : days.subMap(from, true, to, true).values()) {
+                day.forEach((id, dayCount) -> {
+                    LongAdder count = counts.get(id);
+                    if (count != null) {
+                        count.add(-dayCount[0]);
+                        if (count.sum() <= 0) {
+                            counts.remove(id);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Tập ID phiếu mượn đã được đếm khi rebuild. ID lấy từ sequence nên dày đặc: BitSet tốn khoảng
+     * 1 bit cho mỗi ID; ID vượt quá Integer.MAX_VALUE được giữ riêng.
+     */
+    private static final class CountedIds {
+        private final BitSet ids = new BitSet();
+        private final Set<Long> largeIds = new HashSet<>();
+
+        /**
+         * @return true nếu ID chưa có trong tập
+         */
+        boolean add(long id) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                return largeIds.add(id);
+            }
+            boolean added = !ids.get((int) id);
+            ids.set((int) id);
+            return added;
+        }
+
+        /**
+         * @return true nếu ID có trong tập
+         */
+        boolean remove(long id) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                return largeIds.remove(id);
+            }
+            boolean removed = ids.get((int) id);
+            ids.clear((int) id);
+            return removed;
+        }
+
+        long size() {
+            return ids.cardinality() + largeIds.size();
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.library.stats;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+import com.library.entity.Borrowing.BorrowingStatus;
+import com.library.entity.Member;
+import com.library.entity.Member.MemberStatus;
+import com.library.event.EntityChange;
+import com.library.event.EntityEventBus;
+import com.library.event.RebuildableListener;
+import com.library.util.HibernateUtil;
+import com.library.util.ProjectionScroll;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Số liệu thống kê cho bảng điều khiển thủ thư (sách có sẵn, sách theo thể loại, phiếu mượn theo
+ * trạng thái, phiếu quá hạn, thành viên theo trạng thái, tổng tiền phạt) được giữ sẵn trong bộ nhớ,
+ * đọc trong O(1) thay vì chạy COUNT/SUM trên toàn bảng ở mỗi lần làm mới.
+ *
+ * Được cập nhật theo từng thay đổi qua EntityEventBus. Mỗi thay đổi được tính bằng cách trừ trạng thái
+ * đã biết của dòng đó và cộng trạng thái mới, nên không cần trạng thái cũ trong sự kiện và áp lại một
+ * thay đổi hai lần không làm sai số liệu. Để tiết kiệm bộ nhớ, chỉ các phiếu mượn chưa trả hoặc có tiền
+ * phạt được giữ theo ID; phiếu không có trong bộ nhớ được coi là đã trả và không có tiền phạt.
+ *
+ * rebuild() dựng lại toàn bộ từ database và được chạy định kỳ bởi start() để đối soát các thay đổi không
+ * đi qua EntityEventBus (SQL thuần, công cụ bên ngoài). Trước lần rebuild() đầu tiên isReady() trả về
+ * false và repository dùng lại truy vấn COUNT/SUM.
+ */
+public final class StatisticsStore extends RebuildableListener<StatisticsStore.Counters> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsStore.class);
+
+    /** Khoảng thời gian giữa hai lần đối soát với database */
+    public static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(10);
+
+    private static final StatisticsStore INSTANCE = new StatisticsStore();
+
+    private final Clock clock;
+    private volatile Counters counters;
+    private volatile boolean ready;
+
+    private ScheduledExecutorService reconciler;
+
+    private StatisticsStore() {
+        this(Clock.systemDefaultZone());
+        EntityEventBus.register(this);
+    }
+
+    StatisticsStore(Clock clock) {
+        super("Số liệu thống kê");
+        this.clock = clock;
+        this.counters = new Counters(LocalDate.now(clock));
+    }
+
+    public static StatisticsStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * true sau khi đã dựng số liệu ít nhất một lần
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized long countAvailableBooks() {
+        return counters.availableBooks;
+    }
+
+    public synchronized long countBooksByCategory(String category) {
+        long[] count = counters.booksByCategory.get(category);
+        return count == null ? 0 : count[0];
+    }
+
+    public synchronized long countBorrowingsByStatus(BorrowingStatus status) {
+        return counters.borrowingsByStatus[status.ordinal()];
+    }
+
+    /**
+     * Số phiếu chưa trả (BORROWED hoặc OVERDUE) có hạn trả trước hôm nay
+     */
+    public synchronized long countOverdueBorrowings() {
+        return counters.overdueAsOf(LocalDate.now(clock));
+    }
+
+    public synchronized long countMembersByStatus(MemberStatus status) {
+        return counters.membersByStatus[status.ordinal()];
+    }
+
+    public synchronized double getTotalFineAmount() {
+        return counters.totalFine;
+    }
+
+    /**
+     * Dựng số liệu lần đầu rồi đối soát lại sau mỗi RECONCILE_INTERVAL trên một thread nền
+     */
+    public void start() {
+        rebuild();
+        synchronized (this) {
+            if (reconciler != null) {
+                return;
+            }
+            reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "statistics-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = RECONCILE_INTERVAL.toMillis();
+            reconciler.scheduleWithFixedDelay(this::reconcile, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    @Override
+    protected Counters load() {
+        return load(LocalDate.now(clock));
+    }
+
+    @Override
+    protected Counters current() {
+        return counters;
+    }
+
+    @Override
+    protected void apply(EntityChange change, Counters target) {
+        target.apply(change);
+    }
+
+    @Override
+    protected void install(Counters rebuilt) {
+        logDrift(counters, rebuilt);
+        counters = rebuilt;
+        ready = true;
+    }
+
+    @Override
+    protected void logRebuilt(Counters rebuilt, long elapsedMillis) {
+        logger.info("Đã dựng số liệu thống kê: {} sách, {} phiếu mượn đang theo dõi, {} thành viên trong {} ms",
+                rebuilt.books.size(), rebuilt.loans.size(), rebuilt.members.size(), elapsedMillis);
+    }
+
+    private void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Lỗi khi đối soát số liệu thống kê: {}", e.getMessage());
+        }
+    }
+
+    private void logDrift(Counters current, Counters rebuilt) {
+        if (!ready) {
+            return;
+        }
+        if (current.availableBooks != rebuilt.availableBooks
+                || Math.abs(current.totalFine - rebuilt.totalFine) >= 0.01
+                || !Arrays.equals(current.borrowingsByStatus, rebuilt.borrowingsByStatus)
+                || !Arrays.equals(current.membersByStatus, rebuilt.membersByStatus)) {
+            logger.warn("Số liệu thống kê lệch so với database (có thay đổi không qua EntityEventBus), đã đối soát lại");
+        }
+    }
+
+    private static Counters load(LocalDate today) {
+        Counters loaded = new Counters(today);
+        ProjectionScroll.forEach("SELECT b.bookId, b.category, b.available FROM Book b",
+                row -> loaded.putBook((Long) row[0], new BookState((String) row[1], Boolean.TRUE.equals(row[2]))));
+        ProjectionScroll.forEach("SELECT m.memberId, m.status FROM Member m",
+                row -> loaded.putMember((Long) row[0], (MemberStatus) row[1]));
+
+        // Phiếu đã trả và không có tiền phạt chỉ được đếm, không giữ theo ID
+        ProjectionScroll.forEach("SELECT b.borrowingId, b.status, b.dueDate, b.fineAmount FROM Borrowing b " +
+                        "WHERE b.status <> :returned OR b.fineAmount <> 0",
+                Collections.singletonMap("returned", BorrowingStatus.RETURNED),
+                row -> loaded.putLoan((Long) row[0], null, new LoanState((BorrowingStatus) row[1], (LocalDate) row[2], (Double) row[3])));
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Long settled = session.createQuery(
+                    "SELECT COUNT(b) FROM Borrowing b WHERE b.status = :returned AND (b.fineAmount IS NULL OR b.fineAmount = 0)",
+                    Long.class)
+                    .setParameter("returned", BorrowingStatus.RETURNED)
+                    .uniqueResult();
+            loaded.borrowingsByStatus[BorrowingStatus.RETURNED.ordinal()] += settled;
+        }
+        return loaded;
+    }
+
+    /**
+     * Bộ số liệu được thay thế nguyên khối khi rebuild; chỉ truy cập khi giữ khóa của StatisticsStore
+     */
+    static final class Counters {
+        private final Map<Long, BookState> books = new HashMap<>();
+        private final Map<String, long[]> booksByCategory = new HashMap<>();
+        private long availableBooks;
+
+        private final Map<Long, MemberStatus> members = new HashMap<>();
+        private final long[] membersByStatus = new long[MemberStatus.values().length];
+
+        // Phiếu chưa trả hoặc có tiền phạt
+        private final Map<Long, LoanState> loans = new HashMap<>();
+        private final long[] borrowingsByStatus = new long[BorrowingStatus.values().length];
+        private double totalFine;
+
+        // Hạn trả -> số phiếu chưa trả, để tính lại số phiếu quá hạn khi sang ngày mới
+        private final TreeMap<LocalDate, long[]> openLoansByDueDate = new TreeMap<>();
+        private LocalDate overdueDate;
+        private long overdueLoans;
+
+        Counters(LocalDate today) {
+            this.overdueDate = today;
+        }
+
+        long overdueAsOf(LocalDate today) {
+            if (!today.equals(overdueDate)) {
+                long count = 0;
+                for (long[] loansDue : openLoansByDueDate.headMap(today, false).values()) {
+                    count += loansDue[0];
+                }
+                overdueLoans = count;
+                overdueDate = today;
+            }
+            return overdueLoans;
+        }
+
+        void apply(EntityChange change) {
+            if (change.getId() == null) {
+                return;
+            }
+            long id = ((Number) change.getId()).longValue();
+            boolean delete = change.getType() == EntityChange.Type.DELETE;
+            if (change.isFor(Book.class)) {
+                BookState previous = books.get(id);
+                putBook(id, delete ? null : bookState(change, previous));
+            } else if (change.isFor(Borrowing.class)) {
+                LoanState previous = loans.get(id);
+                if (previous == null && change.getType() != EntityChange.Type.INSERT) {
+                    // Phiếu không được giữ trong bộ nhớ là phiếu đã trả, không có tiền phạt
+                    previous = LoanState.SETTLED;
+                }
+                putLoan(id, previous, delete ? null : loanState(change, previous));
+            } else if (change.isFor(Member.class)) {
+                MemberStatus previous = members.get(id);
+                putMember(id, delete ? null : memberStatus(change, previous));
+            }
+        }
+
+        void putBook(long id, BookState state) {
+            BookState previous = state == null ? books.remove(id) : books.put(id, state);
+            if (previous != null) {
+                countBook(previous, -1);
+            }
+            if (state != null) {
+                countBook(state, 1);
+            }
+        }
+
+        void putMember(long id, MemberStatus status) {
+            MemberStatus previous = status == null ? members.remove(id) : members.put(id, status);
+            if (previous != null) {
+                membersByStatus[previous.ordinal()]--;
+            }
+            if (status != null) {
+                membersByStatus[status.ordinal()]++;
+            }
+        }
+
+        void putLoan(long id, LoanState previous, LoanState state) {
+            if (state != null && state.isTracked()) {
+                loans.put(id, state);
+            } else {
+                loans.remove(id);
+            }
+            if (previous != null) {
+                countLoan(previous, -1);
+            }
+            if (state != null) {
+                countLoan(state, 1);
+            }
+        }
+
+        private void countBook(BookState state, int delta) {
+            long[] count = booksByCategory.computeIfAbsent(state.category, category -> new long[1]);
+            count[0] += delta;
+            if (count[0] == 0) {
+                booksByCategory.remove(state.category);
+            }
+            if (state.available) {
+                availableBooks += delta;
+            }
+        }
+
+        private void countLoan(LoanState state, int delta) {
+            borrowingsByStatus[state.status.ordinal()] += delta;
+            totalFine += delta * state.fineAmount;
+            if (state.isOpen() && state.dueDate != null) {
+                long[] count = openLoansByDueDate.computeIfAbsent(state.dueDate, date -> new long[1]);
+                count[0] += delta;
+                if (count[0] == 0) {
+                    openLoansByDueDate.remove(state.dueDate);
+                }
+                if (state.dueDate.isBefore(overdueDate)) {
+                    overdueLoans += delta;
+                }
+            }
+        }
+
+        private static BookState bookState(EntityChange change, BookState previous) {
+            if (change.getEntity() instanceof Book) {
+                Book book = (Book) change.getEntity();
+                return new BookState(book.getCategory(), Boolean.TRUE.equals(book.getAvailable()));
+            }
+            // UPDATE hàng loạt: chỉ có các cột đã đổi
+            String category = change.hasProperty("category") ? (String) change.getNewValue("category")
+                    : previous != null ? previous.category : null;
+            boolean available = change.hasProperty("available") ? Boolean.TRUE.equals(change.getNewValue("available"))
+                    : previous != null && previous.available;
+            return new BookState(category, available);
+        }
+
+        private static LoanState loanState(EntityChange change, LoanState previous) {
+            if (change.getEntity() instanceof Borrowing) {
+                Borrowing borrowing = (Borrowing) change.getEntity();
+                return new LoanState(borrowing.getStatus(), borrowing.getDueDate(), borrowing.getFineAmount());
+            }
+            LoanState base = previous != null ? previous : LoanState.SETTLED;
+            // UPDATE hàng loạt: chỉ có các cột đã đổi
+            BorrowingStatus status = change.hasProperty("status") ? (BorrowingStatus) change.getNewValue("status") : base.status;
+            LocalDate dueDate = change.hasProperty("dueDate") ? (LocalDate) change.getNewValue("dueDate") : base.dueDate;
+            Double fineAmount = change.hasProperty("fineAmount") ? (Double) change.getNewValue("fineAmount") : base.fineAmount;
+            return new LoanState(status, dueDate, fineAmount);
+        }
+
+        private static MemberStatus memberStatus(EntityChange change, MemberStatus previous) {
+            if (change.getEntity() instanceof Member) {
+                return ((Member) change.getEntity()).getStatus();
+            }
+            return change.hasProperty("status") ? (MemberStatus) change.getNewValue("status") : previous;
+        }
+    }
+
+    private static final class BookState {
+        private final String category;
+        private final boolean available;
+
+        private BookState(String category, boolean available) {
+            this.category = category;
+            this.available = available;
+        }
+    }
+
+    private static final class LoanState {
+        private static final LoanState SETTLED = new LoanState(BorrowingStatus.RETURNED, null, 0.0);
+
+        private final BorrowingStatus status;
+        private final LocalDate dueDate;
+        private final double fineAmount;
+
+        private LoanState(BorrowingStatus status, LocalDate dueDate, Double fineAmount) {
+            this.status = status != null ? status : BorrowingStatus.BORROWED;
+            this.dueDate = dueDate;
+            this.fineAmount = fineAmount != null ? fineAmount : 0.0;
+        }
+
+        private boolean isOpen() {
+            return status == BorrowingStatus.BORROWED || status == BorrowingStatus.OVERDUE;
+        }
+
+        private boolean isTracked() {
+            return status != BorrowingStatus.RETURNED || fineAmount != 0.0;
+        }
+    }
+}
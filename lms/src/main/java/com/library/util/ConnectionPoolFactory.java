@@ -0,0 +1,73 @@
+package com.library.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.Properties;
+
+/**
+ * Tạo DataSource có connection pool (HikariCP) từ các thuộc tính trong hibernate.cfg.xml.
+ * Các thuộc tính pool dùng tiền tố "hibernate.pool." (khai báo "pool.*" trong file cấu hình).
+ */
+public final class ConnectionPoolFactory {
+
+    public static final String POOL_PREFIX = "hibernate.pool.";
+
+    private ConnectionPoolFactory() {
+    }
+
+    /**
+     * Tạo HikariDataSource
+     * @param settings Thuộc tính cấu hình Hibernate
+     * @param metricsTrackerFactory Nơi nhận số liệu của pool
+     * @return DataSource đã khởi tạo pool
+     */
+    public static HikariDataSource create(Properties settings, MetricsTrackerFactory metricsTrackerFactory) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(settings.getProperty(POOL_PREFIX + "name", "library-pool"));
+
+        String driverClass = settings.getProperty(AvailableSettings.DRIVER);
+        if (driverClass != null) {
+            config.setDriverClassName(driverClass);
+        }
+        config.setJdbcUrl(settings.getProperty(AvailableSettings.URL));
+        config.setUsername(settings.getProperty(AvailableSettings.USER));
+        config.setPassword(settings.getProperty(AvailableSettings.PASS));
+
+        config.setMinimumIdle(getInt(settings, "minimum_idle", 5));
+        config.setMaximumPoolSize(getInt(settings, "maximum_size", 20));
+        config.setConnectionTimeout(getLong(settings, "acquire_timeout_ms", 3_000L));
+        config.setLeakDetectionThreshold(getLong(settings, "leak_detection_threshold_ms", 10_000L));
+        config.setIdleTimeout(getLong(settings, "idle_timeout_ms", 600_000L));
+        config.setMaxLifetime(getLong(settings, "max_lifetime_ms", 1_800_000L));
+        // Hibernate tự quản lý transaction nên tắt auto-commit ngay từ pool
+        config.setAutoCommit(false);
+
+        if (config.getJdbcUrl() != null && config.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            // Cache prepared statement phía driver MySQL
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            // Gộp JDBC batch thành INSERT nhiều dòng
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+            // Dùng server-side cursor khi statement có fetch size > 0 (streaming finder),
+            // nếu không driver MySQL nạp toàn bộ result set vào bộ nhớ
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
+
+        config.setMetricsTrackerFactory(metricsTrackerFactory);
+        return new HikariDataSource(config);
+    }
+
+    private static int getInt(Properties settings, String key, int defaultValue) {
+        String value = settings.getProperty(POOL_PREFIX + key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(POOL_PREFIX + key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thu thập số liệu của connection pool: histogram thời gian chờ lấy connection,
+ * thời gian giữ connection và các gauge active/idle/waiting.
+ * Được HikariCP gọi thông qua MetricsTrackerFactory, đọc được từ bất kỳ đâu qua HibernateUtil.getPoolMetrics().
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LatencyHistogram usageLatency = new LatencyHistogram();
+    private final LongAdder connectionTimeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    /**
+     * Số connection đang được sử dụng
+     */
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    /**
+     * Số connection đang rảnh trong pool
+     */
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    /**
+     * Tổng số connection (active + idle)
+     */
+    public int getTotalConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getTotalConnections() : 0;
+    }
+
+    /**
+     * Số thread đang chờ lấy connection
+     */
+    public int getWaitingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    /**
+     * Histogram thời gian chờ lấy connection từ pool
+     */
+    public LatencyHistogram.Snapshot getAcquireLatency() {
+        return acquireLatency.snapshot();
+    }
+
+    /**
+     * Histogram thời gian giữ connection (từ lúc lấy đến lúc trả)
+     */
+    public LatencyHistogram.Snapshot getUsageLatency() {
+        return usageLatency.snapshot();
+    }
+
+    /**
+     * Số lần lấy connection bị timeout
+     */
+    public long getConnectionTimeouts() {
+        return connectionTimeouts.sum();
+    }
+
+    /**
+     * Số connection vật lý đã được tạo
+     */
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolMetrics{" +
+                "active=" + getActiveConnections() +
+                ", idle=" + getIdleConnections() +
+                ", waiting=" + getWaitingThreads() +
+                ", timeouts=" + getConnectionTimeouts() +
+                ", acquire=" + getAcquireLatency() +
+                '}';
+    }
+
+    private class Tracker implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            connectionsCreated.increment();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireLatency.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageLatency.record(elapsedBorrowedMillis * 1_000_000L);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            connectionTimeouts.increment();
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.library.util;
 
+import com.library.event.EntityEventIntegrator;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.SessionFactory;
+import org.hibernate.boot.registry.BootstrapServiceRegistry;
+import org.hibernate.boot.registry.BootstrapServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +20,12 @@ public final class HibernateUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
 
+    // Số liệu của connection pool (phải khởi tạo trước SessionFactory)
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+
+    // Connection pool dùng chung cho SessionFactory
+    private static HikariDataSource dataSource;
+
     // Singleton instance
     private static final SessionFactory sessionFactory = buildSessionFactory();
 
@@ -24,9 +38,21 @@ public final class HibernateUtil {
      */
     private static SessionFactory buildSessionFactory() {
         try {
-            Configuration configuration = new Configuration();
+            // Chuyển các thay đổi entity đã commit sang EntityEventBus (chỉ mục tìm kiếm, thống kê...)
+            BootstrapServiceRegistry bootstrapRegistry = new BootstrapServiceRegistryBuilder()
+                    .applyIntegrator(new EntityEventIntegrator())
+                    .build();
+            Configuration configuration = new Configuration(bootstrapRegistry);
             configuration.configure("hibernate.cfg.xml"); // nạp cấu hình từ classpath
 
+            // Thay pool mặc định của Hibernate bằng HikariCP
+            dataSource = ConnectionPoolFactory.create(configuration.getProperties(), poolMetrics);
+            configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+            configuration.setProperty(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, "true");
+
+            // days_between(from, to): số ngày từ from tới to, dùng để tính tiền phạt trong các câu UPDATE hàng loạt
+            configuration.addSqlFunction("days_between", daysBetween(configuration.getProperty(AvailableSettings.DIALECT)));
+
             // Nếu dùng annotated entity, có thể thêm vào đây
             // configuration.addAnnotatedClass(Book.class);
             // configuration.addAnnotatedClass(Author.class);
@@ -39,6 +65,16 @@ public final class HibernateUtil {
         }
     }
 
+    /**
+     * DATEDIFF có thứ tự tham số khác nhau giữa H2 (dùng cho test) và MySQL
+     */
+    private static SQLFunction daysBetween(String dialect) {
+        String template = dialect != null && dialect.contains("H2")
+                ? "DATEDIFF(DAY, ?1, ?2)"
+                : "DATEDIFF(?2, ?1)";
+        return new SQLFunctionTemplate(StandardBasicTypes.LONG, template);
+    }
+
     /**
      * Lấy SessionFactory (dùng chung cho toàn ứng dụng).
      */
@@ -46,6 +82,13 @@ public final class HibernateUtil {
         return sessionFactory;
     }
 
+    /**
+     * Lấy số liệu của connection pool (active/idle/waiting, độ trễ lấy connection).
+     */
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
     /**
      * Đóng SessionFactory khi ứng dụng kết thúc.
      */
@@ -54,5 +97,9 @@ public final class HibernateUtil {
             sessionFactory.close();
             logger.info("Hibernate SessionFactory closed");
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            logger.info("Connection pool closed: {}", poolMetrics);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.library.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram độ trễ dạng bucket lũy thừa 2 (tính bằng micro giây).
+ * Ghi nhận không khóa, an toàn khi nhiều thread cùng ghi.
+ */
+public class LatencyHistogram {
+
+    // Bucket i chứa các giá trị trong khoảng [2^(i-1), 2^i) micro giây, bucket cuối là tràn
+    private static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * Ghi nhận một giá trị độ trễ
+     * @param nanos Độ trễ tính bằng nano giây
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1_000L);
+        buckets.incrementAndGet(bucketIndex(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * Lấy ảnh chụp hiện tại của histogram
+     * @return Snapshot bất biến
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), sumMicros.sum(), maxMicros.get());
+    }
+
+    private static int bucketIndex(long micros) {
+        int index = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Cận trên (micro giây) của bucket
+     */
+    static long upperBoundMicros(int index) {
+        return index >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << index);
+    }
+
+    /**
+     * Ảnh chụp bất biến của histogram tại một thời điểm
+     */
+    public static final class Snapshot {
+        private final long[] bucketCounts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] bucketCounts, long count, long sumMicros, long maxMicros) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getMeanMicros() {
+            return count == 0 ? 0.0 : (double) sumMicros / count;
+        }
+
+        /**
+         * Ước lượng percentile theo cận trên của bucket
+         * @param percentile Giá trị trong khoảng (0, 100]
+         * @return Độ trễ (micro giây)
+         */
+        public long getPercentileMicros(double percentile) {
+            if (count == 0) return 0L;
+            long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundMicros(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        /**
+         * Số lượng mẫu trong từng bucket (bucket i có cận trên 2^i micro giây)
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "LatencyHistogram{" +
+                    "count=" + count +
+                    ", meanMicros=" + String.format("%.1f", getMeanMicros()) +
+                    ", p50=" + getPercentileMicros(50) +
+                    ", p99=" + getPercentileMicros(99) +
+                    ", maxMicros=" + maxMicros +
+                    '}';
+        }
+    }
+}
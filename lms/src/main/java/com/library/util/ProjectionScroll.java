@@ -0,0 +1,77 @@
+package com.library.util;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Duyệt kết quả projection (các cột, không phải entity) theo luồng với bộ nhớ không đổi, dùng khi nạp
+ * các chỉ mục và bộ đếm trong bộ nhớ.
+ *
+ * Mỗi lần duyệt dùng một Session read-only riêng, bỏ qua second-level cache và đọc bằng ScrollableResults
+ * FORWARD_ONLY theo từng đợt fetch size dòng (cấu hình bằng hibernate.stream.fetch_size, như StreamingQuery).
+ * Projection không tạo entity nên persistence context không lớn dần trong lúc duyệt.
+ */
+public final class ProjectionScroll {
+
+    public static final String FETCH_SIZE_SETTING = "hibernate.stream.fetch_size";
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    private ProjectionScroll() {
+    }
+
+    public static void forEach(String hql, Consumer<Object[]> consumer) {
+        forEach(HibernateUtil.getSessionFactory(), hql, Collections.emptyMap(), consumer);
+    }
+
+    public static void forEach(String hql, Map<String, ?> parameters, Consumer<Object[]> consumer) {
+        forEach(HibernateUtil.getSessionFactory(), hql, parameters, consumer);
+    }
+
+    /**
+     * Gọi consumer cho từng dòng kết quả
+     * @param hql Câu SELECT trả về nhiều cột
+     * @param parameters Tham số đặt tên (Collection được bind bằng setParameterList)
+     */
+    public static void forEach(SessionFactory sessionFactory, String hql, Map<String, ?> parameters,
+                               Consumer<Object[]> consumer) {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            Query<Object[]> query = session.createQuery(hql, Object[].class);
+            for (Map.Entry<String, ?> parameter : parameters.entrySet()) {
+                if (parameter.getValue() instanceof Collection) {
+                    query.setParameterList(parameter.getKey(), (Collection<?>) parameter.getValue());
+                } else {
+                    query.setParameter(parameter.getKey(), parameter.getValue());
+                }
+            }
+            query.setFetchSize(fetchSize(sessionFactory));
+            try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetch size cấu hình bằng hibernate.stream.fetch_size, mặc định DEFAULT_FETCH_SIZE
+     */
+    public static int fetchSize(SessionFactory sessionFactory) {
+        Object value = sessionFactory.getProperties().get(FETCH_SIZE_SETTING);
+        if (value == null) {
+            return DEFAULT_FETCH_SIZE;
+        }
+        int fetchSize = Integer.parseInt(value.toString().trim());
+        return fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+    }
+}
@@ -0,0 +1,242 @@
+package com.library.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache đọc xuyên (read-through) có giới hạn số mục và thời gian sống, dùng ở tầng service.
+ *
+ * Khi nhiều thread cùng hỏi một key chưa có trong cache, chỉ thread đầu tiên gọi loader,
+ * các thread còn lại chờ kết quả của lần tải đó (single-flight). Giá trị null (không tìm thấy)
+ * không được lưu. invalidate() trong lúc đang tải sẽ ngăn kết quả của lần tải đó được lưu lại.
+ * Giá trị trả về được chia sẻ giữa các thread nên người gọi không được sửa đổi.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReadThroughCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    ReadThroughCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize phải lớn hơn 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Lấy giá trị từ cache, tải bằng loader nếu chưa có hoặc đã hết hạn
+     * @param key Khóa
+     * @param loader Hàm tải từ nguồn (database), có thể trả về null
+     * @return Giá trị, null nếu loader trả về null
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAtNanos - nanoClock.getAsLong() > 0) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        try {
+            loads.increment();
+            V value = loader.apply(key);
+            if (value != null) {
+                store(key, value, future);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Xóa một key (gọi sau khi dữ liệu nguồn thay đổi)
+     */
+    public void invalidate(K key) {
+        // Bỏ lần tải đang chạy trước, để kết quả cũ của nó không được lưu lại sau khi xóa
+        inFlight.remove(key);
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), coalesced.sum(), evictions.sum(), entries.size());
+    }
+
+    private void store(K key, V value, CompletableFuture<V> future) {
+        Entry<V> entry = new Entry<>(value, nanoClock.getAsLong() + ttlNanos);
+        // Chỉ lưu nếu lần tải này chưa bị invalidate() hủy
+        entries.compute(key, (k, old) -> inFlight.get(k) == future ? entry : old);
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Xóa các mục hết hạn, sau đó các mục cũ nhất cho tới khi còn 90% giới hạn
+     * (chừa chỗ để không phải quét lại sau mỗi lần thêm)
+     */
+    private synchronized void evict() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        List<Map.Entry<K, Entry<V>>> live = new ArrayList<>(entries.size());
+        for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+            if (candidate.getValue().expiresAtNanos - now <= 0) {
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.increment();
+                }
+            } else {
+                live.add(candidate);
+            }
+        }
+        int target = Math.max(1, maxSize - maxSize / 10);
+        if (live.size() <= target) {
+            return;
+        }
+        live.sort(Comparator.comparingLong(candidate -> candidate.getValue().expiresAtNanos - now));
+        for (int i = 0; i < live.size() - target; i++) {
+            if (entries.remove(live.get(i).getKey(), live.get(i).getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Ảnh chụp số liệu của cache
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long coalescedCount;
+        private final long evictionCount;
+        private final int size;
+
+        Stats(long hitCount, long missCount, long loadCount, long coalescedCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.coalescedCount = coalescedCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Số lần thực sự gọi loader (số lần miss trừ các lần chờ chung một lần tải)
+         */
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        /**
+         * Số lần miss được gộp vào lần tải của thread khác
+         */
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "ReadThroughCache{" +
+                    "hits=" + hitCount +
+                    ", misses=" + missCount +
+                    ", loads=" + loadCount +
+                    ", coalesced=" + coalescedCount +
+                    ", evictions=" + evictionCount +
+                    ", size=" + size +
+                    ", hitRate=" + String.format("%.3f", getHitRate()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.util;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Member;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Điền các cột chuẩn hóa (title_normalized, name_normalized) cho dữ liệu có từ trước khi thêm cột.
+ * Chỉ duyệt các dòng còn NULL nên chạy lại khi khởi động gần như không tốn chi phí.
+ */
+public final class SearchColumnBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchColumnBackfill.class);
+
+    private SearchColumnBackfill() {
+    }
+
+    /**
+     * @return Tổng số dòng đã cập nhật
+     */
+    public static int run() {
+        int updated = backfill(Book.class, "FROM Book b WHERE b.titleNormalized IS NULL", book -> book.setTitle(book.getTitle()));
+        updated += backfill(Author.class, "FROM Author a WHERE a.nameNormalized IS NULL", author -> author.setName(author.getName()));
+        updated += backfill(Member.class, "FROM Member m WHERE m.nameNormalized IS NULL", member -> member.setName(member.getName()));
+        if (updated > 0) {
+            logger.info("Đã điền cột chuẩn hóa cho {} dòng", updated);
+        }
+        return updated;
+    }
+
+    private static <T> int backfill(Class<T> entityClass, String hql, Consumer<T> normalize) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            Session session = unitOfWork.getSession();
+            Query<T> query = session.createQuery(hql, entityClass);
+            query.setFetchSize(unitOfWork.getBatchSize());
+            int processed = 0;
+            try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    // Gọi lại setter để entity bị đánh dấu thay đổi và cột chuẩn hóa được tính
+                    normalize.accept(entityClass.cast(results.get(0)));
+                    unitOfWork.flushIfBatchFull(++processed);
+                }
+            }
+            unitOfWork.commit();
+            return processed;
+        } catch (Exception e) {
+            logger.error("Lỗi khi điền cột chuẩn hóa cho {}: {}", entityClass.getSimpleName(), e.getMessage());
+            throw new RuntimeException("Không thể điền cột chuẩn hóa", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa chuỗi để so khớp không phân biệt hoa thường và dấu tiếng Việt
+ * ("Nguyễn Đình" -> "nguyen dinh").
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Bỏ dấu và chuyển về chữ thường
+     * @param text Chuỗi gốc, có thể null
+     * @return Chuỗi đã chuẩn hóa, null nếu đầu vào null
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        // "đ" không phải ký tự tổ hợp nên NFD không tách được
+        return stripped.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Mẫu LIKE "chứa chuỗi" trên cột đã chuẩn hóa: dạng '%abc%', khớp ở bất kỳ vị trí nào
+     * ("van a" khớp "Nguyễn Văn A")
+     * @param text Chuỗi người dùng nhập
+     * @return Mẫu LIKE đã chuẩn hóa
+     */
+    public static String likeContains(String text) {
+        return "%" + fold(text == null ? "" : text.trim()) + "%";
+    }
+}
@@ -0,0 +1,215 @@
+package com.library.util;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unit of work gắn với thread hiện tại: một Session và một transaction dùng chung
+ * cho nhiều lời gọi repository.
+ *
+ * Lời gọi begin()/read() đầu tiên trên thread mở Session (chủ sở hữu); các lời gọi lồng
+ * bên trong tham gia vào Session đó, commit() và close() của chúng không có tác dụng.
+ * Chỉ chủ sở hữu mới commit thật sự; nếu một thành phần tham gia đóng mà chưa commit
+ * thì cả unit of work bị đánh dấu rollback.
+ *
+ * <pre>
+ * try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+ *     ... gọi nhiều repository ...
+ *     unitOfWork.commit();
+ * }
+ * </pre>
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Session session;
+    private final UnitOfWork owner;      // null nếu đây là chủ sở hữu Session
+    private final boolean transactional;
+    private boolean completed;
+    private boolean rollbackOnly;
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+
+    private UnitOfWork(Session session, UnitOfWork owner, boolean transactional) {
+        this.session = session;
+        this.owner = owner;
+        this.transactional = transactional;
+    }
+
+    /**
+     * Bắt đầu (hoặc tham gia) unit of work có transaction
+     */
+    public static UnitOfWork begin() {
+        return begin(HibernateUtil.getSessionFactory());
+    }
+
+    /**
+     * Bắt đầu (hoặc tham gia) unit of work có transaction trên SessionFactory chỉ định
+     */
+    public static UnitOfWork begin(SessionFactory sessionFactory) {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            return new UnitOfWork(current.session, current, true);
+        }
+        Session session = sessionFactory.openSession();
+        try {
+            session.beginTransaction();
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+        UnitOfWork unitOfWork = new UnitOfWork(session, null, true);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Mở Session chỉ đọc (không transaction), hoặc tham gia unit of work đang chạy
+     */
+    public static UnitOfWork read() {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            return new UnitOfWork(current.session, current, false);
+        }
+        return new UnitOfWork(HibernateUtil.getSessionFactory().openSession(), null, false);
+    }
+
+    /**
+     * Unit of work đang chạy trên thread hiện tại (nếu có)
+     */
+    public static Optional<UnitOfWork> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Kiểm tra thread hiện tại có unit of work đang chạy không
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * true nếu unit of work này sở hữu Session (không phải tham gia vào unit of work bên ngoài)
+     */
+    public boolean isOwner() {
+        return owner == null;
+    }
+
+    /**
+     * Kích thước JDBC batch cấu hình trong hibernate.jdbc.batch_size (1 nếu không bật batch)
+     */
+    public int getBatchSize() {
+        int batchSize = session.getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : 1;
+    }
+
+    /**
+     * Gọi sau mỗi entity được ghi trong vòng lặp: đủ một batch thì flush để gửi JDBC batch,
+     * và clear persistence context nếu Session thuộc về unit of work này
+     * (không clear Session của unit of work bên ngoài vì caller còn giữ entity).
+     * @param processed Số entity đã ghi tính đến hiện tại
+     */
+    public void flushIfBatchFull(int processed) {
+        if (processed % getBatchSize() != 0) {
+            return;
+        }
+        session.flush();
+        if (isOwner()) {
+            session.clear();
+        }
+    }
+
+    /**
+     * Commit transaction. Với thành phần tham gia, chỉ đánh dấu đã hoàn tất.
+     */
+    public void commit() {
+        if (owner != null || !transactional) {
+            completed = true;
+            return;
+        }
+        if (rollbackOnly) {
+            // close() sẽ rollback vì unit of work chưa hoàn tất
+            throw new IllegalStateException("Unit of work đã bị đánh dấu rollback");
+        }
+        session.getTransaction().commit();
+        completed = true;
+        runAfterCommitActions();
+    }
+
+    /**
+     * Đăng ký hành động chạy sau khi transaction của chủ sở hữu commit thành công
+     * (bị bỏ qua nếu rollback). Unit of work không có transaction chạy hành động ngay.
+     * Dùng để công bố thay đổi của các câu UPDATE hàng loạt cho các cấu trúc trong bộ nhớ.
+     */
+    public void afterCommit(Runnable action) {
+        if (owner != null) {
+            owner.afterCommit(action);
+        } else if (!transactional) {
+            runSafely(action);
+        } else {
+            afterCommitActions.add(action);
+        }
+    }
+
+    private void runAfterCommitActions() {
+        List<Runnable> actions = new ArrayList<>(afterCommitActions);
+        afterCommitActions.clear();
+        for (Runnable action : actions) {
+            runSafely(action);
+        }
+    }
+
+    private static void runSafely(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            // Transaction đã commit, lỗi của hành động sau commit không được làm hỏng lời gọi
+            logger.error("Lỗi khi chạy hành động sau commit: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Đánh dấu unit of work chỉ được rollback
+     */
+    public void setRollbackOnly() {
+        if (owner != null) {
+            owner.setRollbackOnly();
+        } else {
+            rollbackOnly = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (owner != null) {
+            if (transactional && !completed) {
+                owner.setRollbackOnly();
+            }
+            return;
+        }
+        try {
+            Transaction transaction = session.getTransaction();
+            if (transactional && !completed && transaction.isActive()) {
+                transaction.rollback();
+            }
+        } finally {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+            session.close();
+        }
+    }
+}
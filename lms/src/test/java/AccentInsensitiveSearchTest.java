@@ -0,0 +1,75 @@
+package com.library.repository.impl;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.dto.BookSummary;
+import com.library.dto.MemberSummary;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.PageRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccentInsensitiveSearchTest {
+
+    private final BookRepository bookRepository = new BookRepositoryImpl();
+    private final MemberRepository memberRepository = new MemberRepositoryImpl();
+
+    @Test
+    void findByName_matchesWithoutDiacritics() {
+        Member member = memberRepository.save(new Member("Nguyễn Văn Ánh", "nva-" + System.nanoTime() + "@test.vn", "0911111111"));
+
+        List<Member> found = memberRepository.findByName("nguyen van anh");
+
+        assertTrue(found.stream().anyMatch(m -> m.getMemberId().equals(member.getMemberId())));
+        assertEquals("nguyen van anh", found.get(0).getNameNormalized());
+    }
+
+    @Test
+    void findByName_matchesInTheMiddleOfTheName() {
+        Member member = memberRepository.save(new Member("Nguyễn Văn A", "nvaa-" + System.nanoTime() + "@test.vn", "0922222222"));
+
+        assertTrue(memberRepository.findByName("van a").stream()
+                .anyMatch(m -> m.getMemberId().equals(member.getMemberId())));
+        Author author = new AuthorRepositoryImpl().save(new Author("Trần Đăng Khoa"));
+        assertTrue(new AuthorRepositoryImpl().findByName("dang khoa").stream()
+                .anyMatch(a -> a.getAuthorId().equals(author.getAuthorId())));
+    }
+
+    @Test
+    void findByTitleAndAuthorName_useNormalizedColumns() {
+        Book book = new Book("Truyện Kiều", "ACCENT-1", "Văn học");
+        book.getAuthors().add(new AuthorRepositoryImpl().save(new Author("Nguyễn Du")));
+        bookRepository.save(book);
+
+        assertEquals(1, bookRepository.findByTitle("TRUYEN KIEU").size());
+        assertEquals(1, bookRepository.findByAuthorName("nguyen du").size());
+
+        Book saved = bookRepository.findByTitle("kieu").get(0);
+        saved.setTitle("Truyện Kiều (tái bản)");
+        bookRepository.update(saved);
+        assertEquals("truyen kieu (tai ban)", bookRepository.findById(saved.getBookId()).orElseThrow().getTitleNormalized());
+    }
+
+    @Test
+    void entityAndSummarySearches_matchWithoutDiacritics() {
+        Book book = bookRepository.save(new Book("Người Lái Đò Sông Đà", "ACCENT-" + System.nanoTime(), "Tùy bút"));
+        Member member = memberRepository.save(new Member("Phạm Thị Hương", "pth-" + System.nanoTime() + "@test.vn", "0933333333"));
+
+        assertTrue(bookRepository.searchBooks("lai do").stream().anyMatch(b -> b.getBookId().equals(book.getBookId())));
+        assertTrue(bookRepository.searchBooks("lai do", PageRequest.of(1_000)).getContent().stream()
+                .anyMatch(b -> b.getBookId().equals(book.getBookId())));
+        assertTrue(bookRepository.searchBookSummaries("lai do").stream()
+                .map(BookSummary::getBookId).anyMatch(book.getBookId()::equals));
+
+        assertTrue(memberRepository.searchMembers("thi huong").stream().anyMatch(m -> m.getMemberId().equals(member.getMemberId())));
+        assertTrue(memberRepository.searchMembers("thi huong", PageRequest.of(1_000)).getContent().stream()
+                .anyMatch(m -> m.getMemberId().equals(member.getMemberId())));
+        assertTrue(memberRepository.searchMemberSummaries("thi huong").stream()
+                .map(MemberSummary::getMemberId).anyMatch(member.getMemberId()::equals));
+    }
+}
@@ -0,0 +1,82 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.event.EntityChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookBitmapIndexTest {
+
+    private BookBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookBitmapIndex();
+        index.onChange(insert(book(1L, "Java", true)));
+        index.onChange(insert(book(2L, "Java", false)));
+        index.onChange(insert(book(3L, "History", true)));
+        index.onChange(insert(book(5L, "Java", true)));
+    }
+
+    @Test
+    void countAndFind_intersectAvailabilityWithCategory() {
+        assertEquals(3, index.countAvailable(null));
+        assertEquals(2, index.countAvailable("Java"));
+        assertEquals(0, index.countAvailable("Unknown"));
+        assertEquals(List.of(1L, 5L), index.findAvailableIds("Java", null, 10));
+        assertEquals(List.of(3L, 5L), index.findAvailableIds(null, 1L, 10));
+        assertEquals(List.of(1L), index.findAvailableIds(null, null, 1));
+    }
+
+    @Test
+    void checkoutAndReturn_updateAvailability() {
+        index.onChange(EntityChange.bulkUpdate(Book.class, 1L, "available", true, false));
+        assertEquals(List.of(5L), index.findAvailableIds("Java", null, 10));
+
+        index.onChange(EntityChange.bulkUpdate(Book.class, 2L, "available", false, true));
+        assertEquals(List.of(2L, 5L), index.findAvailableIds("Java", null, 10));
+        assertEquals(3, index.countAvailable(null));
+    }
+
+    @Test
+    void categoryChangeAndDelete_moveBookBetweenBitmaps() {
+        index.onChange(new EntityChange(EntityChange.Type.UPDATE, Book.class, 5L, book(5L, "History", true), null, null, null));
+        assertEquals(1, index.countAvailable("Java"));
+        assertEquals(List.of(3L, 5L), index.findAvailableIds("History", null, 10));
+
+        index.onChange(new EntityChange(EntityChange.Type.DELETE, Book.class, 3L, book(3L, "History", true), null, null, null));
+        assertEquals(List.of(5L), index.findAvailableIds("History", null, 10));
+        assertEquals(2, index.countAvailable(null));
+    }
+
+    @Test
+    void sparseIds_costPerBookNotPerMaxId() {
+        BookBitmapIndex sparse = new BookBitmapIndex();
+        for (long id = 1_000_000L; id <= 2_000_000_000L; id += 1_000_000L) {
+            sparse.onChange(insert(book(id, id % 2_000_000L == 0 ? "Java" : "History", true)));
+        }
+
+        assertEquals(2_000, sparse.countAvailable(null));
+        assertEquals(1_000, sparse.countAvailable("Java"));
+        assertEquals(List.of(2_000_000L, 4_000_000L), sparse.findAvailableIds("Java", null, 2));
+        assertEquals(List.of(2_000_000_000L), sparse.findAvailableIds(null, 1_999_000_000L, 10));
+        assertTrue(sparse.findAvailableIds(null, 2_000_000_000L, 10).isEmpty());
+        // BitSet cần ~250MB cho mỗi bitmap với ID lớn nhất 2e9; RoaringBitmap chỉ vài byte cho mỗi sách
+        assertTrue(sparse.sizeInBytes() < 200_000, "sizeInBytes = " + sparse.sizeInBytes());
+    }
+
+    private static EntityChange insert(Book book) {
+        return new EntityChange(EntityChange.Type.INSERT, Book.class, book.getBookId(), book, null, null, null);
+    }
+
+    private static Book book(Long id, String category, boolean available) {
+        Book book = new Book("Book " + id, "ISBN-" + id, category);
+        book.setBookId(id);
+        book.setAvailable(available);
+        return book;
+    }
+}
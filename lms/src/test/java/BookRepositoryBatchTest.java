@@ -0,0 +1,43 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookRepositoryBatchTest {
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH_SIZE = 50;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = new BookRepositoryImpl();
+    }
+
+    @Test
+    void saveAll_thousandRows_sendsBatchedInserts() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            books.add(new Book("Batch Book " + i, "BATCH-" + i, "Test"));
+        }
+
+        StatementCountingListener.reset();
+        bookRepository.saveAll(books);
+
+        // 1000 INSERT được gom thành 1000 / 50 = 20 lần executeBatch
+        assertEquals(ROWS / BATCH_SIZE, StatementCountingListener.getBatchCount());
+        // Chỉ còn các lần lấy giá trị sequence (pooled, mỗi lần cấp 50 ID), không có INSERT đơn lẻ
+        assertTrue(StatementCountingListener.getStatementCount() <= ROWS / ALLOCATION_SIZE + 2,
+                "statements sent: " + StatementCountingListener.getStatementCount());
+        assertTrue(books.stream().allMatch(book -> book.getBookId() != null));
+    }
+}
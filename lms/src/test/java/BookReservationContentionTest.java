@@ -0,0 +1,103 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookReservationContentionTest {
+
+    private static final int THREADS = 16;
+
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = new BookRepositoryImpl();
+    }
+
+    @Test
+    void reserveBooks_sameBookFromManyThreads_onlyOneWins() throws Exception {
+        Book book = bookRepository.save(new Book("Contended Book", "CAS-SINGLE", "Test"));
+        List<Long> ids = List.of(book.getBookId());
+
+        List<Boolean> results = runConcurrently(i -> bookRepository.reserveBooks(ids));
+
+        assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+        Book reloaded = bookRepository.findById(book.getBookId()).orElseThrow();
+        assertFalse(reloaded.getAvailable());
+        assertEquals(1, reloaded.getBorrowCount());
+    }
+
+    @Test
+    void reserveBooks_overlappingSets_neverDoubleLends() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(new Book("Ring Book " + i, "CAS-RING-" + i, "Test"));
+        }
+        bookRepository.saveAll(books);
+
+        // Thread i giữ chỗ sách i và i+1 (vòng tròn): hai thread kề nhau luôn tranh chấp một cuốn
+        List<Boolean> results = runConcurrently(i -> bookRepository.reserveBooks(List.of(
+                books.get(i).getBookId(), books.get((i + 1) % THREADS).getBookId())));
+
+        long winners = results.stream().filter(Boolean::booleanValue).count();
+        assertTrue(winners >= 1);
+        assertTrue(winners <= THREADS / 2);
+        for (int i = 0; i < THREADS; i++) {
+            if (results.get(i)) {
+                assertFalse(results.get((i + 1) % THREADS), "adjacent reservations both succeeded");
+            }
+        }
+        long unavailable = bookRepository.findByIds(books.stream().map(Book::getBookId).collect(Collectors.toList()))
+                .stream().filter(book -> !book.getAvailable()).count();
+        // Giữ chỗ thất bại không được để lại sách nào bị khóa
+        assertEquals(2 * winners, unavailable);
+    }
+
+    private List<Boolean> runConcurrently(IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<Boolean> callable = () -> {
+                    start.await();
+                    try {
+                        return task.run(index);
+                    } catch (RuntimeException e) {
+                        // Lỗi tranh chấp khóa phía database được tính là giữ chỗ thất bại
+                        return false;
+                    }
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        boolean run(int index);
+    }
+}
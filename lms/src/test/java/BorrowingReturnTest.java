@@ -0,0 +1,78 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+import com.library.entity.Member;
+import com.library.repository.BorrowingRepository;
+import com.library.repository.impl.BookRepositoryImpl;
+import com.library.repository.impl.BorrowingRepositoryImpl;
+import com.library.repository.impl.MemberRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BorrowingReturnTest {
+
+    private BorrowingRepository borrowingRepository;
+    private BorrowingService borrowingService;
+
+    @BeforeEach
+    void setUp() {
+        borrowingRepository = new BorrowingRepositoryImpl();
+        borrowingService = new BorrowingService(borrowingRepository, new BookRepositoryImpl(),
+                new MemberRepositoryImpl(), null);
+    }
+
+    @Test
+    void returnBooksAndReturnBooksInBulk_recordSameFine() {
+        Member member = new Member("Return Member", "return-" + System.nanoTime() + "@test.vn", "0900000000");
+        member.setActiveBorrowings(2);
+        member = new MemberRepositoryImpl().save(member);
+        LocalDate today = LocalDate.now();
+        Borrowing single = borrowOverdue(member, today);
+        Borrowing bulk = borrowOverdue(member, today);
+
+        borrowingService.returnBooks(List.of(single.getBorrowingId()));
+        borrowingService.returnBooksInBulk(List.of(bulk.getBorrowingId()));
+
+        List<Borrowing> returned = borrowingRepository.findByIds(List.of(single.getBorrowingId(), bulk.getBorrowingId()));
+        assertEquals(2, returned.size());
+        for (Borrowing borrowing : returned) {
+            assertEquals(Borrowing.BorrowingStatus.RETURNED, borrowing.getStatus());
+            assertEquals(today, borrowing.getReturnDate());
+            assertEquals(3 * Borrowing.FINE_PER_DAY, borrowing.getFineAmount(), 0.001);
+            assertTrue(borrowing.getBook().getAvailable());
+        }
+        assertEquals(0, new MemberRepositoryImpl().findById(member.getMemberId()).orElseThrow().getActiveBorrowings());
+    }
+
+    @Test
+    void overdueSweep_reassessesFineOfLoanAlreadyOverdue() {
+        Member member = new MemberRepositoryImpl().save(
+                new Member("Overdue Member", "overdue-" + System.nanoTime() + "@test.vn", "0900000000"));
+        LocalDate today = LocalDate.now();
+        // Lần quét trước (2 ngày trước) đã ghi tiền phạt 1 ngày
+        Borrowing borrowing = borrowOverdue(member, today);
+        borrowing.setStatus(Borrowing.BorrowingStatus.OVERDUE);
+        borrowing.setFineAmount(Borrowing.FINE_PER_DAY);
+        borrowingRepository.update(borrowing);
+
+        new OverdueSweeper(borrowingRepository).sweep();
+
+        Borrowing reassessed = borrowingRepository.findByIds(List.of(borrowing.getBorrowingId())).get(0);
+        assertEquals(Borrowing.BorrowingStatus.OVERDUE, reassessed.getStatus());
+        assertEquals(3 * Borrowing.FINE_PER_DAY, reassessed.getFineAmount(), 0.001);
+    }
+
+    private Borrowing borrowOverdue(Member member, LocalDate today) {
+        Book book = new Book("Return Book", "RET-" + System.nanoTime(), "Test");
+        book.setAvailable(false);
+        book = new BookRepositoryImpl().save(book);
+        // Quá hạn 3 ngày
+        return borrowingRepository.save(new Borrowing(member, book, today.minusDays(17), today.minusDays(3)));
+    }
+}
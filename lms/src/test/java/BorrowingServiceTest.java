@@ -5,15 +5,19 @@ import com.library.entity.Borrowing;
 import com.library.entity.Member;
 import com.library.repository.BookRepository;
 import com.library.repository.BorrowingRepository;
+import com.library.repository.CheckoutContext;
 import com.library.repository.MemberRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
 
 import javax.validation.Validator;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +28,8 @@ class BorrowingServiceTest {
     private BookRepository bookRepository;
     private MemberRepository memberRepository;
     private Validator validator;
+    private SessionFactory sessionFactory;
+    private Session session;
     private BorrowingService borrowingService;
 
     @BeforeEach
@@ -32,7 +38,10 @@ class BorrowingServiceTest {
         bookRepository = mock(BookRepository.class);
         memberRepository = mock(MemberRepository.class);
         validator = mock(Validator.class);
-        borrowingService = new BorrowingService(borrowingRepository, bookRepository, memberRepository, validator);
+        sessionFactory = mock(SessionFactory.class);
+        session = mock(Session.class, RETURNS_DEEP_STUBS);
+        when(sessionFactory.openSession()).thenReturn(session);
+        borrowingService = new BorrowingService(borrowingRepository, bookRepository, memberRepository, validator, sessionFactory);
     }
 
     @Test
@@ -40,32 +49,110 @@ class BorrowingServiceTest {
         Long memberId = 1L;
         List<Long> bookIds = List.of(10L, 20L);
 
-        when(memberRepository.countActiveBorrowings(memberId)).thenReturn(2);
-        Book book1 = new Book(); book1.setBookId(10L); book1.setAvailable(true);
-        Book book2 = new Book(); book2.setBookId(20L); book2.setAvailable(true);
-        when(bookRepository.findByIds(bookIds)).thenReturn(List.of(book1, book2));
+        when(bookRepository.reserveBooks(bookIds)).thenReturn(true);
+        Book book1 = new Book(); book1.setBookId(10L);
+        Book book2 = new Book(); book2.setBookId(20L);
         Member member = new Member();
-        when(memberRepository.findById(memberId)).thenReturn(Optional.of(member));
+        member.setActiveBorrowings(2);
+        member.setTotalBorrowed(7);
+        when(memberRepository.findForCheckout(memberId, bookIds)).thenReturn(new CheckoutContext(member, List.of(book1, book2)));
 
         List<Borrowing> result = borrowingService.borrowBooks(memberId, bookIds, LocalDate.now().plusDays(7));
 
         assertEquals(2, result.size());
+        assertSame(member, result.get(0).getMember());
         assertFalse(book1.getAvailable());
+        assertEquals(1, book1.getBorrowCount());
+        // Bộ đếm được cập nhật trên entity, không cần truy vấn đếm
+        assertEquals(4, member.getActiveBorrowings());
+        assertEquals(9, member.getTotalBorrowed());
+        verify(bookRepository).reserveBooks(bookIds);
         verify(borrowingRepository).saveAll(anyList());
-        verify(bookRepository).updateAll(anyList());
+        verify(bookRepository, never()).updateAll(anyList());
+        verify(memberRepository, never()).countActiveBorrowings(anyLong());
+        verify(memberRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void borrowBooks_duplicateIdsAndNullBorrowCount_borrowsEachBookOnce() {
+        Book book = new Book(); book.setBookId(10L); book.setBorrowCount(null);
+        Member member = new Member();
+        member.setActiveBorrowings(0);
+        member.setTotalBorrowed(0);
+        when(memberRepository.findForCheckout(1L, List.of(10L))).thenReturn(new CheckoutContext(member, List.of(book)));
+        when(bookRepository.reserveBooks(List.of(10L))).thenReturn(true);
+
+        List<Borrowing> result = borrowingService.borrowBooks(1L, List.of(10L, 10L), LocalDate.now().plusDays(7));
+
+        assertEquals(1, result.size());
+        assertEquals(1, book.getBorrowCount());
+        assertEquals(1, member.getActiveBorrowings());
+        verify(bookRepository).reserveBooks(List.of(10L));
+    }
+
+    @Test
+    void borrowBooks_runsInSingleUnitOfWork() {
+        Long memberId = 1L;
+        List<Long> bookIds = List.of(10L, 20L);
+
+        when(bookRepository.reserveBooks(bookIds)).thenReturn(true);
+        Book book1 = new Book(); book1.setBookId(10L);
+        Book book2 = new Book(); book2.setBookId(20L);
+        when(memberRepository.findForCheckout(memberId, bookIds)).thenReturn(new CheckoutContext(new Member(), List.of(book1, book2)));
+
+        borrowingService.borrowBooks(memberId, bookIds, LocalDate.now().plusDays(7));
+
+        verify(sessionFactory, times(1)).openSession();
+        verify(session.getTransaction(), times(1)).commit();
+        verify(session).close();
+    }
+
+    @Test
+    void borrowBooks_failure_rollsBackUnitOfWork() {
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(new CheckoutContext(new Member(), List.of()));
+        when(session.getTransaction().isActive()).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () ->
+            borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
+        );
+        verify(session.getTransaction(), never()).commit();
+        verify(session.getTransaction()).rollback();
+        verify(session).close();
+    }
+
+    @Test
+    void borrowBooks_failure_clearsCorrelationId() {
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(null);
+
+        assertThrows(RuntimeException.class, () ->
+            borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
+        );
+        assertNull(MDC.get("correlationId"));
     }
 
     @Test
     void borrowBooks_exceedLimit_shouldThrow() {
-        when(memberRepository.countActiveBorrowings(1L)).thenReturn(5);
+        Member member = new Member();
+        member.setActiveBorrowings(5);
+        Book book = new Book(); book.setBookId(1L);
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(new CheckoutContext(member, List.of(book)));
         assertThrows(RuntimeException.class, () ->
             borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
         );
+        verify(bookRepository, never()).reserveBooks(anyList());
+    }
+
+    @Test
+    void borrowBooks_memberNotFound_shouldThrow() {
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(null);
+        assertThrows(RuntimeException.class, () ->
+            borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
+        );
+        verify(bookRepository, never()).reserveBooks(anyList());
     }
 
     @Test
     void borrowBooks_dueDateBeforeToday_shouldThrow() {
-        when(memberRepository.countActiveBorrowings(1L)).thenReturn(0);
         assertThrows(RuntimeException.class, () ->
             borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().minusDays(1))
         );
@@ -73,8 +160,7 @@ class BorrowingServiceTest {
 
     @Test
     void borrowBooks_bookNotFound_shouldThrow() {
-        when(memberRepository.countActiveBorrowings(1L)).thenReturn(0);
-        when(bookRepository.findByIds(List.of(1L))).thenReturn(List.of());
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(new CheckoutContext(new Member(), List.of()));
         assertThrows(RuntimeException.class, () ->
             borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
         );
@@ -82,50 +168,90 @@ class BorrowingServiceTest {
 
     @Test
     void borrowBooks_bookNotAvailable_shouldThrow() {
-        when(memberRepository.countActiveBorrowings(1L)).thenReturn(0);
-        Book book = new Book(); book.setAvailable(false);
-        when(bookRepository.findByIds(List.of(1L))).thenReturn(List.of(book));
+        Book book = new Book(); book.setBookId(1L); book.setAvailable(false);
+        when(bookRepository.reserveBooks(List.of(1L))).thenReturn(false);
+        when(memberRepository.findForCheckout(1L, List.of(1L))).thenReturn(new CheckoutContext(new Member(), List.of(book)));
         assertThrows(RuntimeException.class, () ->
             borrowingService.borrowBooks(1L, List.of(1L), LocalDate.now().plusDays(1))
         );
+        verify(borrowingRepository, never()).saveAll(anyList());
     }
 
     @Test
     void returnBooks_success() {
-        Book book = new Book(); book.setAvailable(false);
+        LocalDate today = LocalDate.now();
         Borrowing borrowing = new Borrowing();
         borrowing.setBorrowingId(100L);
-        borrowing.setStatus(Borrowing.BorrowingStatus.BORROWED);
-        borrowing.setBook(book);
-
+        when(borrowingRepository.markReturned(List.of(100L), today)).thenReturn(List.<Object[]>of(
+            new Object[]{100L, 10L, 7L, 3 * Borrowing.FINE_PER_DAY}
+        ));
         when(borrowingRepository.findByIds(List.of(100L))).thenReturn(List.of(borrowing));
 
-        List<Borrowing> result = borrowingService.returnBooks(List.of(100L));
+        List<Borrowing> result = borrowingService.returnBooks(List.of(100L, 100L));
 
-        assertEquals(1, result.size());
-        assertTrue(book.getAvailable());
-        assertEquals(Borrowing.BorrowingStatus.RETURNED, borrowing.getStatus());
-        verify(borrowingRepository).updateAll(anyList());
-        verify(bookRepository).updateAll(anyList());
+        assertEquals(List.of(borrowing), result);
+        // Cùng đường UPDATE theo tập hợp với trả hàng loạt, không ghi lại từng entity
+        verify(bookRepository).markAvailable(List.of(10L));
+        verify(memberRepository).releaseBorrowings(Map.of(7L, 1));
+        verify(session.getTransaction()).commit();
+        verify(borrowingRepository, never()).updateAll(anyList());
+        verify(bookRepository, never()).updateAll(anyList());
     }
 
     @Test
     void returnBooks_notFound_shouldThrow() {
-        when(borrowingRepository.findByIds(List.of(1L))).thenReturn(List.of());
+        when(borrowingRepository.markReturned(List.of(1L), LocalDate.now())).thenReturn(List.of());
         assertThrows(RuntimeException.class, () ->
             borrowingService.returnBooks(List.of(1L))
         );
+        verify(bookRepository, never()).markAvailable(anyList());
     }
 
     @Test
-    void returnBooks_alreadyReturned_shouldThrow() {
-        Borrowing borrowing = new Borrowing();
-        borrowing.setBorrowingId(1L);
-        borrowing.setStatus(Borrowing.BorrowingStatus.RETURNED);
+    void returnBooks_partlyAlreadyReturned_rollsBack() {
+        when(borrowingRepository.markReturned(List.of(1L, 2L), LocalDate.now())).thenReturn(List.<Object[]>of(
+            new Object[]{1L, 10L, 7L, 0.0}
+        ));
+        when(session.getTransaction().isActive()).thenReturn(true);
 
-        when(borrowingRepository.findByIds(List.of(1L))).thenReturn(List.of(borrowing));
         assertThrows(RuntimeException.class, () ->
-            borrowingService.returnBooks(List.of(1L))
+            borrowingService.returnBooks(List.of(1L, 2L))
         );
+        verify(session.getTransaction(), never()).commit();
+        verify(session.getTransaction()).rollback();
+    }
+
+    @Test
+    void returnBooksInBulk_oneUpdatePerChunkAndSkipsUnchanged() {
+        LocalDate today = LocalDate.now();
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        when(borrowingRepository.markReturned(ids, today)).thenReturn(List.of(
+            new Object[]{1L, 10L, 7L, 0.0},
+            new Object[]{2L, 20L, 7L, 2 * Borrowing.FINE_PER_DAY}
+        ));
+
+        BulkReturnResult result = borrowingService.returnBooksInBulk(ids);
+
+        assertEquals(2, result.getReturnedCount());
+        assertEquals(2 * Borrowing.FINE_PER_DAY, result.getTotalFine());
+        assertEquals(List.of(3L, 4L), result.getSkippedIds());
+        verify(borrowingRepository).markReturned(ids, today);
+        // Chỉ sách của các phiếu vừa được chuyển sang RETURNED được trả về kệ
+        verify(bookRepository).markAvailable(List.of(10L, 20L));
+        verify(memberRepository).releaseBorrowings(Map.of(7L, 2));
+        verify(borrowingRepository, never()).updateAll(anyList());
+    }
+
+    @Test
+    void returnBooksInBulk_nothingReturned_freesNoBooks() {
+        LocalDate today = LocalDate.now();
+        when(borrowingRepository.markReturned(List.of(5L), today)).thenReturn(List.of());
+
+        BulkReturnResult result = borrowingService.returnBooksInBulk(List.of(5L));
+
+        assertEquals(0, result.getReturnedCount());
+        assertEquals(List.of(5L), result.getSkippedIds());
+        verify(bookRepository, never()).markAvailable(anyList());
+        verify(memberRepository, never()).releaseBorrowings(anyMap());
     }
-}
\ No newline at end of file
+}
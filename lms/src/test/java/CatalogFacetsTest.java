@@ -0,0 +1,93 @@
+package com.library.search;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.event.EntityChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogFacetsTest {
+
+    private CatalogFacets facets;
+    private Author nguyen;
+    private Author tolkien;
+
+    @BeforeEach
+    void setUp() {
+        facets = new CatalogFacets();
+        nguyen = author(10L, "Việt Nam");
+        tolkien = author(11L, "Anh");
+        facets.onChange(insert(Author.class, 10L, nguyen));
+        facets.onChange(insert(Author.class, 11L, tolkien));
+        facets.onChange(insert(Book.class, 1L, book(1L, "Văn học", nguyen)));
+        facets.onChange(insert(Book.class, 2L, book(2L, "Văn học", tolkien)));
+        facets.onChange(insert(Book.class, 3L, book(3L, "Lịch sử", nguyen, tolkien)));
+        facets.onChange(insert(Book.class, 4L, book(4L, "Văn học", nguyen)));
+    }
+
+    @Test
+    void count_withoutFilter_readsCounters() {
+        FacetCounts counts = facets.count(null, null);
+        assertEquals(4, counts.getTotalCount());
+        assertEquals(List.of("Văn học", "Lịch sử"), List.copyOf(counts.getCategoryCounts().keySet()));
+        assertEquals(Map.of("Văn học", 3, "Lịch sử", 1), counts.getCategoryCounts());
+        assertEquals(Map.of("Việt Nam", 3, "Anh", 2), counts.getNationalityCounts());
+        assertEquals(1, facets.countAuthors("Anh"));
+    }
+
+    @Test
+    void count_withFilter_intersectsAndCountsInOnePass() {
+        FacetCounts vietnamese = facets.count(null, "Việt Nam");
+        assertEquals(3, vietnamese.getTotalCount());
+        assertEquals(Map.of("Văn học", 2, "Lịch sử", 1), vietnamese.getCategoryCounts());
+        assertEquals(Map.of("Việt Nam", 3, "Anh", 1), vietnamese.getNationalityCounts());
+
+        FacetCounts both = facets.count("Văn học", "Anh");
+        assertEquals(1, both.getTotalCount());
+        assertEquals(Map.of("Văn học", 1), both.getCategoryCounts());
+
+        assertEquals(0, facets.count("Không có", null).getTotalCount());
+    }
+
+    @Test
+    void changes_updateCountersIncrementally() {
+        // Đổi thể loại qua UPDATE hàng loạt, đổi quốc tịch tác giả, xóa sách
+        facets.onChange(EntityChange.bulkUpdate(Book.class, 4L, "category", "Văn học", "Lịch sử"));
+        assertEquals(Map.of("Lịch sử", 2, "Văn học", 2), facets.count(null, null).getCategoryCounts());
+
+        nguyen.setNationality("Anh");
+        facets.onChange(new EntityChange(EntityChange.Type.UPDATE, Author.class, 10L, nguyen, null, null, null));
+        assertEquals(Map.of("Anh", 4), facets.count(null, null).getNationalityCounts());
+        assertEquals(2, facets.countAuthors("Anh"));
+        assertEquals(0, facets.countAuthors("Việt Nam"));
+
+        facets.onChange(new EntityChange(EntityChange.Type.DELETE, Book.class, 3L, null, null, null, null));
+        FacetCounts counts = facets.count("Lịch sử", null);
+        assertEquals(1, counts.getTotalCount());
+        assertEquals(Map.of("Anh", 1), counts.getNationalityCounts());
+    }
+
+    private static <T> EntityChange insert(Class<T> type, Long id, T entity) {
+        return new EntityChange(EntityChange.Type.INSERT, type, id, entity, null, null, null);
+    }
+
+    private static Author author(Long id, String nationality) {
+        Author author = new Author("Tác giả " + id, null, nationality);
+        author.setAuthorId(id);
+        return author;
+    }
+
+    private static Book book(Long id, String category, Author... authors) {
+        Book book = new Book("Book " + id, "ISBN-" + id, category);
+        book.setBookId(id);
+        book.setAuthors(new HashSet<>(Arrays.asList(authors)));
+        return book;
+    }
+}
@@ -0,0 +1,112 @@
+package com.library.importer;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.repository.FetchPlan;
+import com.library.repository.impl.AuthorRepositoryImpl;
+import com.library.repository.impl.BookRepositoryImpl;
+import com.library.util.HibernateUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogImporterTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void importFile_interruptedAfterFirstChunk_resumesFromCheckpoint() throws IOException {
+        String tag = Long.toString(System.nanoTime() % 1_000_000_000L);
+        String existingAuthor = "Imp Existing " + tag;
+        String newAuthor = "Imp Author " + tag;
+        new AuthorRepositoryImpl().save(new Author(existingAuthor));
+
+        // Chunk 2 cho 1 ISBN trùng trong chunk, chunk 3 trùng ISBN đã import ở chunk 1;
+        // tên tác giả khác hoa/thường và khoảng trắng vẫn là cùng một tác giả
+        Path file = tempDir.resolve("catalog.csv");
+        Files.write(file, String.join("\n",
+                "Title,ISBN,Category,Authors",
+                "Book A," + isbn(tag, 1) + ",Test," + existingAuthor + "; " + newAuthor,
+                "Book B," + isbn(tag, 2) + ",Test,  " + newAuthor.toUpperCase(Locale.ROOT) + " ",
+                "Book C," + isbn(tag, 3) + ",Test," + newAuthor.replace(" ", "   "),
+                "Book C copy," + isbn(tag, 3) + ",Test," + newAuthor,
+                "Book A copy," + isbn(tag, 1) + ",Test," + newAuthor).getBytes(StandardCharsets.UTF_8));
+
+        CatalogImporter importer = new CatalogImporter(HibernateUtil.getSessionFactory(), CHUNK_SIZE);
+        ImportCheckpoint checkpoint = ImportCheckpoint.forFile(file);
+        try (BookRecordReader reader = new FailingReader(BookRecordReader.open(file), 3)) {
+            assertThrows(IOException.class, () -> importer.importRecords(reader, 0, checkpoint));
+        }
+
+        // Chỉ chunk đầu tiên được commit và ghi vào checkpoint
+        BookRepository bookRepository = new BookRepositoryImpl();
+        assertEquals(CHUNK_SIZE, checkpoint.load());
+        assertNotNull(bookRepository.findByIsbn(isbn(tag, 2)));
+        assertNull(bookRepository.findByIsbn(isbn(tag, 3)));
+
+        ImportResult result = importer.importFile(file);
+
+        assertEquals(3, result.getRecordsRead());
+        assertEquals(1, result.getBooksImported());
+        assertEquals(2, result.getBooksSkipped());
+        assertEquals(0, result.getAuthorsCreated());
+        assertFalse(Files.exists(file.resolveSibling("catalog.csv.checkpoint")));
+
+        assertEquals(1, new AuthorRepositoryImpl().findByName(newAuthor).size());
+        assertEquals(1, new AuthorRepositoryImpl().findByName(existingAuthor).size());
+        assertEquals(Set.of(existingAuthor, newAuthor), authorNames(bookRepository, isbn(tag, 1)));
+        assertEquals(Set.of(newAuthor), authorNames(bookRepository, isbn(tag, 2)));
+        assertEquals(Set.of(newAuthor), authorNames(bookRepository, isbn(tag, 3)));
+        assertEquals("Book C", bookRepository.findByIsbn(isbn(tag, 3)).getTitle());
+    }
+
+    private static String isbn(String tag, int index) {
+        return "IMP-" + tag + "-" + index;
+    }
+
+    private static Set<String> authorNames(BookRepository bookRepository, String isbn) {
+        Long bookId = bookRepository.findByIsbn(isbn).getBookId();
+        Book book = bookRepository.findById(bookId, FetchPlan.WITH_AUTHORS).orElseThrow();
+        return book.getAuthors().stream().map(Author::getName).collect(Collectors.toSet());
+    }
+
+    /**
+     * Giả lập import bị gián đoạn: ném IOException khi đọc record thứ failAt + 1
+     */
+    private static final class FailingReader implements BookRecordReader {
+        private final BookRecordReader delegate;
+        private final int failAt;
+        private int read;
+
+        private FailingReader(BookRecordReader delegate, int failAt) {
+            this.delegate = delegate;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public BookRecord next() throws IOException {
+            if (read++ == failAt) {
+                throw new IOException("Mất kết nối giả lập");
+            }
+            return delegate.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.CheckoutContext;
+import com.library.repository.MemberRepository;
+import com.library.util.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutContentionTest {
+
+    private MemberRepository memberRepository;
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        memberRepository = new MemberRepositoryImpl();
+        bookRepository = new BookRepositoryImpl();
+    }
+
+    @Test
+    void findForCheckout_differentMembers_doNotBlockEachOther() throws Exception {
+        Member first = saveMember("first");
+        Member second = saveMember("second");
+        Book firstBook = bookRepository.save(new Book("Checkout Book 1", "CO-" + System.nanoTime(), "Test"));
+        Book secondBook = bookRepository.save(new Book("Checkout Book 2", "CO-" + System.nanoTime(), "Test"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch firstLocked = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        try {
+            // Lần mượn thứ nhất giữ transaction (và khóa dòng thành viên) cho tới khi được thả
+            Future<Boolean> firstCheckout = executor.submit(() -> {
+                try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+                    memberRepository.findForCheckout(first.getMemberId(), List.of(firstBook.getBookId()));
+                    boolean reserved = bookRepository.reserveBooks(List.of(firstBook.getBookId()));
+                    firstLocked.countDown();
+                    assertTrue(releaseFirst.await(30, TimeUnit.SECONDS));
+                    unitOfWork.commit();
+                    return reserved;
+                }
+            });
+            assertTrue(firstLocked.await(30, TimeUnit.SECONDS));
+
+            // Thành viên khác mượn sách khác: không chờ transaction thứ nhất
+            Future<Boolean> secondCheckout = executor.submit(() -> {
+                try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+                    CheckoutContext checkout = memberRepository.findForCheckout(second.getMemberId(),
+                            List.of(secondBook.getBookId()));
+                    assertEquals(1, checkout.getBooks().size());
+                    boolean reserved = bookRepository.reserveBooks(List.of(secondBook.getBookId()));
+                    unitOfWork.commit();
+                    return reserved;
+                }
+            });
+            assertTrue(secondCheckout.get(5, TimeUnit.SECONDS));
+
+            // Sách đang bị giữ chỗ vẫn đọc được mà không chờ khóa; reserveBooks mới quyết định
+            Future<CheckoutContext> sharedBookRead = executor.submit(() ->
+                    memberRepository.findForCheckout(second.getMemberId(), List.of(firstBook.getBookId())));
+            assertEquals(1, sharedBookRead.get(5, TimeUnit.SECONDS).getBooks().size());
+
+            releaseFirst.countDown();
+            assertTrue(firstCheckout.get(30, TimeUnit.SECONDS));
+        } finally {
+            releaseFirst.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private Member saveMember(String name) {
+        return memberRepository.save(new Member("Checkout " + name, "checkout-" + name + "-" + System.nanoTime() + "@test.vn", "0900000000"));
+    }
+}
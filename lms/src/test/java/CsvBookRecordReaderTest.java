@@ -0,0 +1,44 @@
+package com.library.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvBookRecordReaderTest {
+
+    @Test
+    void next_readsRecordsAndSplitsAuthors() throws IOException {
+        String csv = "title,isbn,category,authors\n"
+                + "\"Clean Code, 2nd\",978-1,Programming,Robert Martin; Dean Wampler\n"
+                + "\n"
+                + "Dế Mèn phiêu lưu ký,978-2,Văn học,Tô Hoài\n";
+
+        try (CsvBookRecordReader reader = new CsvBookRecordReader(new BufferedReader(new StringReader(csv)))) {
+            BookRecord first = reader.next();
+            assertEquals("Clean Code, 2nd", first.getTitle());
+            assertEquals(List.of("Robert Martin", "Dean Wampler"), first.getAuthorNames());
+
+            BookRecord second = reader.next();
+            assertEquals("978-2", second.getIsbn());
+            assertEquals(List.of("Tô Hoài"), second.getAuthorNames());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void parseLine_handlesEscapedQuotes() {
+        assertEquals(List.of("a \"quoted\" word", "b", ""), CsvBookRecordReader.parseLine("\"a \"\"quoted\"\" word\",b,"));
+    }
+
+    @Test
+    void next_missingTitleColumn_throws() {
+        CsvBookRecordReader reader = new CsvBookRecordReader(new BufferedReader(new StringReader("isbn,category\n1,x\n")));
+        assertThrows(IOException.class, reader::next);
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.reminder;
+
+import com.library.entity.Borrowing;
+import com.library.entity.Borrowing.BorrowingStatus;
+import com.library.event.EntityChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DueDateTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private MutableClock clock;
+    private DueDateTracker tracker;
+    private final List<String> notifications = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        tracker = new DueDateTracker(clock);
+        tracker.addHandler(new DueDateHandler() {
+            @Override
+            public void onDueSoon(long borrowingId, LocalDate dueDate) {
+                notifications.add("soon:" + borrowingId + ":" + dueDate);
+            }
+
+            @Override
+            public void onOverdue(long borrowingId, LocalDate dueDate) {
+                notifications.add("overdue:" + borrowingId + ":" + dueDate);
+            }
+        });
+    }
+
+    @Test
+    void tick_emitsDueSoonThenOverdue() {
+        LocalDate dueDate = TODAY.plusDays(5);
+        tracker.onChange(insert(1L, dueDate));
+
+        advanceTo(dueDate.minusDays(DueDateTracker.REMINDER_LEAD_DAYS));
+        assertEquals(List.of("soon:1:" + dueDate), notifications);
+
+        advanceTo(dueDate);
+        assertEquals(1, notifications.size());
+        advanceTo(dueDate.plusDays(1));
+        assertEquals(List.of("soon:1:" + dueDate, "overdue:1:" + dueDate), notifications);
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void extendDueDate_reschedules() {
+        Borrowing borrowing = borrowing(1L, TODAY.plusDays(3));
+        tracker.onChange(insert(borrowing));
+        borrowing.extendDueDate(7);
+        tracker.onChange(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, 1L, borrowing, null, null, null));
+
+        advanceTo(TODAY.plusDays(4));
+        assertTrue(notifications.isEmpty());
+        advanceTo(TODAY.plusDays(11));
+        assertEquals(List.of("soon:1:" + TODAY.plusDays(10), "overdue:1:" + TODAY.plusDays(10)), notifications);
+    }
+
+    @Test
+    void bulkReturn_cancels() {
+        tracker.onChange(insert(1L, TODAY.plusDays(5)));
+        tracker.onChange(EntityChange.bulkUpdate(Borrowing.class, 1L, "status", BorrowingStatus.BORROWED, BorrowingStatus.RETURNED));
+
+        advanceTo(TODAY.plusDays(30));
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    void bulkOverdueSweep_keepsSchedule() {
+        tracker.onChange(insert(1L, TODAY.plusDays(1)));
+        tracker.onChange(EntityChange.bulkUpdate(Borrowing.class, 1L, "status", BorrowingStatus.BORROWED, BorrowingStatus.OVERDUE));
+
+        advanceTo(TODAY.plusDays(2));
+        assertEquals(List.of("overdue:1:" + TODAY.plusDays(1)), notifications);
+    }
+
+    private void advanceTo(LocalDate date) {
+        clock.date = date;
+        tracker.tick();
+    }
+
+    private static EntityChange insert(long id, LocalDate dueDate) {
+        return insert(borrowing(id, dueDate));
+    }
+
+    private static EntityChange insert(Borrowing borrowing) {
+        return new EntityChange(EntityChange.Type.INSERT, Borrowing.class, borrowing.getBorrowingId(), borrowing, null, null, null);
+    }
+
+    private static Borrowing borrowing(long id, LocalDate dueDate) {
+        Borrowing borrowing = new Borrowing(null, null, TODAY, dueDate);
+        borrowing.setBorrowingId(id);
+        return borrowing;
+    }
+
+    private static final class MutableClock extends Clock {
+        private LocalDate date;
+
+        private MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+import com.library.entity.Member;
+import com.library.repository.BorrowingRepository;
+import com.library.repository.FetchPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchPlanTest {
+
+    private BorrowingRepository borrowingRepository;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        borrowingRepository = new BorrowingRepositoryImpl();
+        Member member = new MemberRepositoryImpl().save(
+                new Member("Fetch Plan Member", "fetch-" + System.nanoTime() + "@test.vn", "0900000000"));
+        memberId = member.getMemberId();
+        for (int i = 0; i < 3; i++) {
+            Book book = new BookRepositoryImpl().save(new Book("Fetch Book " + i, "FETCH-" + System.nanoTime(), "Test"));
+            borrowingRepository.save(new Borrowing(member, book, LocalDate.now().plusDays(14)));
+        }
+    }
+
+    @Test
+    void findByMemberId_withMemberAndBook_loadsAssociationsInOneStatement() {
+        StatementCountingListener.reset();
+        List<Borrowing> borrowings = borrowingRepository.findByMemberId(memberId, FetchPlan.WITH_MEMBER_AND_BOOK);
+
+        assertEquals(3, borrowings.size());
+        // Session đã đóng: truy cập quan hệ không được ném LazyInitializationException
+        for (Borrowing borrowing : borrowings) {
+            assertEquals("Fetch Plan Member", borrowing.getMember().getName());
+            assertTrue(borrowing.getBook().getTitle().startsWith("Fetch Book"));
+        }
+        assertEquals(1, StatementCountingListener.getStatementCount());
+    }
+
+    @Test
+    void findById_withBook_loadsBookEagerly() {
+        Long borrowingId = borrowingRepository.findByMemberId(memberId).get(0).getBorrowingId();
+
+        Borrowing borrowing = borrowingRepository.findById(borrowingId, FetchPlan.WITH_BOOK).orElseThrow();
+
+        assertNotNull(borrowing.getBook().getTitle());
+    }
+
+    @Test
+    void findById_withPlanOfAnotherEntity_isRejected() {
+        Long borrowingId = borrowingRepository.findByMemberId(memberId).get(0).getBorrowingId();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> borrowingRepository.findById(borrowingId, FetchPlan.WITH_AUTHORS));
+        assertTrue(error.getMessage().contains("WITH_AUTHORS"));
+    }
+}
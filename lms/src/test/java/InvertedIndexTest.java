@@ -0,0 +1,75 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.repository.impl.BookRepositoryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void search_matchesAllTokensIgnoringAccentsAndCase() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(1, new InvertedIndex.Field("Dế Mèn phiêu lưu ký", 3), new InvertedIndex.Field("Văn học", 1));
+        index.index(2, new InvertedIndex.Field("Lập trình Java", 3), new InvertedIndex.Field("Công nghệ", 1));
+
+        assertEquals(List.of(1L), index.search("de men", 10));
+        assertEquals(List.of(1L), index.search("VĂN HỌC", 10));
+        assertTrue(index.search("java van", 10).isEmpty());
+    }
+
+    @Test
+    void search_lastTokenMatchesAsPrefix() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(1, new InvertedIndex.Field("Programming Pearls", 1));
+        index.index(2, new InvertedIndex.Field("Program Design", 1));
+
+        assertEquals(2, index.search("progr", 10).size());
+        assertEquals(List.of(1L), index.search("programming pe", 10));
+    }
+
+    @Test
+    void search_ranksHeavierFieldsFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(1, new InvertedIndex.Field("Cooking", 3), new InvertedIndex.Field("History", 1));
+        index.index(2, new InvertedIndex.Field("History of Rome", 3), new InvertedIndex.Field("Cooking", 1));
+
+        assertEquals(List.of(2L, 1L), index.search("history", 10));
+        assertEquals(List.of(2L), index.search("history", 1));
+    }
+
+    @Test
+    void index_replacesAndRemoveDropsDocument() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(1, new InvertedIndex.Field("Old title", 1));
+        index.index(1, new InvertedIndex.Field("New title", 1));
+
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("new", 10));
+
+        index.remove(1);
+        assertTrue(index.search("title", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void searchIndex_followsCommittedChanges() {
+        BookRepository bookRepository = new BookRepositoryImpl();
+        SearchIndex searchIndex = SearchIndex.getInstance();
+
+        Book book = bookRepository.save(new Book("Zyxwvut Chronicles", "SEARCH-1", "Fantasy"));
+        assertEquals(List.of(book.getBookId()), searchIndex.searchBookIds("zyxwvut", 10));
+
+        book.setTitle("Qwertyuiop Chronicles");
+        bookRepository.update(book);
+        assertTrue(searchIndex.searchBookIds("zyxwvut", 10).isEmpty());
+        assertEquals(List.of(book.getBookId()), searchIndex.searchBookIds("qwertyuiop", 10));
+
+        bookRepository.deleteById(book.getBookId());
+        assertTrue(searchIndex.searchBookIds("qwertyuiop", 10).isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.repository.PageRequest;
+import com.library.repository.Slice;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+
+    private static final String CATEGORY = "Keyset";
+    private static final int ROWS = 25;
+
+    private static BookRepository bookRepository;
+
+    @BeforeAll
+    static void setUp() {
+        bookRepository = new BookRepositoryImpl();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Book book = new Book("Keyset Book " + i, "KEYSET-" + i, CATEGORY);
+            // Nhiều sách trùng borrowCount để kiểm tra phân định bằng ID, vài sách có borrowCount NULL
+            book.setBorrowCount(i % 5 == 4 ? null : i % 3);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @Test
+    void findByCategory_walksAllPagesWithoutDuplicates() {
+        Slice<Book> slice = bookRepository.findByCategory(CATEGORY, PageRequest.of(10).withTotalCount());
+        assertEquals(ROWS, slice.getTotalCount().getAsLong());
+
+        Set<Long> seen = new HashSet<>();
+        int pages = 0;
+        while (true) {
+            pages++;
+            slice.getContent().forEach(book -> assertTrue(seen.add(book.getBookId()), "duplicate " + book.getBookId()));
+            if (!slice.hasNext()) {
+                break;
+            }
+            slice = bookRepository.findByCategory(CATEGORY, slice.nextPageRequest());
+            assertFalse(slice.getTotalCount().isPresent());
+        }
+        assertEquals(3, pages);
+        assertEquals(ROWS, seen.size());
+    }
+
+    @Test
+    void findMostPopularBooks_pagesBySortKeyThenId() {
+        List<Book> ordered = new ArrayList<>();
+        Slice<Book> slice = bookRepository.findMostPopularBooks(PageRequest.of(4));
+        ordered.addAll(slice.getContent());
+        while (slice.hasNext()) {
+            slice = bookRepository.findMostPopularBooks(slice.nextPageRequest());
+            ordered.addAll(slice.getContent());
+        }
+
+        assertEquals(bookRepository.count(), ordered.size());
+        assertEquals(ordered.size(), ordered.stream().map(Book::getBookId).distinct().count());
+        for (int i = 1; i < ordered.size(); i++) {
+            Book previous = ordered.get(i - 1);
+            Book current = ordered.get(i);
+            assertTrue(borrowCount(previous) > borrowCount(current)
+                    || (borrowCount(previous) == borrowCount(current)
+                        && previous.getBookId() > current.getBookId()));
+        }
+    }
+
+    @Test
+    void findAll_lastPageHasNoNext() {
+        Slice<Book> slice = bookRepository.findAll(PageRequest.of(Integer.MAX_VALUE - 1));
+        assertFalse(slice.hasNext());
+        assertThrows(IllegalStateException.class, slice::nextPageRequest);
+    }
+
+    private static int borrowCount(Book book) {
+        return book.getBorrowCount() != null ? book.getBorrowCount() : 0;
+    }
+}
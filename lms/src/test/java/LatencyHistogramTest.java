@@ -0,0 +1,44 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogram_returnsZeros() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0.0, snapshot.getMeanMicros());
+        assertEquals(0, snapshot.getPercentileMicros(99));
+    }
+
+    @Test
+    void record_tracksCountMeanAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100_000L);   // 100 us
+        histogram.record(300_000L);   // 300 us
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(200.0, snapshot.getMeanMicros(), 0.001);
+        assertEquals(300, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void percentile_isBoundedByBucketAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(50_000L);     // 50 us
+        }
+        histogram.record(5_000_000L);      // 5 ms
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(64, snapshot.getPercentileMicros(50));
+        assertEquals(5_000, snapshot.getPercentileMicros(100));
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.stats;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+import com.library.entity.Member;
+import com.library.event.EntityChange;
+import com.library.repository.RankingWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private MutableClock clock;
+    private Leaderboard leaderboard;
+    private long nextBorrowingId;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        leaderboard = new Leaderboard(clock);
+        nextBorrowingId = 1;
+    }
+
+    @Test
+    void top_ranksByCountThenId() {
+        borrow(1L, 100L, TODAY);
+        borrow(2L, 100L, TODAY);
+        borrow(2L, 101L, TODAY);
+        borrow(3L, 101L, TODAY);
+        borrow(3L, 102L, TODAY);
+        borrow(3L, 102L, TODAY);
+
+        assertEquals("[3=3, 2=2, 1=1]", leaderboard.topBooks(10, RankingWindow.ALL_TIME).toString());
+        assertEquals("[3=3, 2=2]", leaderboard.topBooks(2, RankingWindow.ALL_TIME).toString());
+        assertEquals(List.of(100L, 101L), ids(leaderboard.topMembers(2, RankingWindow.ALL_TIME)));
+        assertTrue(leaderboard.topBooks(0, RankingWindow.ALL_TIME).isEmpty());
+    }
+
+    @Test
+    void windows_onlyCountRecentBorrowDates() {
+        borrow(1L, 100L, TODAY.minusDays(40));
+        borrow(1L, 100L, TODAY.minusDays(40));
+        borrow(1L, 100L, TODAY.minusDays(40));
+        borrow(2L, 101L, TODAY.minusDays(20));
+        borrow(2L, 101L, TODAY.minusDays(20));
+        borrow(3L, 102L, TODAY.minusDays(6));
+
+        assertEquals("[1=3, 2=2, 3=1]", leaderboard.topBooks(10, RankingWindow.ALL_TIME).toString());
+        assertEquals("[2=2, 3=1]", leaderboard.topBooks(10, RankingWindow.LAST_30_DAYS).toString());
+        assertEquals("[3=1]", leaderboard.topBooks(10, RankingWindow.LAST_7_DAYS).toString());
+    }
+
+    @Test
+    void tick_expiresDaysLeavingEachWindow() {
+        borrow(1L, 100L, TODAY.minusDays(6));
+        borrow(2L, 101L, TODAY);
+
+        clock.setDate(TODAY.plusDays(1));
+        leaderboard.tick();
+        assertEquals("[2=1]", leaderboard.topBooks(10, RankingWindow.LAST_7_DAYS).toString());
+        assertEquals("[1=1, 2=1]", leaderboard.topBooks(10, RankingWindow.LAST_30_DAYS).toString());
+
+        clock.setDate(TODAY.plusDays(30));
+        leaderboard.tick();
+        assertTrue(leaderboard.topMembers(10, RankingWindow.LAST_30_DAYS).isEmpty());
+        assertEquals("[100=1, 101=1]", leaderboard.topMembers(10, RankingWindow.ALL_TIME).toString());
+    }
+
+    @Test
+    void delete_removesBorrowing() {
+        Borrowing borrowing = borrow(1L, 100L, TODAY);
+        borrow(1L, 101L, TODAY);
+
+        leaderboard.onChange(new EntityChange(EntityChange.Type.DELETE, Borrowing.class,
+                borrowing.getBorrowingId(), borrowing, null, null, null));
+        assertEquals("[1=1]", leaderboard.topBooks(10, RankingWindow.LAST_7_DAYS).toString());
+        assertEquals("[101=1]", leaderboard.topMembers(10, RankingWindow.ALL_TIME).toString());
+    }
+
+    private Borrowing borrow(Long bookId, Long memberId, LocalDate borrowDate) {
+        Book book = new Book("Book " + bookId, "ISBN-" + bookId, "Java");
+        book.setBookId(bookId);
+        Member member = new Member("Member " + memberId, "member" + memberId + "@example.com", "0900000000");
+        member.setMemberId(memberId);
+        Borrowing borrowing = new Borrowing(member, book, borrowDate, borrowDate.plusDays(14));
+        borrowing.setBorrowingId(nextBorrowingId++);
+        leaderboard.onChange(new EntityChange(EntityChange.Type.INSERT, Borrowing.class,
+                borrowing.getBorrowingId(), borrowing, null, null, null));
+        return borrowing;
+    }
+
+    private static List<Long> ids(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(Leaderboard.Entry::getId).collect(Collectors.toList());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(LocalDate date) {
+            setDate(date);
+        }
+
+        void setDate(LocalDate date) {
+            instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.util.HibernateUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiGetTest {
+
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = new BookRepositoryImpl();
+    }
+
+    @Test
+    void findAllById_preservesRequestOrderAndSkipsMissing() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            books.add(new Book("Multi Get " + i, "MG-" + System.nanoTime() + "-" + i, "Test"));
+        }
+        bookRepository.saveAll(books);
+        List<Long> ids = books.stream().map(Book::getBookId).collect(Collectors.toList());
+        Collections.reverse(ids);
+
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(1, -1L);
+        requested.add(ids.get(0));
+        List<Long> found = bookRepository.findAllById(requested).stream().map(Book::getBookId).collect(Collectors.toList());
+
+        assertEquals(ids, found);
+    }
+
+    @Test
+    void findAllById_cachedEntities_issueNoSql() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(new Book("Multi Get Cached " + i, "MGC-" + System.nanoTime() + "-" + i, "Test"));
+        }
+        bookRepository.saveAll(books);
+        List<Long> ids = books.stream().map(Book::getBookId).collect(Collectors.toList());
+        bookRepository.findAllById(ids);
+
+        StatementCountingListener.reset();
+        assertEquals(3, bookRepository.findAllById(ids).size());
+        assertEquals(0, StatementCountingListener.getStatementCount());
+
+        // Chỉ phần không có trong cache được tải, bằng một câu IN
+        HibernateUtil.getSessionFactory().getCache().evictEntityData(Book.class, ids.get(1));
+        StatementCountingListener.reset();
+        assertEquals(ids, bookRepository.findAllById(ids).stream().map(Book::getBookId).collect(Collectors.toList()));
+        assertEquals(1, StatementCountingListener.getStatementCount());
+    }
+
+    @Test
+    void pad_roundsUpToPowerOfTwo() {
+        assertEquals(MultiGet.MIN_CHUNK_SIZE, MultiGet.pad(List.of(1L)).size());
+        assertEquals(32, MultiGet.pad(Collections.nCopies(17, 1L)).size());
+        assertEquals(MultiGet.MAX_CHUNK_SIZE, MultiGet.pad(Collections.nCopies(MultiGet.MAX_CHUNK_SIZE, 1L)).size());
+        assertEquals(Arrays.asList(1L, 2L, 2L, 2L), MultiGet.pad(List.of(1L, 2L)).subList(0, 4));
+    }
+}
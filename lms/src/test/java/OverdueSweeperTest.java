@@ -0,0 +1,136 @@
+package com.library.service;
+
+import com.library.entity.Borrowing;
+import com.library.repository.BorrowingRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OverdueSweeperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private BorrowingRepository borrowingRepository;
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        borrowingRepository = mock(BorrowingRepository.class);
+        sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenReturn(mock(Session.class, RETURNS_DEEP_STUBS));
+    }
+
+    @Test
+    void sweep_oneUpdatePerChunkAndCountsOnlyMarkedRows() {
+        List<Object[]> firstChunk = new ArrayList<>();
+        for (long id = 1; id <= OverdueSweeper.CHUNK_SIZE; id++) {
+            firstChunk.add(new Object[]{id, TODAY.minusDays(1)});
+        }
+        List<Object[]> lastChunk = List.<Object[]>of(new Object[]{5000L, TODAY.minusDays(3)});
+        when(borrowingRepository.findNewlyOverdue(null, TODAY, OverdueSweeper.CHUNK_SIZE))
+                .thenReturn(firstChunk, lastChunk);
+        // Phiếu 1 vừa được trả song song nên không bị chuyển sang OVERDUE
+        when(borrowingRepository.markOverdue(anyList(), eq(TODAY))).thenAnswer(invocation -> {
+            List<Object[]> marked = new ArrayList<>();
+            for (Object id : (List<?>) invocation.getArgument(0)) {
+                if (!id.equals(1L)) {
+                    marked.add(new Object[]{id, id.equals(5000L) ? 3 * Borrowing.FINE_PER_DAY : Borrowing.FINE_PER_DAY});
+                }
+            }
+            return marked;
+        });
+
+        int swept = sweeperAt(TODAY).sweep();
+
+        assertEquals(OverdueSweeper.CHUNK_SIZE, swept);
+        verify(borrowingRepository, times(2)).findNewlyOverdue(null, TODAY, OverdueSweeper.CHUNK_SIZE);
+        // Một câu UPDATE cho mỗi chunk, bất kể số mức phạt
+        verify(borrowingRepository, times(2)).markOverdue(anyList(), eq(TODAY));
+    }
+
+    @Test
+    void sweep_onlyLooksAtDueDatesSinceLastRun() {
+        MutableClock clock = new MutableClock(TODAY);
+        OverdueSweeper sweeper = new OverdueSweeper(borrowingRepository, sessionFactory, clock);
+        when(borrowingRepository.findNewlyOverdue(any(), any(), anyInt())).thenReturn(List.of());
+
+        sweeper.sweep();
+        sweeper.sweep();
+        clock.date = TODAY.plusDays(1);
+        sweeper.sweep();
+
+        verify(borrowingRepository).findNewlyOverdue(null, TODAY, OverdueSweeper.CHUNK_SIZE);
+        verify(borrowingRepository).findNewlyOverdue(TODAY, TODAY.plusDays(1), OverdueSweeper.CHUNK_SIZE);
+        verify(borrowingRepository).findOverdueWithStaleFine(TODAY, OverdueSweeper.CHUNK_SIZE);
+        verify(borrowingRepository).findOverdueWithStaleFine(TODAY.plusDays(1), OverdueSweeper.CHUNK_SIZE);
+        verify(borrowingRepository, times(2)).reassessOverdueFines(List.of(), TODAY);
+        verify(borrowingRepository, times(2)).markOverdue(List.of(), TODAY);
+        verify(borrowingRepository).reassessOverdueFines(List.of(), TODAY.plusDays(1));
+        verify(borrowingRepository).markOverdue(List.of(), TODAY.plusDays(1));
+        verifyNoMoreInteractions(borrowingRepository);
+    }
+
+    @Test
+    void sweep_reassessesFinesOfLoansAlreadyOverdue() {
+        List<Object[]> stale = new ArrayList<>();
+        for (long id = 1; id <= OverdueSweeper.CHUNK_SIZE; id++) {
+            stale.add(new Object[]{id, TODAY.minusDays(2)});
+        }
+        when(borrowingRepository.findOverdueWithStaleFine(TODAY, OverdueSweeper.CHUNK_SIZE))
+                .thenReturn(stale, List.<Object[]>of(new Object[]{5000L, TODAY.minusDays(9)}));
+        when(borrowingRepository.reassessOverdueFines(anyList(), eq(TODAY))).thenAnswer(invocation -> {
+            List<Object[]> reassessed = new ArrayList<>();
+            for (Object id : (List<?>) invocation.getArgument(0)) {
+                reassessed.add(new Object[]{id, 2 * Borrowing.FINE_PER_DAY});
+            }
+            return reassessed;
+        });
+        when(borrowingRepository.findNewlyOverdue(null, TODAY, OverdueSweeper.CHUNK_SIZE)).thenReturn(List.of());
+
+        assertEquals(0, sweeperAt(TODAY).sweep());
+
+        // Một câu UPDATE cho mỗi chunk phiếu đã quá hạn có tiền phạt cũ
+        verify(borrowingRepository, times(2)).findOverdueWithStaleFine(TODAY, OverdueSweeper.CHUNK_SIZE);
+        verify(borrowingRepository).reassessOverdueFines(List.of(5000L), TODAY);
+        verify(borrowingRepository, times(2)).reassessOverdueFines(anyList(), eq(TODAY));
+    }
+
+    private OverdueSweeper sweeperAt(LocalDate date) {
+        return new OverdueSweeper(borrowingRepository, sessionFactory, new MutableClock(date));
+    }
+
+    private static final class MutableClock extends Clock {
+        private LocalDate date;
+
+        private MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void complete_ranksByScoreIgnoringAccentsAndCase() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Suggestion(1, "Lập trình Java", 5),
+                new Suggestion(2, "Lập trình C", 20),
+                new Suggestion(3, "Lịch sử Việt Nam", 50),
+                new Suggestion(4, "Dế Mèn phiêu lưu ký", 100)));
+
+        assertEquals(List.of(2L, 1L), ids(index.complete("LAP TR", 10)));
+        assertEquals(List.of(3L, 2L), ids(index.complete("l", 2)));
+        assertTrue(index.complete("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void complete_collapsesDuplicateTitles() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Suggestion(1, "Clean Code", 3),
+                new Suggestion(2, "Clean  code", 7),
+                new Suggestion(3, "Clean Architecture", 5)));
+
+        assertEquals(List.of(2L, 3L), ids(index.complete("clean", 10)));
+    }
+
+    @Test
+    void updates_areVisibleWithoutRebuild() {
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Suggestion(1, "Java Core", 10),
+                new Suggestion(2, "Java Web", 5)));
+
+        index.updateScore(2, 30);
+        index.put(3, "Java Concurrency", 20);
+        index.put(1, "Kotlin Core", 10);
+        index.remove(2);
+
+        assertEquals(List.of(3L), ids(index.complete("java", 10)));
+        assertEquals(List.of(1L), ids(index.complete("kot", 10)));
+        assertEquals(20, index.scoreOf(3));
+        assertEquals(-1, index.scoreOf(2));
+    }
+
+    @Test
+    void complete_matchesBruteForceAfterCompaction() {
+        List<Suggestion> initial = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            initial.add(new Suggestion(i, "Title " + (i % 97) + " vol " + i, i % 13));
+        }
+        PrefixIndex index = PrefixIndex.build(initial);
+        // Đủ nhiều thay đổi để delta được gộp vào phần chính
+        for (int i = 0; i < PrefixIndex.MAX_DELTA_SIZE + 10; i++) {
+            index.put(10_000 + i, "Title 5 extra " + i, i % 17);
+        }
+
+        List<Suggestion> top = index.complete("title 5", 5);
+        assertEquals(5, top.size());
+        assertTrue(top.stream().allMatch(suggestion -> suggestion.getScore() == 16));
+        assertEquals(5_000 + PrefixIndex.MAX_DELTA_SIZE + 10, index.size());
+    }
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.repository.impl;
+
+import com.library.dto.BookSummary;
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.util.UnitOfWork;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh bộ nhớ heap cho 10k dòng giữa truy vấn entity và truy vấn projection (BookSummary).
+ * Đo trong một unit of work đang mở để tính cả persistence context (snapshot dirty-check).
+ */
+class ProjectionHeapBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionHeapBenchmarkTest.class);
+
+    private static final int ROWS = 10_000;
+    private static final String CATEGORY = "Projection Benchmark";
+
+    private static BookRepository bookRepository;
+
+    @BeforeAll
+    static void setUp() {
+        bookRepository = new BookRepositoryImpl();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            books.add(new Book("Projection Book " + i, "PROJ-" + i, CATEGORY));
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @Test
+    void findSummariesByCategory_usesLessHeapThanEntities() {
+        // Chạy trước một lần để loại trừ chi phí khởi tạo (parse HQL, nạp class)
+        measure(() -> bookRepository.findByCategory(CATEGORY));
+        measure(() -> bookRepository.findSummariesByCategory(CATEGORY));
+
+        Measurement entities = measure(() -> bookRepository.findByCategory(CATEGORY));
+        Measurement summaries = measure(() -> bookRepository.findSummariesByCategory(CATEGORY));
+
+        logger.info("Heap cho {} dòng: entity cấp phát {} KB, giữ lại {} KB; projection cấp phát {} KB, giữ lại {} KB",
+                ROWS, entities.allocatedBytes / 1024, entities.retainedBytes / 1024,
+                summaries.allocatedBytes / 1024, summaries.retainedBytes / 1024);
+        assertEquals(ROWS, entities.rows);
+        assertEquals(ROWS, summaries.rows);
+        assertTrue(summaries.allocatedBytes < entities.allocatedBytes,
+                "projection allocated " + summaries.allocatedBytes + " bytes, entities " + entities.allocatedBytes);
+    }
+
+    @Test
+    void searchBookSummaries_returnsSameRowsAsEntitySearch() {
+        List<Book> books = bookRepository.searchBooks("Projection Book 99");
+        List<BookSummary> summaries = bookRepository.searchBookSummaries("Projection Book 99");
+
+        assertEquals(books.size(), summaries.size());
+        assertTrue(summaries.stream().allMatch(summary -> summary.getTitle().startsWith("Projection Book 99")));
+        assertTrue(summaries.stream().allMatch(BookSummary::isAvailable));
+    }
+
+    private static Measurement measure(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            long usedBefore = usedHeap();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            List<?> results = query.get();
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            // Kết quả và persistence context vẫn còn được tham chiếu tại thời điểm đo
+            long retained = usedHeap() - usedBefore;
+            int rows = results.size();
+            unitOfWork.commit();
+            return new Measurement(rows, allocated, retained);
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Measurement {
+        private final int rows;
+        private final long allocatedBytes;
+        private final long retainedBytes;
+
+        private Measurement(int rows, long allocatedBytes, long retainedBytes) {
+            this.rows = rows;
+            this.allocatedBytes = allocatedBytes;
+            this.retainedBytes = retainedBytes;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    @Test
+    void get_concurrentMissesForSameKey_loadOnce() throws Exception {
+        ReadThroughCache<Long, String> cache = new ReadThroughCache<>(100, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int threads = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get(1L, key -> {
+                    loads.incrementAndGet();
+                    loaderEntered.countDown();
+                    await(releaseLoader);
+                    return "book-" + key;
+                })));
+            }
+            assertTrue(loaderEntered.await(10, TimeUnit.SECONDS));
+            // Cho các thread còn lại kịp tới và chờ chung lần tải đang chạy
+            Thread.sleep(200);
+            releaseLoader.countDown();
+            for (Future<String> result : results) {
+                assertEquals("book-1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getLoadCount());
+    }
+
+    @Test
+    void get_expiredEntry_reloads() {
+        AtomicLong now = new AtomicLong();
+        ReadThroughCache<Long, String> cache = new ReadThroughCache<>(10, Duration.ofSeconds(30), now::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> "v" + loads.incrementAndGet());
+        assertEquals("v1", cache.get(1L, key -> "v" + loads.incrementAndGet()));
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertEquals("v2", cache.get(1L, key -> "v" + loads.incrementAndGet()));
+
+        ReadThroughCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+    }
+
+    @Test
+    void get_overMaxSize_evictsOldest() {
+        AtomicLong now = new AtomicLong();
+        ReadThroughCache<Long, Long> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1), now::get);
+        for (long i = 0; i < 25; i++) {
+            now.incrementAndGet();
+            cache.get(i, key -> key);
+        }
+
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.stats().getEvictionCount() >= 15);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(24L, key -> (long) loads.incrementAndGet());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void invalidate_duringLoad_discardsStaleValue() {
+        ReadThroughCache<Long, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+
+        String loaded = cache.get(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+    }
+
+    @Test
+    void get_nullValue_isNotCached() {
+        ReadThroughCache<Long, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get(1L, key -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.get(1L, key -> { loads.incrementAndGet(); return null; }));
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.event;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RebuildableListenerTest {
+
+    @Test
+    void rebuild_replaysChangesReceivedWhileLoading() {
+        IdList listener = new IdList(() -> {});
+        listener.rebuild();
+        listener.loading = () -> listener.onChange(insert(3L));
+        listener.onChange(insert(2L));
+
+        listener.rebuild();
+
+        // 1 từ database, 3 nhận được trong lúc nạp; 2 chỉ có ở trạng thái cũ
+        assertEquals(List.of(1L, 3L), listener.ids);
+    }
+
+    @Test
+    void rebuild_whileRebuilding_isRejected() {
+        IdList listener = new IdList(() -> {});
+        listener.loading = () -> assertThrows(IllegalStateException.class, listener::rebuild);
+
+        listener.rebuild();
+        listener.onChange(insert(4L));
+
+        assertEquals(List.of(1L, 4L), listener.ids);
+    }
+
+    private static EntityChange insert(Long id) {
+        return new EntityChange(EntityChange.Type.INSERT, Book.class, id, null, null, null, null);
+    }
+
+    private static final class IdList extends RebuildableListener<List<Long>> {
+        private Runnable loading;
+        private List<Long> ids = new ArrayList<>();
+
+        private IdList(Runnable loading) {
+            super("Danh sách ID");
+            this.loading = loading;
+        }
+
+        @Override
+        protected List<Long> load() {
+            List<Long> loaded = new ArrayList<>(List.of(1L));
+            loading.run();
+            return loaded;
+        }
+
+        @Override
+        protected List<Long> current() {
+            return ids;
+        }
+
+        @Override
+        protected void apply(EntityChange change, List<Long> state) {
+            state.add((Long) change.getId());
+        }
+
+        @Override
+        protected void install(List<Long> rebuilt) {
+            ids = rebuilt;
+        }
+
+        @Override
+        protected void logRebuilt(List<Long> rebuilt, long elapsedMillis) {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.util.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecondLevelCacheTest {
+
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = new BookRepositoryImpl();
+    }
+
+    @Test
+    void findById_repeated_issuesNoSql() {
+        Book book = bookRepository.save(new Book("Cached Book", "L2-" + System.nanoTime(), "Cache"));
+        bookRepository.findById(book.getBookId());
+
+        StatementCountingListener.reset();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Cached Book", bookRepository.findById(book.getBookId()).orElseThrow().getTitle());
+        }
+        assertEquals(0, StatementCountingListener.getStatementCount());
+    }
+
+    @Test
+    void findByIsbn_repeated_resolvesFromNaturalIdCache() {
+        String isbn = "L2-NID-" + System.nanoTime();
+        bookRepository.save(new Book("Barcode Book", isbn, "Cache"));
+        bookRepository.findByIsbn(isbn);
+
+        StatementCountingListener.reset();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Barcode Book", bookRepository.findByIsbn(isbn).getTitle());
+        }
+        assertEquals(0, StatementCountingListener.getStatementCount());
+    }
+
+    @Test
+    void countByCategory_repeated_servedFromQueryCacheUntilBookChanges() {
+        String category = "Cache-" + System.nanoTime();
+        bookRepository.save(new Book("Query Cached", "L2-Q-" + System.nanoTime(), category));
+        assertEquals(1, bookRepository.countByCategory(category));
+
+        StatementCountingListener.reset();
+        assertEquals(1, bookRepository.countByCategory(category));
+        assertEquals(0, StatementCountingListener.getStatementCount());
+
+        // Ghi vào bảng books làm kết quả query cache cũ bị loại bỏ
+        bookRepository.save(new Book("Query Cached 2", "L2-Q-" + System.nanoTime(), category));
+        assertEquals(2, bookRepository.countByCategory(category));
+    }
+
+    @Test
+    void update_refreshesCachedEntity() {
+        Book book = bookRepository.save(new Book("Before", "L2-U-" + System.nanoTime(), "Cache"));
+        bookRepository.findById(book.getBookId());
+
+        book.setTitle("After");
+        bookRepository.update(book);
+
+        assertEquals("After", bookRepository.findById(book.getBookId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void markAvailable_evictsOnlyUpdatedBook() {
+        Book returned = bookRepository.save(new Book("Returned", "L2-R-" + System.nanoTime(), "Cache"));
+        Book other = bookRepository.save(new Book("Other", "L2-O-" + System.nanoTime(), "Cache"));
+        returned.setAvailable(false);
+        bookRepository.update(returned);
+        bookRepository.findById(returned.getBookId());
+        bookRepository.findById(other.getBookId());
+
+        assertEquals(1, bookRepository.markAvailable(List.of(returned.getBookId())));
+
+        // Sách khác vẫn nằm trong region của Book, sách vừa trả được nạp lại với trạng thái mới
+        StatementCountingListener.reset();
+        assertEquals("Other", bookRepository.findById(other.getBookId()).orElseThrow().getTitle());
+        assertEquals(0, StatementCountingListener.getStatementCount());
+        assertTrue(bookRepository.findById(returned.getBookId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    void reserveBooks_evictsOnlyReservedBook() {
+        Book reserved = bookRepository.save(new Book("Reserved", "L2-V-" + System.nanoTime(), "Cache"));
+        Book other = bookRepository.save(new Book("Not Reserved", "L2-N-" + System.nanoTime(), "Cache"));
+        bookRepository.findById(reserved.getBookId());
+        bookRepository.findById(other.getBookId());
+
+        assertTrue(bookRepository.reserveBooks(List.of(reserved.getBookId())));
+
+        StatementCountingListener.reset();
+        assertEquals("Not Reserved", bookRepository.findById(other.getBookId()).orElseThrow().getTitle());
+        assertEquals(0, StatementCountingListener.getStatementCount());
+        Book reloaded = bookRepository.findById(reserved.getBookId()).orElseThrow();
+        assertFalse(reloaded.getAvailable());
+        assertEquals(1, reloaded.getBorrowCount());
+    }
+
+    @Test
+    void reserveBooks_readDuringUncommittedUpdate_doesNotCacheStaleRow() throws Exception {
+        Book reserved = bookRepository.save(new Book("Racing", "L2-S-" + System.nanoTime(), "Cache"));
+        bookRepository.findById(reserved.getBookId());
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            assertTrue(bookRepository.reserveBooks(List.of(reserved.getBookId())));
+            // Luồng khác đọc khi UPDATE chưa commit: thấy bản cũ trong database nhưng không được ghi vào cache
+            Book seenBeforeCommit = reader.submit(() -> bookRepository.findById(reserved.getBookId()).orElseThrow())
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(seenBeforeCommit.getAvailable());
+            unitOfWork.commit();
+        } finally {
+            reader.shutdownNow();
+        }
+
+        Book reloaded = bookRepository.findById(reserved.getBookId()).orElseThrow();
+        assertFalse(reloaded.getAvailable());
+        assertEquals(1, reloaded.getBorrowCount());
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.repository.impl;
+
+import org.hibernate.engine.spi.BaseSessionEventListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionEventListener dùng trong test để đếm số câu lệnh JDBC thực sự được gửi xuống database.
+ * Được gắn cho mọi Session qua thuộc tính hibernate.session.events.auto trong cấu hình test.
+ */
+public class StatementCountingListener extends BaseSessionEventListener {
+
+    private static final AtomicInteger statements = new AtomicInteger();
+    private static final AtomicInteger batches = new AtomicInteger();
+
+    public static void reset() {
+        statements.set(0);
+        batches.set(0);
+    }
+
+    /**
+     * Số câu lệnh thực thi đơn lẻ (SELECT, lấy giá trị sequence, UPDATE không batch...)
+     */
+    public static int getStatementCount() {
+        return statements.get();
+    }
+
+    /**
+     * Số lần gửi JDBC batch (executeBatch)
+     */
+    public static int getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statements.incrementAndGet();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batches.incrementAndGet();
+    }
+}
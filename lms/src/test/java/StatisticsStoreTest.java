@@ -0,0 +1,159 @@
+package com.library.stats;
+
+import com.library.entity.Book;
+import com.library.entity.Borrowing;
+import com.library.entity.Borrowing.BorrowingStatus;
+import com.library.entity.Member;
+import com.library.entity.Member.MemberStatus;
+import com.library.event.EntityChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private MutableClock clock;
+    private StatisticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(TODAY);
+        store = new StatisticsStore(clock);
+    }
+
+    @Test
+    void bookChanges_updateAvailableAndCategoryCounts() {
+        store.onChange(insert(Book.class, 1L, book(1L, "Java", true)));
+        store.onChange(insert(Book.class, 2L, book(2L, "Java", true)));
+        store.onChange(insert(Book.class, 3L, book(3L, "History", false)));
+
+        assertEquals(2, store.countAvailableBooks());
+        assertEquals(2, store.countBooksByCategory("Java"));
+
+        // UPDATE hàng loạt chỉ có cột available, thể loại lấy từ trạng thái đã biết
+        store.onChange(EntityChange.bulkUpdate(Book.class, 1L, "available", true, false));
+        store.onChange(EntityChange.bulkUpdate(Book.class, 1L, "available", true, false));
+        assertEquals(1, store.countAvailableBooks());
+        assertEquals(2, store.countBooksByCategory("Java"));
+
+        store.onChange(new EntityChange(EntityChange.Type.DELETE, Book.class, 2L, book(2L, "Java", true), null, null, null));
+        assertEquals(0, store.countAvailableBooks());
+        assertEquals(1, store.countBooksByCategory("Java"));
+        assertEquals(0, store.countBooksByCategory("Unknown"));
+    }
+
+    @Test
+    void borrowingChanges_updateStatusCountsAndFines() {
+        store.onChange(insert(Borrowing.class, 1L, borrowing(1L, TODAY.plusDays(3))));
+        store.onChange(insert(Borrowing.class, 2L, borrowing(2L, TODAY.minusDays(2))));
+        assertEquals(2, store.countBorrowingsByStatus(BorrowingStatus.BORROWED));
+        assertEquals(1, store.countOverdueBorrowings());
+
+        Borrowing returned = borrowing(2L, TODAY.minusDays(2));
+        returned.setStatus(BorrowingStatus.RETURNED);
+        returned.setFineAmount(10_000.0);
+        // Cập nhật entity detached: không có trạng thái cũ
+        store.onChange(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, 2L, returned, null, null, null));
+
+        assertEquals(1, store.countBorrowingsByStatus(BorrowingStatus.BORROWED));
+        assertEquals(1, store.countBorrowingsByStatus(BorrowingStatus.RETURNED));
+        assertEquals(0, store.countOverdueBorrowings());
+        assertEquals(10_000.0, store.getTotalFineAmount(), 0.001);
+    }
+
+    @Test
+    void bulkReturn_ofUnknownSettledBorrowing_doesNotChangeCounts() {
+        store.onChange(new EntityChange(EntityChange.Type.UPDATE, Borrowing.class, 99L, null,
+                new String[]{"status", "fineAmount"}, null, new Object[]{BorrowingStatus.RETURNED, 0.0}));
+
+        assertEquals(0, store.countBorrowingsByStatus(BorrowingStatus.RETURNED));
+        assertEquals(0.0, store.getTotalFineAmount(), 0.001);
+    }
+
+    @Test
+    void overdueCount_advancesWithClock() {
+        store.onChange(insert(Borrowing.class, 1L, borrowing(1L, TODAY)));
+        store.onChange(insert(Borrowing.class, 2L, borrowing(2L, TODAY.plusDays(1))));
+        assertEquals(0, store.countOverdueBorrowings());
+
+        clock.setDate(TODAY.plusDays(1));
+        assertEquals(1, store.countOverdueBorrowings());
+        clock.setDate(TODAY.plusDays(5));
+        assertEquals(2, store.countOverdueBorrowings());
+
+        store.onChange(EntityChange.bulkUpdate(Borrowing.class, 1L, "status", BorrowingStatus.BORROWED, BorrowingStatus.RETURNED));
+        assertEquals(1, store.countOverdueBorrowings());
+    }
+
+    @Test
+    void memberChanges_updateStatusCounts() {
+        store.onChange(insert(Member.class, 1L, member(1L, MemberStatus.ACTIVE)));
+        store.onChange(insert(Member.class, 2L, member(2L, MemberStatus.ACTIVE)));
+        store.onChange(new EntityChange(EntityChange.Type.UPDATE, Member.class, 2L, member(2L, MemberStatus.SUSPENDED),
+                null, null, null));
+
+        assertEquals(1, store.countMembersByStatus(MemberStatus.ACTIVE));
+        assertEquals(1, store.countMembersByStatus(MemberStatus.SUSPENDED));
+        assertEquals(0, store.countMembersByStatus(MemberStatus.INACTIVE));
+    }
+
+    private static EntityChange insert(Class<?> entityClass, Long id, Object entity) {
+        return new EntityChange(EntityChange.Type.INSERT, entityClass, id, entity, null, null, null);
+    }
+
+    private static Book book(Long id, String category, boolean available) {
+        Book book = new Book("Book " + id, "ISBN-" + id, category);
+        book.setBookId(id);
+        book.setAvailable(available);
+        return book;
+    }
+
+    private static Borrowing borrowing(Long id, LocalDate dueDate) {
+        Borrowing borrowing = new Borrowing(null, null, TODAY.minusDays(14), dueDate);
+        borrowing.setBorrowingId(id);
+        return borrowing;
+    }
+
+    private static Member member(Long id, MemberStatus status) {
+        Member member = new Member("Member " + id, "member" + id + "@example.com", "0900000000");
+        member.setMemberId(id);
+        member.setStatus(status);
+        return member;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(LocalDate date) {
+            setDate(date);
+        }
+
+        void setDate(LocalDate date) {
+            instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
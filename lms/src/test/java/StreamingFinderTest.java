@@ -0,0 +1,63 @@
+package com.library.repository.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingFinderTest {
+
+    private static final String CATEGORY = "Streaming";
+    private static final int ROWS = 1_050;
+
+    private static BookRepository bookRepository;
+
+    @BeforeAll
+    static void setUp() {
+        bookRepository = new BookRepositoryImpl();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            books.add(new Book("Streaming Book " + i, "STREAM-" + i, CATEGORY));
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @Test
+    void streamByCategory_visitsEveryRowInIdOrder() {
+        AtomicLong previousId = new AtomicLong(Long.MIN_VALUE);
+        long rows;
+        try (Stream<Book> books = bookRepository.streamByCategory(CATEGORY)) {
+            rows = books.peek(book -> assertTrue(previousId.getAndSet(book.getBookId()) < book.getBookId()))
+                    .count();
+        }
+        assertEquals(ROWS, rows);
+    }
+
+    @Test
+    void forEachEntity_matchesCount() {
+        AtomicLong rows = new AtomicLong();
+        bookRepository.forEachEntity(book -> rows.incrementAndGet());
+        assertEquals(bookRepository.count(), rows.get());
+    }
+
+    @Test
+    void close_runsAfterPartialIteration() {
+        AtomicBoolean closed = new AtomicBoolean();
+        try (Stream<Book> books = bookRepository.streamAll().onClose(() -> closed.set(true))) {
+            assertEquals(10, books.limit(10).count());
+        }
+        assertTrue(closed.get());
+        // Session của stream đã được trả lại pool: các truy vấn sau vẫn chạy bình thường
+        try (Stream<Book> books = bookRepository.streamByCategory(CATEGORY)) {
+            assertEquals(ROWS, books.count());
+        }
+    }
+}
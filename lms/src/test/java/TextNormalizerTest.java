@@ -0,0 +1,21 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextNormalizerTest {
+
+    @Test
+    void fold_removesVietnameseDiacriticsAndCase() {
+        assertEquals("nguyen van a", TextNormalizer.fold("Nguyễn Văn A"));
+        assertEquals("dang thi dieu", TextNormalizer.fold("Đặng Thị Điệu"));
+        assertEquals("tieng viet", TextNormalizer.fold("TIẾNG VIỆT"));
+        assertNull(TextNormalizer.fold(null));
+    }
+
+    @Test
+    void likeContains_foldsAndMatchesAnywhere() {
+        assertEquals("%nguyen van%", TextNormalizer.likeContains("  Nguyễn Văn "));
+    }
+}
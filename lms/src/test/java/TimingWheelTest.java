@@ -0,0 +1,90 @@
+package com.library.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advanceTo_firesEachTimerOnItsDeadline_acrossLevels() {
+        long start = 19_000;
+        TimingWheel wheel = new TimingWheel(start);
+        long[] offsets = {1, 63, 64, 65, 4_095, 4_096, 4_097, 300_000};
+        for (long offset : offsets) {
+            assertTrue(wheel.schedule(offset, start + offset));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + 300_000; tick++) {
+            long expected = tick;
+            wheel.advanceTo(tick, id -> {
+                assertEquals(expected, start + id);
+                fired.add(id);
+            });
+        }
+
+        assertEquals(offsets.length, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_pastDeadline_isRejected_andRescheduleReplacesTimer() {
+        TimingWheel wheel = new TimingWheel(100);
+        assertFalse(wheel.schedule(1L, 100));
+        assertTrue(wheel.schedule(2L, 110));
+        assertTrue(wheel.schedule(2L, 200));
+        assertEquals(200, wheel.deadlineOf(2L));
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(150, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(200, fired::add);
+        assertEquals(List.of(2L), fired);
+    }
+
+    @Test
+    void cancel_removesTimer() {
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.schedule(1L, 5_000);
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+        assertTrue(fired.isEmpty());
+        assertEquals(-1, wheel.deadlineOf(1L));
+    }
+
+    @Test
+    void advanceTo_randomTimers_fireOnFirstAdvancePastDeadline() {
+        Random random = new Random(42);
+        TimingWheel wheel = new TimingWheel(20_000);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 5_000; id++) {
+            long deadline = 20_001 + random.nextInt(20_000);
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long tick = 20_001; tick <= 40_000; tick += 1 + random.nextInt(3)) {
+            long reached = tick;
+            wheel.advanceTo(tick, id -> fired.add(new long[]{id, reached}));
+        }
+        wheel.advanceTo(40_000, id -> fired.add(new long[]{id, 40_000}));
+
+        assertEquals(5_000, fired.size());
+        for (long[] timer : fired) {
+            // Không bao giờ báo sớm, và báo ngay ở lần advanceTo đầu tiên đi qua hạn
+            assertTrue(deadlines.get(timer[0]) <= timer[1]);
+            assertTrue(timer[1] - deadlines.get(timer[0]) < 3);
+        }
+    }
+}